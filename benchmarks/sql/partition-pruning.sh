@@ -0,0 +1,25 @@
+#!/usr/bin/env bash
+# Partition pruning for historical_stock_prices at several table sizes.
+# Runs against a scratch database the pipeline has migrated, and empties
+# historical_stock_prices there. Arguments go to the mysql client:
+#   benchmarks/sql/partition-pruning.sh -u root stock_pipeline_scratch
+# SIZES overrides the row counts, e.g. SIZES="5000000" for a quick run. Each
+# size writes its partition counts, plans and timings to
+# benchmarks/results/partition-pruning-<rows>.txt.
+set -euo pipefail
+
+dir="$(cd "$(dirname "$0")" && pwd)"
+results="$dir/../results"
+
+for rows in ${SIZES:-5000000 20000000 50000000}; do
+    echo "Loading $rows rows" >&2
+    start=$(date +%s)
+    mysql "$@" -e "SET @rows = $rows; SOURCE $dir/partition-pruning-load.sql"
+    loaded=$(( $(date +%s) - start ))
+    {
+        echo "# partition-pruning.sql at $rows rows, $(date -u +%Y-%m-%d)"
+        echo "# MySQL $(mysql "$@" -N -e 'SELECT VERSION()'), load and copy took ${loaded}s"
+        echo
+        mysql "$@" -t -vvv < "$dir/partition-pruning.sql"
+    } > "$results/partition-pruning-$rows.txt"
+done
@@ -0,0 +1,62 @@
+-- Plans and timings of the API's range queries, partitioned vs. unpartitioned.
+-- Run by partition-pruning.sh after partition-pruning-load.sql; EXPLAIN
+-- ANALYZE needs MySQL 8.0.18 or later.
+
+-- Expect p202501-p202607 with similar row counts, and an empty p_max
+SELECT PARTITION_NAME, TABLE_ROWS
+FROM information_schema.PARTITIONS
+WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'historical_stock_prices'
+ORDER BY PARTITION_ORDINAL_POSITION;
+
+-- One day of one symbol: "partitions" must list p202506 only
+EXPLAIN SELECT * FROM historical_stock_prices
+WHERE symbol = 'SYM42' AND timestamp BETWEEN '2025-06-10' AND '2025-06-11';
+
+-- Statistics over a month: p202503 only, and a range on uk_symbol_timestamp
+EXPLAIN SELECT symbol, MIN(price), MAX(price), AVG(price), COUNT(*)
+FROM historical_stock_prices
+WHERE symbol IN ('SYM1', 'SYM2') AND timestamp >= '2025-03-01' AND timestamp < '2025-04-01'
+GROUP BY symbol;
+
+-- A month across all symbols: p202503 only, where the flat table scans everything
+EXPLAIN SELECT COUNT(*), AVG(price) FROM historical_stock_prices
+WHERE timestamp >= '2025-03-01' AND timestamp < '2025-04-01';
+
+-- Timings. Each query runs twice per table; the second run reads a warm buffer pool
+EXPLAIN ANALYZE SELECT COUNT(*), AVG(price) FROM historical_stock_prices
+WHERE symbol = 'SYM42' AND timestamp BETWEEN '2025-06-10' AND '2025-06-11';
+EXPLAIN ANALYZE SELECT COUNT(*), AVG(price) FROM historical_stock_prices
+WHERE symbol = 'SYM42' AND timestamp BETWEEN '2025-06-10' AND '2025-06-11';
+EXPLAIN ANALYZE SELECT COUNT(*), AVG(price) FROM historical_stock_prices_flat
+WHERE symbol = 'SYM42' AND timestamp BETWEEN '2025-06-10' AND '2025-06-11';
+EXPLAIN ANALYZE SELECT COUNT(*), AVG(price) FROM historical_stock_prices_flat
+WHERE symbol = 'SYM42' AND timestamp BETWEEN '2025-06-10' AND '2025-06-11';
+
+EXPLAIN ANALYZE SELECT symbol, MIN(price), MAX(price), AVG(price), COUNT(*)
+FROM historical_stock_prices
+WHERE symbol IN ('SYM1', 'SYM2') AND timestamp >= '2025-03-01' AND timestamp < '2025-04-01'
+GROUP BY symbol;
+EXPLAIN ANALYZE SELECT symbol, MIN(price), MAX(price), AVG(price), COUNT(*)
+FROM historical_stock_prices
+WHERE symbol IN ('SYM1', 'SYM2') AND timestamp >= '2025-03-01' AND timestamp < '2025-04-01'
+GROUP BY symbol;
+EXPLAIN ANALYZE SELECT symbol, MIN(price), MAX(price), AVG(price), COUNT(*)
+FROM historical_stock_prices_flat
+WHERE symbol IN ('SYM1', 'SYM2') AND timestamp >= '2025-03-01' AND timestamp < '2025-04-01'
+GROUP BY symbol;
+EXPLAIN ANALYZE SELECT symbol, MIN(price), MAX(price), AVG(price), COUNT(*)
+FROM historical_stock_prices_flat
+WHERE symbol IN ('SYM1', 'SYM2') AND timestamp >= '2025-03-01' AND timestamp < '2025-04-01'
+GROUP BY symbol;
+
+EXPLAIN ANALYZE SELECT COUNT(*), AVG(price) FROM historical_stock_prices
+WHERE timestamp >= '2025-03-01' AND timestamp < '2025-04-01';
+EXPLAIN ANALYZE SELECT COUNT(*), AVG(price) FROM historical_stock_prices
+WHERE timestamp >= '2025-03-01' AND timestamp < '2025-04-01';
+EXPLAIN ANALYZE SELECT COUNT(*), AVG(price) FROM historical_stock_prices_flat
+WHERE timestamp >= '2025-03-01' AND timestamp < '2025-04-01';
+EXPLAIN ANALYZE SELECT COUNT(*), AVG(price) FROM historical_stock_prices_flat
+WHERE timestamp >= '2025-03-01' AND timestamp < '2025-04-01';
+
+-- Retention: dropping a month is a metadata operation, not a DELETE of its rows
+-- ALTER TABLE historical_stock_prices DROP PARTITION p202501;
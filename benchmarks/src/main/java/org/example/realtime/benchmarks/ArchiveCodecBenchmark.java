@@ -0,0 +1,51 @@
+package org.example.realtime.benchmarks;
+
+import org.example.realtime.archive.TickArchiveCodec;
+import org.example.realtime.archive.TickColumns;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sealing and reading one symbol-day in the columnar archive format.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ArchiveCodecBenchmark {
+
+    @Param({"1000", "100000"})
+    public int ticks;
+
+    private long[] timestampsMicros;
+    private double[] prices;
+    private double[] volumes;
+    private ByteBuffer sealed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TickSeries series = TickSeries.generate(ticks, 3);
+        timestampsMicros = new long[ticks];
+        for (int i = 0; i < ticks; i++) {
+            timestampsMicros[i] = series.timestampsMillis[i] * 1_000;
+        }
+        prices = series.prices;
+        volumes = series.volumes;
+        byte[] bytes = TickArchiveCodec.encode(timestampsMicros, prices, volumes, ticks);
+        sealed = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return TickArchiveCodec.encode(timestampsMicros, prices, volumes, ticks);
+    }
+
+    @Benchmark
+    public TickColumns decode() {
+        return TickArchiveCodec.decode(sealed.duplicate());
+    }
+}
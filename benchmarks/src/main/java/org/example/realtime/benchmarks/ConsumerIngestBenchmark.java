@@ -0,0 +1,190 @@
+package org.example.realtime.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.realtime.analysis.Timestamps;
+import org.example.realtime.metrics.PipelineMetrics;
+import org.example.realtime.model.StockPrice;
+import org.example.realtime.model.Tick;
+import org.example.realtime.repository.HistoricalStockPriceRepository;
+import org.example.realtime.repository.JournalCheckpointRepository;
+import org.example.realtime.repository.PriceBarRepository;
+import org.example.realtime.serialization.StockPriceCodec;
+import org.example.realtime.serialization.TickDeserializer;
+import org.example.realtime.service.AnalysisResultCache;
+import org.example.realtime.service.HistoricalDataService;
+import org.example.realtime.service.IndicatorEngineService;
+import org.example.realtime.service.PartitionStateManager;
+import org.example.realtime.service.PriceBarService;
+import org.example.realtime.service.QuoteBroadcastService;
+import org.example.realtime.service.StockConsumerService;
+import org.example.realtime.service.TickArchiveService;
+import org.example.realtime.service.TickJournalService;
+import org.example.realtime.service.TickStoreService;
+import org.example.realtime.symbol.SymbolDictionary;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * {@link StockConsumerService#ingest} itself for one poll of 1000 records,
+ * with the real tick store, indicator engine, result cache and broadcaster.
+ * {@code journal} appends to a real tick journal in a temp directory, drained
+ * through {@link HistoricalDataService#saveJournaled}; {@code database} calls
+ * {@link HistoricalDataService#saveStockPrices} directly. The service, its
+ * bar fold and archive filter are real; only the repositories are stubbed,
+ * so the JDBC statements themselves are not measured. Decoding is included,
+ * as in the listener. Ticks start at the current time and every op moves the
+ * encoded timestamps past the previous batch, so none is rejected as out of
+ * order or treated as late. The drainer shares the CPU with the benchmark
+ * thread. Compare
+ * {@code gc.alloc.rate.norm} under {@code -prof gc} with
+ * {@link IngestBenchmark}, which covers only the in-memory steps.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConsumerIngestBenchmark {
+
+    private static final int BATCH = 1000;
+    private static final VarHandle LONG_AT = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    @Param({"1", "100", "1000"})
+    public int symbols;
+
+    @Param({"journal", "database"})
+    public String persistence;
+
+    private byte[][] records;
+    private int[] timestampOffsets;
+    private long batchSpanNanos;
+    private TickDeserializer deserializer;
+    private StockConsumerService consumer;
+    private TickJournalService journal;
+    private Path journalDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        TickSeries series = TickSeries.generate(BATCH, 11);
+        records = new byte[BATCH][];
+        timestampOffsets = new int[BATCH];
+        long startMillis = System.currentTimeMillis() - series.timestampsMillis[0];
+        for (int i = 0; i < BATCH; i++) {
+            String symbol = "S" + (i % symbols);
+            StockPrice stock = new StockPrice(symbol, series.prices[i], series.volumes[i], 0, 0,
+                    series.prices[i], series.prices[i], series.prices[i], series.prices[i]);
+            stock.setTimestamp(Timestamps.fromEpochMillis(series.timestampsMillis[i] + startMillis));
+            records[i] = StockPriceCodec.encode(stock);
+            // Version byte, symbol length, symbol, then epoch nanos
+            timestampOffsets[i] = 2 + symbol.length();
+        }
+        batchSpanNanos = (series.timestampsMillis[BATCH - 1] - series.timestampsMillis[0] + 10_000) * 1_000_000;
+
+        SymbolDictionary dictionary = new SymbolDictionary();
+        deserializer = new TickDeserializer(dictionary);
+        PipelineMetrics metrics = new PipelineMetrics(new SimpleMeterRegistry(), new String[0]);
+        journalDir = Files.createTempDirectory("ingest-journal");
+
+        TickArchiveService archive = new TickArchiveService(null, null);
+        set(archive, "archiveDir", journalDir.resolve("archive").toString());
+        set(archive, "sealAfterDays", 1);
+        set(archive, "dbRetentionDays", 30);
+        HistoricalDataService database = new HistoricalDataService(stub(HistoricalStockPriceRepository.class),
+                new CheckpointStub(), new PriceBarService(stub(PriceBarRepository.class)), null, archive, metrics,
+                dictionary);
+        set(database, "statisticsCacheSize", 10_000L);
+        set(database, "settleSeconds", 60L);
+        set(database, "statisticsMaxAgeMinutes", 60L);
+        Method initCache = HistoricalDataService.class.getDeclaredMethod("initStatisticsCache");
+        initCache.setAccessible(true);
+        initCache.invoke(database);
+
+        TickStoreService tickStore = new TickStoreService(database, dictionary);
+        set(tickStore, "capacityPerSymbol", 100_000);
+        set(tickStore, "memoryBudgetMb", 1024L);
+        IndicatorEngineService indicators = new IndicatorEngineService(tickStore, dictionary);
+        set(indicators, "rsiPeriod", 14);
+
+        journal = new TickJournalService(database, new CheckpointStub(), dictionary, metrics,
+                persistence.equals("journal"), "bench", journalDir.toString(), 64 * 1024 * 1024,
+                4L * 1024 * 1024 * 1024, false, 20_000, 200, 30_000);
+        Method open = TickJournalService.class.getDeclaredMethod("open");
+        open.setAccessible(true);
+        open.invoke(journal);
+
+        consumer = new StockConsumerService(database, indicators, tickStore,
+                new PartitionStateManager(indicators, tickStore),
+                new QuoteBroadcastService(metrics, 1, 10, 10, 60_000, 2_000),
+                new AnalysisResultCache(dictionary, metrics, 10_000, 2_000, 300_000),
+                journal, dictionary, metrics, 1000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        journal.shutdown();
+        try (Stream<Path> files = Files.walk(journalDir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public int ingest() {
+        List<Tick> ticks = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            byte[] record = records[i];
+            LONG_AT.set(record, timestampOffsets[i], (long) LONG_AT.get(record, timestampOffsets[i]) + batchSpanNanos);
+            ticks.add(deserializer.deserialize("stock-prices", record));
+        }
+        consumer.ingest(ticks);
+        return ticks.size();
+    }
+
+    private static void set(Object target, String field, Object value) throws ReflectiveOperationException {
+        Field declared = target.getClass().getDeclaredField(field);
+        declared.setAccessible(true);
+        declared.set(target, value);
+    }
+
+    // Stands in for MySQL: every tick counts as newly inserted, bars are dropped
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> repository) {
+        return (T) Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[] {repository},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "insertNewTicks" -> args[0];
+                    case "upsertAll" -> null;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static final class CheckpointStub extends JournalCheckpointRepository {
+
+        private CheckpointStub() {
+            super(null);
+        }
+
+        @Override
+        public long findPosition(String journalName) {
+            return 0L;
+        }
+
+        @Override
+        public void savePosition(String journalName, long position) {
+        }
+    }
+}
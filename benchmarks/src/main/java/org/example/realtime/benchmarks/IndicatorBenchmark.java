@@ -0,0 +1,53 @@
+package org.example.realtime.benchmarks;
+
+import org.example.realtime.analysis.IndicatorState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming RSI/MACD state: the cold-start seed (one linear pass over the
+ * window) and the steady-state per-tick update.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IndicatorBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    public int ticks;
+
+    private TickSeries series;
+    private IndicatorState live;
+    private int cursor;
+    private long timestamp;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        series = TickSeries.generate(ticks, 42);
+        live = new IndicatorState(14);
+        for (int i = 0; i < series.length(); i++) {
+            live.update(series.prices[i], series.timestampsMillis[i]);
+        }
+        timestamp = series.timestampsMillis[series.length() - 1];
+    }
+
+    @Benchmark
+    public double seedFromWindow() {
+        IndicatorState state = new IndicatorState(14);
+        for (int i = 0; i < series.length(); i++) {
+            state.update(series.prices[i], series.timestampsMillis[i]);
+        }
+        return state.getMacdHistogram() + state.getRsi();
+    }
+
+    @Benchmark
+    public double updateOneTick() {
+        int i = cursor++ % series.length();
+        live.update(series.prices[i], ++timestamp);
+        return live.getMacdHistogram() + live.getRsi();
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.realtime.benchmarks;
+
+import org.example.realtime.analysis.IndicatorState;
+import org.example.realtime.analysis.TickRingBuffer;
+import org.example.realtime.analysis.Timestamps;
+import org.example.realtime.model.StockPrice;
+import org.example.realtime.model.Tick;
+import org.example.realtime.serialization.StockPriceCodec;
+import org.example.realtime.serialization.StockPriceDeserializer;
+import org.example.realtime.serialization.TickDeserializer;
+import org.example.realtime.symbol.SymbolDictionary;
+import org.example.realtime.symbol.SymbolTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory part of the consumer hot path for one poll of 1000 records:
+ * decode, append to the symbol's tick buffer and advance its indicators.
+ * Database writes are excluded.
+ * <p>
+ * {@code consumeBatch} is the StockPrice path with String-keyed maps;
+ * {@code consumeBatchCompact} decodes into Ticks with interned symbol IDs.
+ * Compare {@code gc.alloc.rate.norm} under {@code -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IngestBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({"1", "100", "1000"})
+    public int symbols;
+
+    private final StockPriceDeserializer deserializer = new StockPriceDeserializer();
+    private final Map<String, TickRingBuffer> buffers = new HashMap<>();
+    private final Map<String, IndicatorState> indicators = new HashMap<>();
+    private final TickDeserializer tickDeserializer = new TickDeserializer(new SymbolDictionary());
+    private final SymbolTable<TickRingBuffer> tickBuffers = new SymbolTable<>();
+    private final SymbolTable<IndicatorState> tickIndicators = new SymbolTable<>();
+    private byte[][] records;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TickSeries series = TickSeries.generate(BATCH, 11);
+        records = new byte[BATCH][];
+        for (int i = 0; i < BATCH; i++) {
+            String symbol = "S" + (i % symbols);
+            StockPrice stock = new StockPrice(symbol, series.prices[i], series.volumes[i], 0, 0,
+                    series.prices[i], series.prices[i], series.prices[i], series.prices[i]);
+            stock.setTimestamp(Timestamps.fromEpochMillis(series.timestampsMillis[i]));
+            records[i] = StockPriceCodec.encode(stock);
+        }
+    }
+
+    @Benchmark
+    public int consumeBatch() {
+        int appended = 0;
+        for (byte[] record : records) {
+            StockPrice stock = deserializer.deserialize("stock-prices", record);
+            long timestamp = Timestamps.toEpochMillis(stock.getTimestamp());
+            buffers.computeIfAbsent(stock.getSymbol(), key -> new TickRingBuffer(100_000))
+                    .append(timestamp, stock.getPrice(), stock.getVolume());
+            indicators.computeIfAbsent(stock.getSymbol(), key -> new IndicatorState(14))
+                    .update(stock.getPrice(), timestamp);
+            appended++;
+        }
+        return appended;
+    }
+
+    @Benchmark
+    public int consumeBatchCompact() {
+        int appended = 0;
+        for (byte[] record : records) {
+            Tick tick = tickDeserializer.deserialize("stock-prices", record);
+            long timestamp = tick.getEpochMillis();
+            tickBuffers.computeIfAbsent(tick.getSymbolId(), id -> new TickRingBuffer(100_000))
+                    .append(timestamp, tick.getPrice(), tick.getVolume());
+            tickIndicators.computeIfAbsent(tick.getSymbolId(), id -> new IndicatorState(14))
+                    .update(tick.getPrice(), timestamp);
+            appended++;
+        }
+        return appended;
+    }
+}
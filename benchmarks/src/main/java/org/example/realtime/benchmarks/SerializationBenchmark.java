@@ -0,0 +1,67 @@
+package org.example.realtime.benchmarks;
+
+import org.example.realtime.model.StockPrice;
+import org.example.realtime.serialization.StockPriceDeserializer;
+import org.example.realtime.serialization.StockPriceSerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka value encode/decode of StockPrice in the legacy JSON format and the
+ * binary layout. Run {@link #main} to print bytes per message.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+
+    private static final String TOPIC = "stock-prices";
+
+    @Param({"json", "binary"})
+    public String format;
+
+    private StockPriceSerializer serializer;
+    private StockPriceDeserializer deserializer;
+    private StockPrice stock;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        serializer = serializer(format);
+        deserializer = new StockPriceDeserializer();
+        stock = sample();
+        encoded = serializer.serialize(TOPIC, stock);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(TOPIC, stock);
+    }
+
+    @Benchmark
+    public StockPrice decode() {
+        return deserializer.deserialize(TOPIC, encoded);
+    }
+
+    public static void main(String[] args) {
+        for (String format : new String[] {"json", "binary"}) {
+            int bytes = serializer(format).serialize(TOPIC, sample()).length;
+            System.out.println(format + ": " + bytes + " bytes/message");
+        }
+    }
+
+    private static StockPriceSerializer serializer(String format) {
+        StockPriceSerializer serializer = new StockPriceSerializer();
+        serializer.configure(Map.of(StockPriceSerializer.FORMAT_CONFIG, format), false);
+        return serializer;
+    }
+
+    private static StockPrice sample() {
+        return new StockPrice("AAPL", 189.37, 48_213_552, 1.42, 0.755, 190.12, 187.80, 188.05, 187.95);
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.realtime.benchmarks;
+
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic tick series: a cent-rounded random walk sampled
+ * roughly every 10 seconds with occasional jitter.
+ */
+final class TickSeries {
+
+    final long[] timestampsMillis;
+    final double[] prices;
+    final double[] volumes;
+
+    private TickSeries(int length) {
+        timestampsMillis = new long[length];
+        prices = new double[length];
+        volumes = new double[length];
+    }
+
+    static TickSeries generate(int length, long seed) {
+        TickSeries series = new TickSeries(length);
+        SplittableRandom random = new SplittableRandom(seed);
+        long timestamp = 1_700_000_000_000L;
+        double price = 100.0;
+        for (int i = 0; i < length; i++) {
+            timestamp += 10_000 + (random.nextInt(10) == 0 ? random.nextInt(5_000) : 0);
+            price = Math.max(1.0, Math.round((price + random.nextDouble(-0.25, 0.25)) * 100) / 100.0);
+            series.timestampsMillis[i] = timestamp;
+            series.prices[i] = price;
+            series.volumes[i] = 1_000 + random.nextInt(50_000);
+        }
+        return series;
+    }
+
+    int length() {
+        return prices.length;
+    }
+}
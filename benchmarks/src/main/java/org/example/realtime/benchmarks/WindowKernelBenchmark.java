@@ -0,0 +1,74 @@
+package org.example.realtime.benchmarks;
+
+import org.example.realtime.analysis.PriceWindow;
+import org.example.realtime.analysis.TickRingBuffer;
+import org.example.realtime.analysis.WindowKernel;
+import org.example.realtime.analysis.WindowStatistics;
+import org.example.realtime.analysis.WindowSummary;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The batch summary kernel (first price, volatility, average volume) against
+ * the separate per-metric passes it replaces. Setup fails if the two
+ * disagree, so every run also checks that the kernel keeps the existing
+ * semantics.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WindowKernelBenchmark {
+
+    private static final double TOLERANCE = 1e-9;
+
+    @Param({"1000", "100000", "10000000"})
+    public int ticks;
+
+    private TickRingBuffer buffer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TickSeries series = TickSeries.generate(ticks, 5);
+        buffer = new TickRingBuffer(ticks);
+        for (int i = 0; i < ticks; i++) {
+            buffer.append(series.timestampsMillis[i], series.prices[i], series.volumes[i]);
+        }
+        buffer.read(Long.MIN_VALUE, Long.MAX_VALUE, window -> {
+            verify(window);
+            return null;
+        });
+    }
+
+    @Benchmark
+    public WindowSummary fused() {
+        return buffer.read(Long.MIN_VALUE, Long.MAX_VALUE, WindowKernel::summarize);
+    }
+
+    @Benchmark
+    public void separatePasses(Blackhole blackhole) {
+        buffer.read(Long.MIN_VALUE, Long.MAX_VALUE, window -> {
+            blackhole.consume(window.priceAt(0));
+            blackhole.consume(WindowStatistics.returnVolatility(window));
+            blackhole.consume(WindowStatistics.averageVolume(window));
+            return null;
+        });
+    }
+
+    private static void verify(PriceWindow window) {
+        WindowSummary summary = WindowKernel.summarize(window);
+        check("firstPrice", window.priceAt(0), summary.getFirstPrice());
+        check("volatility", WindowStatistics.returnVolatility(window), summary.getVolatility());
+        check("averageVolume", WindowStatistics.averageVolume(window), summary.getAverageVolume());
+    }
+
+    private static void check(String metric, double expected, double actual) {
+        if (Math.abs(expected - actual) > TOLERANCE * Math.max(1.0, Math.abs(expected))) {
+            throw new IllegalStateException(metric + ": kernel " + actual + " != reference " + expected);
+        }
+    }
+}
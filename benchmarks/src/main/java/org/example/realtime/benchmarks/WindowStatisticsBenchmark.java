@@ -0,0 +1,59 @@
+package org.example.realtime.benchmarks;
+
+import org.example.realtime.analysis.ListPriceWindow;
+import org.example.realtime.analysis.TickRingBuffer;
+import org.example.realtime.analysis.Timestamps;
+import org.example.realtime.analysis.WindowStatistics;
+import org.example.realtime.model.HistoricalStockPrice;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Volatility and average-volume passes over the in-memory ring buffer and
+ * over entity lists as loaded from the database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WindowStatisticsBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    public int ticks;
+
+    private TickRingBuffer buffer;
+    private ListPriceWindow entityWindow;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TickSeries series = TickSeries.generate(ticks, 7);
+        buffer = new TickRingBuffer(ticks);
+        List<HistoricalStockPrice> rows = new ArrayList<>(ticks);
+        for (int i = 0; i < ticks; i++) {
+            buffer.append(series.timestampsMillis[i], series.prices[i], series.volumes[i]);
+            rows.add(new HistoricalStockPrice(null, "SYM", series.prices[i], series.volumes[i],
+                    Timestamps.fromEpochMillis(series.timestampsMillis[i])));
+        }
+        entityWindow = new ListPriceWindow(rows);
+    }
+
+    @Benchmark
+    public Double volatilityRingBuffer() {
+        return buffer.read(Long.MIN_VALUE, Long.MAX_VALUE, WindowStatistics::returnVolatility);
+    }
+
+    @Benchmark
+    public Double volatilityEntityList() {
+        return WindowStatistics.returnVolatility(entityWindow);
+    }
+
+    @Benchmark
+    public Double averageVolumeRingBuffer() {
+        return buffer.read(Long.MIN_VALUE, Long.MAX_VALUE, WindowStatistics::averageVolume);
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.realtime.benchmarks.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load test for the analysis and historical endpoints: each
+ * client thread sends its next request as soon as the previous one answers.
+ * Prints throughput, latency percentiles and the status code mix, so runs
+ * before and after a change can be compared at the same concurrency.
+ * <p>
+ * Usage: {@code LoadTest [baseUrl=http://localhost:8080] [clients=200] [seconds=60] [symbols=500]}
+ */
+public final class LoadTest {
+
+    private static final String[] PATHS = {
+            "/api/v1/analysis/trend/%s",
+            "/api/v1/analysis/volatility/%s",
+            "/api/v1/analysis/moving-average/%s",
+            "/api/v1/analysis/volume-analysis/%s",
+            "/api/v1/analysis/technical-indicators/%s",
+            "/api/historical/%s/recent?limit=100",
+    };
+
+    public static void main(String[] args) throws InterruptedException {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        int symbols = args.length > 3 ? Integer.parseInt(args[3]) : 500;
+
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        List<Samples> latencies = new ArrayList<>();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        CountDownLatch done = new CountDownLatch(clients);
+
+        for (int c = 0; c < clients; c++) {
+            // Per-client buffers avoid contention on the measuring path
+            Samples samples = new Samples();
+            latencies.add(samples);
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    while (System.nanoTime() < deadline) {
+                        String path = String.format(PATHS[random.nextInt(PATHS.length)],
+                                StubUpstream.symbol(random.nextInt(symbols)));
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                                .timeout(Duration.ofSeconds(30))
+                                .build();
+                        long started = System.nanoTime();
+                        int status;
+                        try {
+                            status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            status = -1;
+                        }
+                        samples.add(System.nanoTime() - started);
+                        statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-client-" + c);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+
+        int total = 0;
+        for (Samples samples : latencies) total += samples.size;
+        long[] all = new long[total];
+        int offset = 0;
+        for (Samples samples : latencies) {
+            System.arraycopy(samples.nanos, 0, all, offset, samples.size);
+            offset += samples.size;
+        }
+        Arrays.sort(all);
+
+        System.out.printf("%d clients, %d s: %d requests, %.0f req/s%n", clients, seconds, total,
+                total / (double) seconds);
+        System.out.printf("latency ms p50=%.1f p95=%.1f p99=%.1f max=%.1f%n",
+                percentile(all, 0.50), percentile(all, 0.95), percentile(all, 0.99), percentile(all, 1.0));
+        Map<Integer, Long> byStatus = new TreeMap<>();
+        statuses.forEach((status, count) -> byStatus.put(status, count.sum()));
+        System.out.println("status " + byStatus + " (-1 = connection error)");
+    }
+
+    private static final class Samples {
+        private long[] nanos = new long[4096];
+        private int size;
+
+        private void add(long value) {
+            if (size == nanos.length) nanos = Arrays.copyOf(nanos, size * 2);
+            nanos[size++] = value;
+        }
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.realtime.benchmarks.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stands in for Yahoo Finance and Alpha Vantage during load tests, answering
+ * after a fixed delay so slow upstreams can be simulated. Point the pipeline
+ * at it with {@code provider.yahoo.base-url} and
+ * {@code provider.alpha-vantage.base-url}.
+ * <p>
+ * Usage: {@code StubUpstream [port=8089] [delayMs=50] [symbols=500]}
+ */
+public final class StubUpstream {
+
+    private final int delayMs;
+    private final int symbols;
+
+    private StubUpstream(int delayMs, int symbols) {
+        this.delayMs = delayMs;
+        this.symbols = symbols;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        StubUpstream stub = new StubUpstream(
+                args.length > 1 ? Integer.parseInt(args[1]) : 50,
+                args.length > 2 ? Integer.parseInt(args[2]) : 500);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.createContext("/v8/finance/chart/", stub::chart);
+        server.createContext("/query", stub::listing);
+        // Delays sleep on these threads, so size the pool for the concurrency under test
+        ExecutorService workers = Executors.newFixedThreadPool(256);
+        server.setExecutor(workers);
+        server.start();
+        System.out.printf("Stub upstream on :%d, %d ms delay, %d symbols%n", port, stub.delayMs, stub.symbols);
+    }
+
+    private void chart(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String symbol = path.substring(path.lastIndexOf('/') + 1);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double price = 100 + (symbol.hashCode() & 0xff) + random.nextDouble(-1, 1);
+        respond(exchange, String.format(Locale.ROOT,
+                "{\"chart\":{\"result\":[{\"meta\":{\"symbol\":\"%s\",\"regularMarketPrice\":%.4f,"
+                        + "\"regularMarketVolume\":%d,\"regularMarketDayHigh\":%.4f,\"regularMarketDayLow\":%.4f,"
+                        + "\"regularMarketOpen\":%.4f,\"chartPreviousClose\":%.4f}}],\"error\":null}}",
+                symbol, price, random.nextInt(1_000, 1_000_000), price + 1, price - 1, price - 0.5, price - 0.25));
+    }
+
+    private void listing(HttpExchange exchange) throws IOException {
+        StringBuilder body = new StringBuilder("{\"data\":[");
+        for (int i = 0; i < symbols; i++) {
+            if (i > 0) body.append(',');
+            body.append("{\"symbol\":\"").append(symbol(i)).append("\"}");
+        }
+        respond(exchange, body.append("]}").toString());
+    }
+
+    static String symbol(int index) {
+        return "SYM" + index;
+    }
+
+    private void respond(HttpExchange exchange, String json) throws IOException {
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * V2 put every existing row into p_max, so range queries over old data could
+ * not be pruned. Splits the lowest partition into monthly partitions starting
+ * at the month of the oldest row, in one reorganization. Later months are
+ * added by PartitionMaintenanceService.
+ */
+public class V6__split_historical_partitions_by_month extends BaseJavaMigration {
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    // MySQL TO_DAYS('1970-01-01')
+    private static final long TO_DAYS_EPOCH_OFFSET = 719528;
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        try (Statement statement = context.getConnection().createStatement()) {
+            YearMonth first = YearMonth.now();
+            try (ResultSet oldest = statement.executeQuery("SELECT MIN(timestamp) FROM historical_stock_prices")) {
+                Timestamp min = oldest.next() ? oldest.getTimestamp(1) : null;
+                if (min != null) first = YearMonth.from(min.toLocalDateTime());
+            }
+            // Old rows sit in the lowest partition: p_max straight after V2, or the first
+            // month PartitionMaintenanceService split off if it already ran
+            String lowest;
+            String lowestBound;
+            try (ResultSet partitions = statement.executeQuery(
+                    "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS "
+                            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'historical_stock_prices' "
+                            + "AND PARTITION_NAME IS NOT NULL ORDER BY PARTITION_ORDINAL_POSITION LIMIT 1")) {
+                if (!partitions.next()) return;
+                lowest = partitions.getString(1);
+                lowestBound = partitions.getString(2);
+            }
+            boolean onlyMax = "p_max".equals(lowest);
+            long limit = onlyMax ? toDays(YearMonth.now().plusMonths(1).atDay(1)) : Long.parseLong(lowestBound);
+
+            StringBuilder split = new StringBuilder();
+            for (YearMonth month = first; ; month = month.plusMonths(1)) {
+                long bound = toDays(month.plusMonths(1).atDay(1));
+                if (bound > limit || (!onlyMax && bound == limit)) break;
+                split.append("PARTITION ").append(month.format(PARTITION_NAME))
+                        .append(" VALUES LESS THAN (").append(bound).append("), ");
+            }
+            if (split.length() == 0) return;
+            statement.execute("ALTER TABLE historical_stock_prices REORGANIZE PARTITION " + lowest + " INTO ("
+                    + split + "PARTITION " + lowest + " VALUES LESS THAN ("
+                    + (onlyMax ? "MAXVALUE" : lowestBound) + "))");
+        }
+    }
+
+    private static long toDays(LocalDate date) {
+        return date.toEpochDay() + TO_DAYS_EPOCH_OFFSET;
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.realtime.analysis;
+
+import org.example.realtime.model.WindowAggregate;
+
+import java.util.List;
+
+/**
+ * Presents Kafka Streams window aggregates as a {@link PriceWindow} of window
+ * closes, with volume per tick as in {@link BarPriceWindow}.
+ */
+public class AggregatePriceWindow implements PriceWindow {
+
+    private final List<WindowAggregate> aggregates;
+
+    public AggregatePriceWindow(List<WindowAggregate> aggregates) {
+        this.aggregates = aggregates;
+    }
+
+    @Override
+    public int size() {
+        return aggregates.size();
+    }
+
+    @Override
+    public long timestampAt(int index) {
+        return aggregates.get(index).getLastTimestamp();
+    }
+
+    @Override
+    public double priceAt(int index) {
+        return aggregates.get(index).getClosePrice();
+    }
+
+    @Override
+    public double volumeAt(int index) {
+        WindowAggregate aggregate = aggregates.get(index);
+        return aggregate.getTickCount() > 0 ? aggregate.getVolume() / aggregate.getTickCount() : 0.0;
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.realtime.analysis;
+
+import org.example.realtime.model.PriceBar;
+
+import java.util.List;
+
+/**
+ * Presents OHLCV bars as a {@link PriceWindow} of bar closes. Volume is the
+ * mean volume per tick within each bar, matching what tick windows report.
+ */
+public class BarPriceWindow implements PriceWindow {
+
+    private final List<PriceBar> bars;
+
+    public BarPriceWindow(List<PriceBar> bars) {
+        this.bars = bars;
+    }
+
+    @Override
+    public int size() {
+        return bars.size();
+    }
+
+    @Override
+    public long timestampAt(int index) {
+        return Timestamps.toEpochMillis(bars.get(index).getBucketStart());
+    }
+
+    @Override
+    public double priceAt(int index) {
+        return bars.get(index).getClosePrice();
+    }
+
+    @Override
+    public double volumeAt(int index) {
+        PriceBar bar = bars.get(index);
+        return bar.getTickCount() > 0 ? bar.getVolume() / bar.getTickCount() : 0.0;
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.realtime.analysis;
+
+import lombok.Getter;
+
+/**
+ * Streaming EMA/MACD/RSI state for a single symbol. Every update is O(1);
+ * callers are expected to serialize updates per symbol.
+ */
+@Getter
+public class IndicatorState {
+
+    public static final int FAST_PERIOD = 12;
+    public static final int SLOW_PERIOD = 26;
+    public static final int SIGNAL_PERIOD = 9;
+
+    private static final double FAST_MULTIPLIER = 2.0 / (FAST_PERIOD + 1);
+    private static final double SLOW_MULTIPLIER = 2.0 / (SLOW_PERIOD + 1);
+    private static final double SIGNAL_MULTIPLIER = 2.0 / (SIGNAL_PERIOD + 1);
+
+    private final int rsiPeriod;
+
+    private long count;
+    private long lastTimestamp;
+    private double lastPrice;
+
+    private double fastEma;
+    private double slowEma;
+    private double signalEma;
+
+    // Wilder smoothing: simple average over the first rsiPeriod changes, then
+    // avg = (avg * (n - 1) + x) / n
+    private double avgGain;
+    private double avgLoss;
+
+    public IndicatorState(int rsiPeriod) {
+        if (rsiPeriod < 1) {
+            throw new IllegalArgumentException("RSI period must be positive: " + rsiPeriod);
+        }
+        this.rsiPeriod = rsiPeriod;
+    }
+
+    // Point-in-time copy for readers on other threads
+    public IndicatorState copy() {
+        IndicatorState copy = new IndicatorState(rsiPeriod);
+        copy.count = count;
+        copy.lastTimestamp = lastTimestamp;
+        copy.lastPrice = lastPrice;
+        copy.fastEma = fastEma;
+        copy.slowEma = slowEma;
+        copy.signalEma = signalEma;
+        copy.avgGain = avgGain;
+        copy.avgLoss = avgLoss;
+        return copy;
+    }
+
+    public void update(double price, long timestamp) {
+        if (count == 0) {
+            fastEma = price;
+            slowEma = price;
+            signalEma = 0.0;
+        } else {
+            fastEma = (price - fastEma) * FAST_MULTIPLIER + fastEma;
+            slowEma = (price - slowEma) * SLOW_MULTIPLIER + slowEma;
+            signalEma = (getMacdLine() - signalEma) * SIGNAL_MULTIPLIER + signalEma;
+
+            double change = price - lastPrice;
+            double gain = change > 0 ? change : 0.0;
+            double loss = change < 0 ? -change : 0.0;
+            long changes = count; // number of price changes seen including this one
+            if (changes <= rsiPeriod) {
+                avgGain += gain / rsiPeriod;
+                avgLoss += loss / rsiPeriod;
+            } else {
+                avgGain = (avgGain * (rsiPeriod - 1) + gain) / rsiPeriod;
+                avgLoss = (avgLoss * (rsiPeriod - 1) + loss) / rsiPeriod;
+            }
+        }
+        lastPrice = price;
+        lastTimestamp = timestamp;
+        count++;
+    }
+
+    public boolean isWarm() {
+        return count > rsiPeriod;
+    }
+
+    public double getMacdLine() {
+        return fastEma - slowEma;
+    }
+
+    public double getMacdHistogram() {
+        return getMacdLine() - signalEma;
+    }
+
+    public double getRsi() {
+        if (!isWarm()) return 50.0;
+        if (avgLoss == 0) return 100.0;
+        double rs = avgGain / avgLoss;
+        return 100.0 - (100.0 / (1.0 + rs));
+    }
+}
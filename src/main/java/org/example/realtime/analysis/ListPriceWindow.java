@@ -0,0 +1,37 @@
+package org.example.realtime.analysis;
+
+import org.example.realtime.model.HistoricalStockPrice;
+
+import java.util.List;
+
+/**
+ * Adapts rows loaded from the database to a {@link PriceWindow}.
+ */
+public class ListPriceWindow implements PriceWindow {
+
+    private final List<HistoricalStockPrice> prices;
+
+    public ListPriceWindow(List<HistoricalStockPrice> prices) {
+        this.prices = prices;
+    }
+
+    @Override
+    public int size() {
+        return prices.size();
+    }
+
+    @Override
+    public long timestampAt(int index) {
+        return Timestamps.toEpochMillis(prices.get(index).getTimestamp());
+    }
+
+    @Override
+    public double priceAt(int index) {
+        return prices.get(index).getPrice();
+    }
+
+    @Override
+    public double volumeAt(int index) {
+        return prices.get(index).getVolume();
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.realtime.analysis;
+
+/**
+ * Read-only, index-addressed view over a time-ordered run of ticks. Index 0 is
+ * the oldest tick in the window.
+ */
+public interface PriceWindow {
+
+    int size();
+
+    long timestampAt(int index);
+
+    double priceAt(int index);
+
+    double volumeAt(int index);
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+}
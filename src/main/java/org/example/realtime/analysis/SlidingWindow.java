@@ -0,0 +1,150 @@
+package org.example.realtime.analysis;
+
+/**
+ * Time-based sliding window over ticks with O(1) amortized min/max price,
+ * average volume and mean/standard deviation of returns. Min and max use
+ * monotonic deques of tick sequence numbers.
+ *
+ * <p>Callers evict, read the statistics of the preceding ticks, then add the
+ * new tick. Not thread-safe.
+ */
+public class SlidingWindow {
+
+    private final long spanMillis;
+
+    // Ticks in the window, addressed by sequence number & mask
+    private long[] timestamps = new long[64];
+    private double[] prices = new double[64];
+    private double[] volumes = new double[64];
+    private double[] returns = new double[64];
+    private long firstSeq;
+    private long nextSeq;
+
+    private final LongDeque minSeqs = new LongDeque();
+    private final LongDeque maxSeqs = new LongDeque();
+
+    private double volumeSum;
+    // Return of the oldest tick in the window is excluded: its predecessor has left
+    private double returnSum;
+    private double returnSquares;
+    private double lastPrice = Double.NaN;
+
+    public SlidingWindow(long spanMillis) {
+        if (spanMillis <= 0) {
+            throw new IllegalArgumentException("Window span must be positive: " + spanMillis);
+        }
+        this.spanMillis = spanMillis;
+    }
+
+    /**
+     * Drops ticks older than the span relative to {@code now}.
+     */
+    public void evict(long now) {
+        long cutoff = now - spanMillis;
+        while (firstSeq < nextSeq && timestamps[index(firstSeq)] < cutoff) {
+            int i = index(firstSeq);
+            volumeSum -= volumes[i];
+            if (firstSeq + 1 < nextSeq) {
+                // The next tick becomes the oldest, so its return leaves the sums
+                double r = returns[index(firstSeq + 1)];
+                returnSum -= r;
+                returnSquares -= r * r;
+            }
+            if (!minSeqs.isEmpty() && minSeqs.peekFirst() == firstSeq) minSeqs.pollFirst();
+            if (!maxSeqs.isEmpty() && maxSeqs.peekFirst() == firstSeq) maxSeqs.pollFirst();
+            firstSeq++;
+        }
+        if (firstSeq == nextSeq) {
+            // Empty: reset the running sums so rounding error cannot accumulate
+            volumeSum = 0.0;
+            returnSum = 0.0;
+            returnSquares = 0.0;
+        }
+    }
+
+    public void add(long timestamp, double price, double volume) {
+        if (nextSeq - firstSeq == timestamps.length) grow();
+        int i = index(nextSeq);
+        timestamps[i] = timestamp;
+        prices[i] = price;
+        volumes[i] = volume;
+        double r = Double.isNaN(lastPrice) || lastPrice == 0 ? 0.0 : (price - lastPrice) / lastPrice;
+        returns[i] = r;
+        if (nextSeq > firstSeq) {
+            returnSum += r;
+            returnSquares += r * r;
+        }
+        volumeSum += volume;
+
+        while (!minSeqs.isEmpty() && prices[index(minSeqs.peekLast())] >= price) minSeqs.pollLast();
+        minSeqs.addLast(nextSeq);
+        while (!maxSeqs.isEmpty() && prices[index(maxSeqs.peekLast())] <= price) maxSeqs.pollLast();
+        maxSeqs.addLast(nextSeq);
+
+        lastPrice = price;
+        nextSeq++;
+    }
+
+    public int size() {
+        return (int) (nextSeq - firstSeq);
+    }
+
+    public double minPrice() {
+        return minSeqs.isEmpty() ? Double.NaN : prices[index(minSeqs.peekFirst())];
+    }
+
+    public double maxPrice() {
+        return maxSeqs.isEmpty() ? Double.NaN : prices[index(maxSeqs.peekFirst())];
+    }
+
+    public double averageVolume() {
+        return size() == 0 ? Double.NaN : volumeSum / size();
+    }
+
+    /**
+     * Last price added, which may already have left the window.
+     */
+    public double lastPrice() {
+        return lastPrice;
+    }
+
+    public int returnCount() {
+        return Math.max(0, size() - 1);
+    }
+
+    public double returnMean() {
+        return returnCount() == 0 ? Double.NaN : returnSum / returnCount();
+    }
+
+    // Population standard deviation, matching WindowStatistics.returnVolatility
+    public double returnStdDev() {
+        int n = returnCount();
+        if (n == 0) return Double.NaN;
+        double mean = returnSum / n;
+        return Math.sqrt(Math.max(0.0, returnSquares / n - mean * mean));
+    }
+
+    private int index(long seq) {
+        return (int) (seq & (timestamps.length - 1));
+    }
+
+    private void grow() {
+        int length = timestamps.length * 2;
+        long[] grownTimestamps = new long[length];
+        double[] grownPrices = new double[length];
+        double[] grownVolumes = new double[length];
+        double[] grownReturns = new double[length];
+        for (long seq = firstSeq; seq < nextSeq; seq++) {
+            int from = index(seq);
+            int to = (int) (seq & (length - 1));
+            grownTimestamps[to] = timestamps[from];
+            grownPrices[to] = prices[from];
+            grownVolumes[to] = volumes[from];
+            grownReturns[to] = returns[from];
+        }
+        timestamps = grownTimestamps;
+        prices = grownPrices;
+        volumes = grownVolumes;
+        returns = grownReturns;
+    }
+}
@@ -0,0 +1,216 @@
+package org.example.realtime.analysis;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Bounded, time-ordered tick history for one symbol stored in parallel
+ * primitive arrays. Arrays grow by doubling up to {@code maxCapacity}; after
+ * that the oldest tick is overwritten.
+ */
+public class TickRingBuffer {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    public static final int BYTES_PER_TICK = Long.BYTES + 2 * Double.BYTES;
+
+    private final int maxCapacity;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Charged with the arrays under the write lock, so detach settles it exactly
+    private final AtomicLong usage;
+
+    private long[] timestamps;
+    private double[] prices;
+    private double[] volumes;
+    private int head;
+    private int size;
+
+    // Earliest instant from which this buffer holds every tick
+    private long coveredFrom = Long.MAX_VALUE;
+    private volatile long lastAccess;
+    private boolean detached;
+
+    public TickRingBuffer(int maxCapacity) {
+        this(maxCapacity, new AtomicLong());
+    }
+
+    /**
+     * @param usage counter this buffer adds its array bytes to as it grows,
+     *              shared by the buffers of one memory budget
+     */
+    public TickRingBuffer(int maxCapacity, AtomicLong usage) {
+        if (maxCapacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + maxCapacity);
+        }
+        this.maxCapacity = maxCapacity;
+        int initial = Math.min(INITIAL_CAPACITY, maxCapacity);
+        this.timestamps = new long[initial];
+        this.prices = new double[initial];
+        this.volumes = new double[initial];
+        this.lastAccess = System.nanoTime();
+        this.usage = usage;
+        usage.addAndGet(allocatedBytes());
+    }
+
+    /**
+     * Appends a tick. Out-of-order ticks are rejected, and so is every tick
+     * once the buffer is {@linkplain #detach detached}.
+     *
+     * @return the number of bytes newly allocated by this call
+     */
+    public long append(long timestamp, double price, double volume) {
+        lock.writeLock().lock();
+        try {
+            lastAccess = System.nanoTime();
+            if (detached || size > 0 && timestamp < timestamps[physical(size - 1)]) {
+                return 0;
+            }
+            long allocated = 0;
+            if (size == timestamps.length) {
+                if (timestamps.length < maxCapacity) {
+                    allocated = grow();
+                } else {
+                    head = (head + 1) % timestamps.length;
+                    size--;
+                    coveredFrom = timestamps[head];
+                }
+            }
+            int slot = physical(size);
+            timestamps[slot] = timestamp;
+            prices[slot] = price;
+            volumes[slot] = volume;
+            size++;
+            if (coveredFrom == Long.MAX_VALUE) {
+                coveredFrom = timestamp;
+            }
+            return allocated;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean covers(long start) {
+        lock.readLock().lock();
+        try {
+            return size > 0 && start >= coveredFrom;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies {@code reader} to the ticks in {@code [start, end]} while holding
+     * the read lock. The window is only valid for the duration of the call.
+     */
+    public <T> T read(long start, long end, Function<PriceWindow, T> reader) {
+        lock.readLock().lock();
+        try {
+            lastAccess = System.nanoTime();
+            int from = lowerBound(start);
+            int to = lowerBound(end == Long.MAX_VALUE ? end : end + 1);
+            return reader.apply(new View(from, Math.max(0, to - from)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Takes the buffer out of service: its bytes are subtracted from the usage
+     * counter and later appends are dropped, so a writer still holding it
+     * cannot charge growth nobody will release.
+     */
+    public void detach() {
+        lock.writeLock().lock();
+        try {
+            if (!detached) {
+                detached = true;
+                usage.addAndGet(-allocatedBytes());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long getCoveredFrom() {
+        return coveredFrom;
+    }
+
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    public long allocatedBytes() {
+        return (long) timestamps.length * BYTES_PER_TICK;
+    }
+
+    private long grow() {
+        int oldCapacity = timestamps.length;
+        int newCapacity = (int) Math.min((long) oldCapacity * 2, maxCapacity);
+        long[] newTimestamps = new long[newCapacity];
+        double[] newPrices = new double[newCapacity];
+        double[] newVolumes = new double[newCapacity];
+        for (int i = 0; i < size; i++) {
+            int p = physical(i);
+            newTimestamps[i] = timestamps[p];
+            newPrices[i] = prices[p];
+            newVolumes[i] = volumes[p];
+        }
+        timestamps = newTimestamps;
+        prices = newPrices;
+        volumes = newVolumes;
+        head = 0;
+        long grown = (long) (newCapacity - oldCapacity) * BYTES_PER_TICK;
+        usage.addAndGet(grown);
+        return grown;
+    }
+
+    // First logical index whose timestamp is >= target
+    private int lowerBound(long target) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timestamps[physical(mid)] < target) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int physical(int logical) {
+        int index = head + logical;
+        return index < timestamps.length ? index : index - timestamps.length;
+    }
+
+    private final class View implements PriceWindow {
+        private final int offset;
+        private final int length;
+
+        private View(int offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int size() {
+            return length;
+        }
+
+        @Override
+        public long timestampAt(int index) {
+            return timestamps[physical(offset + index)];
+        }
+
+        @Override
+        public double priceAt(int index) {
+            return prices[physical(offset + index)];
+        }
+
+        @Override
+        public double volumeAt(int index) {
+            return volumes[physical(offset + index)];
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.realtime.analysis;
+
+/**
+ * Window-level statistics shared by the analysis endpoints.
+ */
+public final class WindowStatistics {
+
+    private WindowStatistics() {
+    }
+
+    // Population standard deviation of successive returns, or null with fewer than two points
+    public static Double returnVolatility(PriceWindow prices) {
+        if (prices.size() < 2) return null;
+        double sum = 0.0;
+        for (int i = 1; i < prices.size(); i++) {
+            sum += returnAt(prices, i);
+        }
+        return returnStdDev(prices, sum);
+    }
+
+    public static double trailingAverage(PriceWindow prices, int period) {
+        if (period <= 0) return 0.0;
+        double sum = 0.0;
+        for (int i = prices.size() - period; i < prices.size(); i++) {
+            sum += prices.priceAt(i);
+        }
+        return sum / period;
+    }
+
+    // Mean volume, or null for an empty window
+    public static Double averageVolume(PriceWindow prices) {
+        if (prices.isEmpty()) return null;
+        double sum = 0.0;
+        for (int i = 0; i < prices.size(); i++) {
+            sum += prices.volumeAt(i);
+        }
+        return sum / prices.size();
+    }
+
+    // Return from the tick before index to the tick at index
+    static double returnAt(PriceWindow prices, int index) {
+        return (prices.priceAt(index) - prices.priceAt(index - 1)) / prices.priceAt(index - 1);
+    }
+
+    /**
+     * Population standard deviation of the window's returns given their sum,
+     * the second pass over returns. {@link WindowKernel} takes the sum from
+     * its combined first pass, so both produce the same value.
+     */
+    static double returnStdDev(PriceWindow prices, double returnSum) {
+        int count = prices.size() - 1;
+        double mean = returnSum / count;
+        double squares = 0.0;
+        for (int i = 1; i <= count; i++) {
+            double deviation = returnAt(prices, i) - mean;
+            squares += deviation * deviation;
+        }
+        return Math.sqrt(squares / count);
+    }
+}
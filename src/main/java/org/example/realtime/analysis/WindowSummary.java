@@ -0,0 +1,18 @@
+package org.example.realtime.analysis;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Metrics of one window as computed by {@link WindowKernel#summarize}.
+ * Nullable fields are null when the window is too short to define them.
+ */
+@Getter
+@AllArgsConstructor
+public class WindowSummary {
+    private final int count;
+    private final Double firstPrice;
+    // Population standard deviation of successive returns
+    private final Double volatility;
+    private final Double averageVolume;
+}
@@ -0,0 +1,38 @@
+package org.example.realtime.archive;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads bit fields written by {@link BitWriter} directly from a (typically
+ * memory-mapped) buffer region without copying it.
+ */
+final class BitReader {
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private long bitPosition;
+
+    BitReader(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    boolean readBit() {
+        return readBits(1) != 0;
+    }
+
+    long readBits(int count) {
+        long result = 0;
+        while (count > 0) {
+            int byteIndex = offset + (int) (bitPosition >>> 3);
+            int available = 8 - (int) (bitPosition & 7);
+            int take = Math.min(available, count);
+            int current = buffer.get(byteIndex) & 0xFF;
+            int bits = (current >>> (available - take)) & ((1 << take) - 1);
+            result = (result << take) | bits;
+            bitPosition += take;
+            count -= take;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.realtime.archive;
+
+import java.util.Arrays;
+
+/**
+ * Appends bit fields most-significant bit first into a growable byte array.
+ */
+final class BitWriter {
+
+    private byte[] buffer;
+    private long bitPosition;
+
+    BitWriter(int initialBytes) {
+        this.buffer = new byte[Math.max(16, initialBytes)];
+    }
+
+    void writeBit(boolean bit) {
+        writeBits(bit ? 1 : 0, 1);
+    }
+
+    // Writes the low {@code count} bits of value, 0 <= count <= 64
+    void writeBits(long value, int count) {
+        ensureCapacity(count);
+        while (count > 0) {
+            int byteIndex = (int) (bitPosition >>> 3);
+            int free = 8 - (int) (bitPosition & 7);
+            int take = Math.min(free, count);
+            int bits = (int) ((value >>> (count - take)) & ((1L << take) - 1));
+            buffer[byteIndex] |= (byte) (bits << (free - take));
+            bitPosition += take;
+            count -= take;
+        }
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, (int) ((bitPosition + 7) >>> 3));
+    }
+
+    private void ensureCapacity(int extraBits) {
+        long neededBytes = (bitPosition + extraBits + 7) >>> 3;
+        if (neededBytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, (int) Math.max(neededBytes, (long) buffer.length * 2));
+        }
+    }
+}
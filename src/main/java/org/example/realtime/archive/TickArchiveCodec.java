@@ -0,0 +1,179 @@
+package org.example.realtime.archive;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Columnar encoding of one symbol-day. Timestamps (epoch micros) use
+ * delta-of-delta encoding and price/volume use Gorilla XOR compression, as in
+ * Facebook's Gorilla TSDB paper.
+ *
+ * <pre>
+ * magic:i32 | version:u8 | count:i32 | timestampBytes:i32 | priceBytes:i32 | volumeBytes:i32
+ * | timestamps | prices | volumes
+ * </pre>
+ */
+public final class TickArchiveCodec {
+
+    static final int MAGIC = 0x544B4131; // "TKA1"
+    static final byte VERSION = 1;
+    static final int HEADER_BYTES = Integer.BYTES + 1 + 4 * Integer.BYTES;
+
+    private TickArchiveCodec() {
+    }
+
+    public static byte[] encode(long[] timestampsMicros, double[] prices, double[] volumes, int count) {
+        byte[] timestampColumn = encodeTimestamps(timestampsMicros, count);
+        byte[] priceColumn = encodeDoubles(prices, count);
+        byte[] volumeColumn = encodeDoubles(volumes, count);
+
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + timestampColumn.length + priceColumn.length
+                + volumeColumn.length);
+        out.putInt(MAGIC);
+        out.put(VERSION);
+        out.putInt(count);
+        out.putInt(timestampColumn.length);
+        out.putInt(priceColumn.length);
+        out.putInt(volumeColumn.length);
+        out.put(timestampColumn);
+        out.put(priceColumn);
+        out.put(volumeColumn);
+        return out.array();
+    }
+
+    public static TickColumns decode(ByteBuffer in) {
+        int base = in.position();
+        if (in.getInt(base) != MAGIC) {
+            throw new IllegalArgumentException("Not a tick archive");
+        }
+        byte version = in.get(base + 4);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported tick archive version: " + version);
+        }
+        int count = in.getInt(base + 5);
+        int timestampBytes = in.getInt(base + 9);
+        int priceBytes = in.getInt(base + 13);
+
+        int timestampOffset = base + HEADER_BYTES;
+        int priceOffset = timestampOffset + timestampBytes;
+        int volumeOffset = priceOffset + priceBytes;
+
+        long[] timestamps = new long[count];
+        double[] prices = new double[count];
+        double[] volumes = new double[count];
+        decodeTimestamps(new BitReader(in, timestampOffset), timestamps);
+        decodeDoubles(new BitReader(in, priceOffset), prices);
+        decodeDoubles(new BitReader(in, volumeOffset), volumes);
+        return new TickColumns(timestamps, prices, volumes);
+    }
+
+    private static byte[] encodeTimestamps(long[] values, int count) {
+        BitWriter writer = new BitWriter(count * 2 + 16);
+        if (count == 0) return writer.toByteArray();
+        writer.writeBits(values[0], 64);
+        if (count == 1) return writer.toByteArray();
+        long previousDelta = values[1] - values[0];
+        writer.writeBits(previousDelta, 64);
+        for (int i = 2; i < count; i++) {
+            long delta = values[i] - values[i - 1];
+            long dod = delta - previousDelta;
+            if (dod == 0) {
+                writer.writeBit(false);
+            } else if (dod >= -63 && dod <= 64) {
+                writer.writeBits(0b10, 2);
+                writer.writeBits(dod + 63, 7);
+            } else if (dod >= -255 && dod <= 256) {
+                writer.writeBits(0b110, 3);
+                writer.writeBits(dod + 255, 9);
+            } else if (dod >= -2047 && dod <= 2048) {
+                writer.writeBits(0b1110, 4);
+                writer.writeBits(dod + 2047, 12);
+            } else {
+                writer.writeBits(0b1111, 4);
+                writer.writeBits(dod, 64);
+            }
+            previousDelta = delta;
+        }
+        return writer.toByteArray();
+    }
+
+    private static void decodeTimestamps(BitReader reader, long[] out) {
+        if (out.length == 0) return;
+        out[0] = reader.readBits(64);
+        if (out.length == 1) return;
+        long previousDelta = reader.readBits(64);
+        out[1] = out[0] + previousDelta;
+        for (int i = 2; i < out.length; i++) {
+            long dod;
+            if (!reader.readBit()) {
+                dod = 0;
+            } else if (!reader.readBit()) {
+                dod = reader.readBits(7) - 63;
+            } else if (!reader.readBit()) {
+                dod = reader.readBits(9) - 255;
+            } else if (!reader.readBit()) {
+                dod = reader.readBits(12) - 2047;
+            } else {
+                dod = reader.readBits(64);
+            }
+            previousDelta += dod;
+            out[i] = out[i - 1] + previousDelta;
+        }
+    }
+
+    private static byte[] encodeDoubles(double[] values, int count) {
+        BitWriter writer = new BitWriter(count * 4 + 16);
+        if (count == 0) return writer.toByteArray();
+        long previous = Double.doubleToRawLongBits(values[0]);
+        writer.writeBits(previous, 64);
+        int previousLeading = Integer.MAX_VALUE;
+        int previousTrailing = 0;
+        for (int i = 1; i < count; i++) {
+            long current = Double.doubleToRawLongBits(values[i]);
+            long xor = current ^ previous;
+            if (xor == 0) {
+                writer.writeBit(false);
+            } else {
+                writer.writeBit(true);
+                int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+                int trailing = Long.numberOfTrailingZeros(xor);
+                if (previousLeading != Integer.MAX_VALUE && leading >= previousLeading
+                        && trailing >= previousTrailing) {
+                    // Meaningful bits fit inside the previous window
+                    writer.writeBit(false);
+                    writer.writeBits(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+                } else {
+                    int significant = 64 - leading - trailing;
+                    writer.writeBit(true);
+                    writer.writeBits(leading, 5);
+                    writer.writeBits(significant == 64 ? 0 : significant, 6);
+                    writer.writeBits(xor >>> trailing, significant);
+                    previousLeading = leading;
+                    previousTrailing = trailing;
+                }
+            }
+            previous = current;
+        }
+        return writer.toByteArray();
+    }
+
+    private static void decodeDoubles(BitReader reader, double[] out) {
+        if (out.length == 0) return;
+        long previous = reader.readBits(64);
+        out[0] = Double.longBitsToDouble(previous);
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < out.length; i++) {
+            if (reader.readBit()) {
+                if (reader.readBit()) {
+                    leading = (int) reader.readBits(5);
+                    int significant = (int) reader.readBits(6);
+                    if (significant == 0) significant = 64;
+                    trailing = 64 - leading - significant;
+                }
+                long xor = reader.readBits(64 - leading - trailing) << trailing;
+                previous ^= xor;
+            }
+            out[i] = Double.longBitsToDouble(previous);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.realtime.archive;
+
+/**
+ * Decoded symbol-day: parallel primitive columns of equal length.
+ */
+public record TickColumns(long[] timestampsMicros, double[] prices, double[] volumes) {
+
+    public int size() {
+        return timestampsMicros.length;
+    }
+}
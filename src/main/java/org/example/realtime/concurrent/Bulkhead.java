@@ -0,0 +1,73 @@
+package org.example.realtime.concurrent;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Fixed pool with a bounded queue for one kind of blocking work, so a slow
+ * dependency can only tie up its own threads. Work that does not fit is
+ * rejected with {@link RejectedExecutionException} instead of queueing
+ * without bound.
+ */
+public class Bulkhead implements Executor {
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+
+    public Bulkhead(String name, int threads, int queueCapacity) {
+        if (threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Bulkhead " + name + " needs at least one thread and queue slot");
+        }
+        this.name = name;
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, name + "-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        try {
+            executor.execute(command);
+        } catch (RejectedExecutionException e) {
+            throw new RejectedExecutionException("Bulkhead " + name + " is full");
+        }
+    }
+
+    /**
+     * Runs {@code work} in the bulkhead. The returned future fails with
+     * {@link RejectedExecutionException} when the bulkhead is full.
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, this);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
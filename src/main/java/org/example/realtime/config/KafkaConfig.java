@@ -2,10 +2,27 @@ package org.example.realtime.config;
 
 import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.example.realtime.model.Tick;
+import org.example.realtime.serialization.TickDeserializer;
+import org.example.realtime.symbol.SymbolDictionary;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.example.realtime.service.PartitionStateManager;
+import org.example.realtime.service.StockConsumerService;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.config.ContainerCustomizer;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.util.backoff.ExponentialBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -13,12 +30,32 @@ import java.util.Map;
 @Configuration
 public class KafkaConfig {
 
+    public static final String TICK_LISTENER_FACTORY = "tickListenerContainerFactory";
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
     @Value("${stock.topic.name}")
     private String topicName;
 
+    @Value("${stock.topic.partitions:12}")
+    private int partitions;
+
+    @Value("${stock.topic.replication-factor:1}")
+    private short replicationFactor;
+
+    @Value("${alerting.topic.name:stock-alerts}")
+    private String alertTopicName;
+
+    @Value("${alerting.topic.partitions:3}")
+    private int alertPartitions;
+
+    @Value("${stock.consumer.retry-initial-ms:500}")
+    private long retryInitialMillis;
+
+    @Value("${stock.consumer.retry-max-ms:10000}")
+    private long retryMaxMillis;
+
     @Bean
     public KafkaAdmin kafkaAdmin() {
         Map<String, Object> configs = new HashMap<>();
@@ -29,6 +66,65 @@ public class KafkaConfig {
     @Bean
     public NewTopic stockPricesTopic() {
         String cleanTopicName = topicName.trim();
-        return new NewTopic(cleanTopicName, 1, (short) 1);
+        return new NewTopic(cleanTopicName, partitions, replicationFactor);
+    }
+
+    @Bean
+    public NewTopic stockAlertsTopic() {
+        return new NewTopic(alertTopicName.trim(), alertPartitions, replicationFactor);
+    }
+
+    // Applied by Boot to the auto-configured listener container factory. Only the
+    // ingest group owns the per-symbol state PartitionStateManager releases.
+    @Bean
+    public ContainerCustomizer<Object, Object, ConcurrentMessageListenerContainer<Object, Object>> rebalanceCustomizer(
+            PartitionStateManager partitionStateManager) {
+        return container -> {
+            if (StockConsumerService.GROUP_ID.equals(container.getGroupId())) {
+                container.getContainerProperties().setConsumerRebalanceListener(partitionStateManager);
+            }
+        };
+    }
+
+    // Listener factory for consumers of the stock-prices topic that only need
+    // Ticks. It shares Boot's listener settings but decodes values straight into
+    // Ticks with interned symbol IDs. The consumer factory is deliberately not a
+    // bean: declaring one would replace Boot's default.
+    @Bean(TICK_LISTENER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> tickListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            KafkaProperties kafkaProperties,
+            SymbolDictionary symbols,
+            ContainerCustomizer<Object, Object, ConcurrentMessageListenerContainer<Object, Object>> rebalanceCustomizer) {
+        Map<String, Object> config = kafkaProperties.buildConsumerProperties(null);
+        config.remove(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS);
+        ConsumerFactory<String, Tick> consumerFactory = new DefaultKafkaConsumerFactory<>(config,
+                StringDeserializer::new,
+                () -> new ErrorHandlingDeserializer<>(new TickDeserializer(symbols)));
+
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, castConsumerFactory(consumerFactory));
+        factory.setContainerCustomizer(rebalanceCustomizer);
+        factory.setCommonErrorHandler(tickErrorHandler());
+        return factory;
+    }
+
+    // A failed poll is retried whole until it persists: a full journal or an
+    // unreachable database only delays ticks. Between attempts the consumer is
+    // paused but keeps polling, so the group does not rebalance. Spring's default
+    // would give up after ten attempts and commit past the poll, dropping it.
+    // Bad input cannot succeed on retry and is logged and skipped instead.
+    private DefaultErrorHandler tickErrorHandler() {
+        ExponentialBackOff backOff = new ExponentialBackOff(retryInitialMillis, 2.0);
+        backOff.setMaxInterval(retryMaxMillis);
+        DefaultErrorHandler handler = new DefaultErrorHandler(backOff);
+        handler.addNotRetryableExceptions(IllegalArgumentException.class);
+        handler.setLogLevel(KafkaException.Level.WARN);
+        return handler;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConsumerFactory<Object, Object> castConsumerFactory(ConsumerFactory<?, ?> consumerFactory) {
+        return (ConsumerFactory<Object, Object>) consumerFactory;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+package org.example.realtime.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.errors.StreamsUncaughtExceptionHandler;
+import org.apache.kafka.streams.kstream.KStream;
+import org.example.realtime.model.StockPrice;
+import org.example.realtime.streams.PriceAggregationTopology;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafkaStreams;
+import org.springframework.kafka.config.StreamsBuilderFactoryBeanConfigurer;
+
+// Streams settings come from spring.kafka.streams.* via Boot's auto-configuration
+@Slf4j
+@Configuration
+@EnableKafkaStreams
+public class KafkaStreamsConfig {
+
+    @Bean
+    public KStream<String, StockPrice> priceAggregation(StreamsBuilder streamsBuilder,
+                                                        @Value("${stock.topic.name}") String topicName) {
+        return PriceAggregationTopology.build(streamsBuilder, topicName.trim());
+    }
+
+    // Without a handler a processing exception kills the stream thread and the
+    // aggregates silently stop updating; log it and start a replacement instead
+    @Bean
+    public StreamsBuilderFactoryBeanConfigurer streamsExceptionHandler() {
+        return factoryBean -> factoryBean.setStreamsUncaughtExceptionHandler(exception -> {
+            log.error("Kafka Streams thread failed, replacing it", exception);
+            return StreamsUncaughtExceptionHandler.StreamThreadExceptionResponse.REPLACE_THREAD;
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.realtime.config;
+
+import org.example.realtime.metrics.PipelineMetrics;
+import org.example.realtime.provider.CircuitBreaker;
+import org.example.realtime.provider.ProviderClient;
+import org.example.realtime.ratelimit.AdaptiveRateLimiter;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * One {@link ProviderClient} per upstream, configured under provider.&lt;name&gt;.*.
+ * Each client has its own keep-alive connection pool, rate limit and circuit.
+ */
+@Configuration
+public class ProviderConfig {
+
+    public static final String YAHOO = "yahoo";
+    public static final String ALPHA_VANTAGE = "alpha-vantage";
+
+    @Bean
+    public ProviderClient yahooProvider(RestTemplateBuilder builder, Environment env, PipelineMetrics metrics) {
+        return provider(YAHOO, builder, env, metrics, env.getProperty("fetch.rate-per-second", Double.class, 20.0));
+    }
+
+    // Alpha Vantage's free tier allows 5 requests a minute
+    @Bean
+    public ProviderClient alphaVantageProvider(RestTemplateBuilder builder, Environment env, PipelineMetrics metrics) {
+        return provider(ALPHA_VANTAGE, builder, env, metrics, 5.0 / 60);
+    }
+
+    private static ProviderClient provider(String name, RestTemplateBuilder builder, Environment env,
+                                           PipelineMetrics metrics, double defaultRate) {
+        String prefix = "provider." + name + ".";
+        long requestTimeoutMs = env.getProperty("fetch.request-timeout-ms", Long.class, 3000L);
+        long connectTimeoutMs = env.getProperty(prefix + "connect-timeout-ms", Long.class, requestTimeoutMs);
+        long readTimeoutMs = env.getProperty(prefix + "read-timeout-ms", Long.class, requestTimeoutMs);
+        double maxRate = env.getProperty(prefix + "max-rate-per-second", Double.class, defaultRate);
+        double minRate = env.getProperty(prefix + "min-rate-per-second", Double.class, maxRate / 16);
+
+        // The JDK client keeps idle connections alive and reuses them per host
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+
+        return new ProviderClient(
+                name,
+                builder.requestFactory(() -> requestFactory).build(),
+                new AdaptiveRateLimiter(maxRate, minRate, Math.max(1, maxRate)),
+                new CircuitBreaker(
+                        env.getProperty(prefix + "breaker.failure-threshold", Integer.class, 5),
+                        env.getProperty(prefix + "breaker.open-ms", Long.class, 5_000L),
+                        env.getProperty(prefix + "breaker.max-open-ms", Long.class, 120_000L)),
+                env.getProperty(prefix + "max-attempts", Integer.class, 3),
+                env.getProperty(prefix + "backoff-base-ms", Long.class, 200L),
+                env.getProperty(prefix + "max-wait-ms", Long.class, 2_000L),
+                metrics);
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.realtime.config;
+
+import org.example.realtime.concurrent.Bulkhead;
+import org.example.realtime.metrics.PipelineMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Worker pools for request paths that block on the database, configured under
+ * request.&lt;name&gt;.*. Servlet threads hand the work off and are released,
+ * and each path can only exhaust its own pool.
+ */
+@Configuration
+public class RequestConfig {
+
+    public static final String ANALYSIS = "analysis";
+    public static final String HISTORICAL = "historical";
+
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead analysisBulkhead(Environment env, PipelineMetrics metrics) {
+        return bulkhead(ANALYSIS, env, metrics, 32);
+    }
+
+    // Sized near the JDBC pool: more threads would only wait for connections
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead historicalBulkhead(Environment env, PipelineMetrics metrics) {
+        return bulkhead(HISTORICAL, env, metrics, 10);
+    }
+
+    private static Bulkhead bulkhead(String name, Environment env, PipelineMetrics metrics, int defaultThreads) {
+        String prefix = "request." + name + ".";
+        int threads = env.getProperty(prefix + "threads", Integer.class, defaultThreads);
+        Bulkhead bulkhead = new Bulkhead(name + "-request", threads,
+                env.getProperty(prefix + "queue-capacity", Integer.class, threads * 8));
+        metrics.bulkheadGauges(name, bulkhead::getActiveCount, bulkhead::getQueueSize);
+        return bulkhead;
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.realtime.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.realtime.model.AlertRule;
+import org.example.realtime.service.AlertingService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/alerts/rules")
+@RequiredArgsConstructor
+public class AlertRuleController {
+
+    private final AlertingService alertingService;
+
+    @GetMapping
+    public ResponseEntity<List<AlertRule>> getRules(@RequestParam(required = false) String symbol) {
+        return ResponseEntity.ok(alertingService.getRules(symbol));
+    }
+
+    @PostMapping
+    public ResponseEntity<AlertRule> createRule(@RequestBody AlertRule rule) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(alertingService.createRule(rule));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteRule(@PathVariable long id) {
+        return alertingService.deleteRule(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.realtime.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Deadlines for controller methods that return a {@link CompletableFuture}.
+ */
+final class AsyncResponses {
+
+    private AsyncResponses() {
+    }
+
+    /**
+     * Completes with {@code future}'s result, or with {@code fallback}'s once
+     * {@code timeoutMs} passes. Without a fallback result the request fails
+     * with 504; a full bulkhead fails it with 503. The source future keeps
+     * running, so a late result still reaches any cache behind it.
+     * <p>
+     * The fallback marks its result as stale in the body; the response only
+     * adds {@code Cache-Control: no-store} so no intermediary keeps it.
+     */
+    static <T> CompletableFuture<ResponseEntity<T>> withDeadline(CompletableFuture<T> future, long timeoutMs,
+                                                                 Supplier<T> fallback) {
+        // Copied so the timeout does not complete a future shared with other requests
+        return future.copy()
+                .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .handle((result, error) -> {
+                    if (error == null) {
+                        return ResponseEntity.ok(result);
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    if (cause instanceof TimeoutException) {
+                        T stale = fallback != null ? fallback.get() : null;
+                        if (stale == null) {
+                            throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT,
+                                    "No result within " + timeoutMs + " ms");
+                        }
+                        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(stale);
+                    }
+                    if (cause instanceof RejectedExecutionException) {
+                        throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, cause.getMessage());
+                    }
+                    if (cause instanceof IllegalArgumentException) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, cause.getMessage());
+                    }
+                    throw cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause);
+                });
+    }
+
+    static <T> CompletableFuture<ResponseEntity<T>> withDeadline(CompletableFuture<T> future, long timeoutMs) {
+        return withDeadline(future, timeoutMs, null);
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.realtime.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.realtime.model.BackfillJob;
+import org.example.realtime.model.BackfillRequest;
+import org.example.realtime.service.BackfillService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/backfill")
+@RequiredArgsConstructor
+public class BackfillController {
+
+    private final BackfillService backfillService;
+
+    @PostMapping
+    public ResponseEntity<BackfillJob> start(@RequestBody BackfillRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(backfillService.start(request));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<BackfillJob>> getJobs() {
+        return ResponseEntity.ok(backfillService.getJobs());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<BackfillJob> getJob(@PathVariable long id) {
+        return ResponseEntity.of(backfillService.getJob(id));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancel(@PathVariable long id) {
+        return backfillService.cancel(id) ? ResponseEntity.accepted().build() : ResponseEntity.notFound().build();
+    }
+}
@@ -1,40 +1,134 @@
 package org.example.realtime.controller;
 
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.realtime.concurrent.Bulkhead;
 import org.example.realtime.model.HistoricalStockPrice;
+import org.example.realtime.model.PricePage;
 import org.example.realtime.service.HistoricalDataService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/historical")
-@RequiredArgsConstructor
 public class HistoricalDataController {
 
+    private static final int MAX_PAGE_SIZE = 10000;
+
     private final HistoricalDataService historicalDataService;
+    private final ObjectMapper objectMapper;
+    private final Bulkhead historicalBulkhead;
+    private final long timeoutMs;
+
+    public HistoricalDataController(HistoricalDataService historicalDataService,
+                                    ObjectMapper objectMapper,
+                                    @Qualifier("historicalBulkhead") Bulkhead historicalBulkhead,
+                                    @Value("${request.historical.timeout-ms:5000}") long timeoutMs) {
+        this.historicalDataService = historicalDataService;
+        this.objectMapper = objectMapper;
+        this.historicalBulkhead = historicalBulkhead;
+        this.timeoutMs = timeoutMs;
+    }
 
     @GetMapping("/{symbol}/recent")
-    public ResponseEntity<List<HistoricalStockPrice>> getRecentPrices(@PathVariable String symbol) {
-        return ResponseEntity.ok(historicalDataService.getRecentPrices(symbol));
+    public CompletableFuture<ResponseEntity<List<HistoricalStockPrice>>> getRecentPrices(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "100") int limit) {
+        return query(() -> historicalDataService.getRecentPrices(symbol, clampLimit(limit)));
     }
 
-    @GetMapping("/{symbol}/range")
-    public ResponseEntity<List<HistoricalStockPrice>> getPricesInRange(
+    // Same JSON array as before, written row by row from a database cursor
+    @GetMapping(value = "/{symbol}/range", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getPricesInRange(
             @PathVariable String symbol,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
-        return ResponseEntity.ok(historicalDataService.getPricesInRange(symbol, start, end));
+        StreamingResponseBody body = out -> {
+            JsonGenerator generator = objectMapper.createGenerator(out);
+            generator.writeStartArray();
+            historicalDataService.streamPricesInRange(symbol, start, end, row -> writeRow(generator, row));
+            generator.writeEndArray();
+            generator.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping(value = "/{symbol}/range/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPricesInRange(
+            @PathVariable String symbol,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        StreamingResponseBody body = out -> {
+            JsonGenerator generator = objectMapper.createGenerator(out);
+            // Rows are newline-terminated below instead of space-separated
+            generator.setRootValueSeparator(null);
+            historicalDataService.streamPricesInRange(symbol, start, end, row -> {
+                writeRow(generator, row);
+                try {
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/{symbol}/range/page")
+    public CompletableFuture<ResponseEntity<PricePage>> getPricePage(
+            @PathVariable String symbol,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "1000") int limit) {
+        return query(() -> historicalDataService.getPricePage(symbol, start, end, cursor, clampLimit(limit)));
     }
 
     @GetMapping("/{symbol}/statistics")
-    public ResponseEntity<Map<String, Double>> getPriceStatistics(
+    public CompletableFuture<ResponseEntity<Map<String, Double>>> getPriceStatistics(
             @PathVariable String symbol,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
-        return ResponseEntity.ok(historicalDataService.getPriceStatistics(symbol, since));
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime until) {
+        return query(() -> historicalDataService.getPriceStatistics(List.of(symbol), since, until).get(symbol));
+    }
+
+    @GetMapping("/statistics")
+    public CompletableFuture<ResponseEntity<Map<String, Map<String, Double>>>> getPriceStatistics(
+            @RequestParam List<String> symbols,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime until) {
+        return query(() -> historicalDataService.getPriceStatistics(symbols, since, until));
+    }
+
+    // Runs on the historical bulkhead so slow queries hold no servlet thread;
+    // 503 when the bulkhead is full, 504 past the deadline
+    private <T> CompletableFuture<ResponseEntity<T>> query(Supplier<T> query) {
+        return AsyncResponses.withDeadline(historicalBulkhead.supply(query), timeoutMs);
+    }
+
+    private static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private static void writeRow(JsonGenerator generator, HistoricalStockPrice row) {
+        try {
+            generator.writeObject(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,35 @@
+package org.example.realtime.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.realtime.service.QuoteBroadcastService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stream")
+@RequiredArgsConstructor
+public class QuoteStreamController {
+
+    private final QuoteBroadcastService quoteBroadcastService;
+
+    // Server-sent "quote" events for the symbols, pushed as ticks are consumed.
+    // Only the latest update per symbol is kept for a client that falls behind.
+    @GetMapping(value = "/quotes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamQuotes(@RequestParam List<String> symbols) {
+        try {
+            return quoteBroadcastService.subscribe(symbols);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+}
@@ -1,13 +1,33 @@
 package org.example.realtime.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.realtime.concurrent.Bulkhead;
+import org.example.realtime.metrics.PipelineMetrics;
+import org.example.realtime.model.BatchAnalysisRequest;
 import org.example.realtime.model.StockPrice;
+import org.example.realtime.model.WindowAggregate;
+import org.example.realtime.service.AnalysisResultCache;
+import org.example.realtime.service.BatchAnalysisService;
+import org.example.realtime.service.PriceAggregateService;
 import org.example.realtime.service.StockAnalysisService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/v1/analysis")
@@ -16,39 +36,121 @@ public class StockAnalysisController {
     @Autowired
     private StockAnalysisService stockAnalysisService;
 
+    @Autowired
+    private BatchAnalysisService batchAnalysisService;
+
+    @Autowired
+    private PriceAggregateService priceAggregateService;
+
+    @Autowired
+    private AnalysisResultCache resultCache;
+
+    @Autowired
+    private PipelineMetrics metrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("analysisBulkhead")
+    private Bulkhead analysisBulkhead;
+
+    @Value("${request.analysis.timeout-ms:2000}")
+    private long timeoutMs;
+
     @GetMapping("/trend/{symbol}")
-    public ResponseEntity<Map<String, Object>> getStockTrend(
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getStockTrend(
             @PathVariable String symbol,
             @RequestParam(defaultValue = "1d") String timeframe) {
-        return ResponseEntity.ok(stockAnalysisService.analyzeTrend(symbol, timeframe));
+        return cached("trend", symbol, List.of(timeframe),
+                () -> stockAnalysisService.analyzeTrend(symbol, timeframe));
     }
 
     @GetMapping("/volatility/{symbol}")
-    public ResponseEntity<Map<String, Object>> getVolatilityAnalysis(
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getVolatilityAnalysis(
             @PathVariable String symbol,
             @RequestParam(defaultValue = "1d") String timeframe) {
-        return ResponseEntity.ok(stockAnalysisService.calculateVolatility(symbol, timeframe));
+        return cached("volatility", symbol, List.of(timeframe),
+                () -> stockAnalysisService.calculateVolatility(symbol, timeframe));
     }
 
     @GetMapping("/moving-average/{symbol}")
-    public ResponseEntity<Map<String, Object>> getMovingAverages(
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getMovingAverages(
             @PathVariable String symbol,
             @RequestParam(defaultValue = "20") int shortPeriod,
             @RequestParam(defaultValue = "50") int longPeriod) {
-        return ResponseEntity.ok(stockAnalysisService.calculateMovingAverages(symbol, shortPeriod, longPeriod));
+        return cached("moving-average", symbol, List.of(shortPeriod, longPeriod),
+                () -> stockAnalysisService.calculateMovingAverages(symbol, shortPeriod, longPeriod));
     }
 
     @GetMapping("/volume-analysis/{symbol}")
-    public ResponseEntity<Map<String, Object>> getVolumeAnalysis(
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getVolumeAnalysis(
             @PathVariable String symbol,
             @RequestParam(defaultValue = "1d") String timeframe) {
-        return ResponseEntity.ok(stockAnalysisService.analyzeVolume(symbol, timeframe));
+        return cached("volume-analysis", symbol, List.of(timeframe),
+                () -> stockAnalysisService.analyzeVolume(symbol, timeframe));
     }
 
     @GetMapping("/technical-indicators/{symbol}")
-    public ResponseEntity<Map<String, Object>> getTechnicalIndicators(
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getTechnicalIndicators(
             @PathVariable String symbol,
             @RequestParam(defaultValue = "14") int period) {
-        return ResponseEntity.ok(stockAnalysisService.calculateTechnicalIndicators(symbol, period));
+        return cached("technical-indicators", symbol, List.of(period),
+                () -> stockAnalysisService.calculateTechnicalIndicators(symbol, period));
+    }
+
+    // Rolling 24h OHLCV/VWAP from the Kafka Streams hopping window; 404 when
+    // this instance does not host the symbol's partition
+    @GetMapping("/rolling-day/{symbol}")
+    public ResponseEntity<WindowAggregate> getRollingDay(@PathVariable String symbol) {
+        return ResponseEntity.of(priceAggregateService.getRollingDay(symbol));
+    }
+
+    // One NDJSON line per symbol, written as each symbol finishes:
+    // {"symbol":..,"results":{"trend":{..},..}} or {"symbol":..,"error":".."}
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> analyzeBatch(@RequestBody BatchAnalysisRequest request) {
+        List<String> symbols;
+        try {
+            symbols = batchAnalysisService.validate(request);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        StreamingResponseBody body = out -> {
+            JsonGenerator generator = objectMapper.createGenerator(out);
+            generator.setRootValueSeparator(null);
+            try {
+                batchAnalysisService.analyze(symbols, request, entry -> {
+                    try {
+                        generator.writeObject(entry);
+                        generator.writeRaw('\n');
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // Served from the result cache until the symbol ticks or the staleness budget
+    // runs out; only recomputations are timed, on the analysis bulkhead. Past the
+    // deadline the last result for the same request is returned marked stale.
+    // Degraded results, e.g. while the quote is still loading, are not cached.
+    private CompletableFuture<ResponseEntity<Map<String, Object>>> cached(
+            String operation, String symbol, List<Object> parameters, Supplier<Map<String, Object>> computation) {
+        CompletableFuture<Map<String, Object>> result = resultCache.get(operation, symbol, parameters,
+                analysisBulkhead, () -> metrics.timeAnalysis(operation, computation),
+                StockAnalysisService::isComplete);
+        return AsyncResponses.withDeadline(result, timeoutMs, () -> {
+            Map<String, Object> latest = resultCache.latest(operation, symbol, parameters);
+            if (latest == null) return null;
+            Map<String, Object> stale = new HashMap<>(latest);
+            stale.put("stale", true);
+            return stale;
+        });
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,466 @@
+package org.example.realtime.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.realtime.model.Tick;
+import org.example.realtime.symbol.SymbolDictionary;
+import org.example.realtime.symbol.SymbolTable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only tick log in memory-mapped segment files. Positions are byte
+ * offsets into one logical log that never restarts; each segment file is
+ * named after the position of its first byte and is preallocated, so an
+ * append is a copy into the page cache. Once {@link #append} returns, its
+ * ticks survive a process crash; with {@code sync} they also survive losing
+ * the machine.
+ *
+ * <pre>
+ * record: length:i32 | crc32c:i32 | symbolLength:u16 | symbol | epochMicros:i64 | price:f64 | volume:f64
+ * </pre>
+ * A zero length ends the segment's data. On open the newest segment is
+ * scanned and cut at the first torn or corrupt record. Older segments from
+ * the reader's start position on are checked too. Damage there, a missing
+ * segment, or a start position the files do not cover fails the open instead:
+ * the drainer could never read past it.
+ * <p>
+ * Appends may come from any thread; reads are meant for a single drainer.
+ * Released segments are unmapped before their files are deleted.
+ */
+@Slf4j
+public final class TickJournal implements AutoCloseable {
+
+    static final int HEADER_BYTES = 2 * Integer.BYTES;
+    static final int FIXED_BODY_BYTES = Short.BYTES + Long.BYTES + 2 * Double.BYTES;
+    static final int MAX_SYMBOL_BYTES = 0xFFFF;
+
+    private static final String EXTENSION = ".journal";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("(\\d{20})\\" + EXTENSION);
+    // A deleted file's blocks stay allocated while it is mapped, and a mapping
+    // is only released when its buffer is garbage collected
+    private static final MethodHandle UNMAP = unmapper();
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long maxBytes;
+    private final boolean sync;
+    private final SymbolDictionary symbols;
+    private final SymbolTable<byte[]> encodedSymbols = new SymbolTable<>();
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final byte[] writeScratch = new byte[HEADER_BYTES + FIXED_BODY_BYTES + MAX_SYMBOL_BYTES];
+    private final CRC32C writeCrc = new CRC32C();
+
+    // Guarded by this; ahead of writePosition only while an append is in progress
+    private long appendPosition;
+    // Published after each append: readers never look past it
+    private volatile long writePosition;
+
+    /**
+     * Opens or creates the journal in {@code directory}. {@code startPosition}
+     * is where reading will resume; if the files on disk end before it, they
+     * are older than the reader's checkpoint and are replaced by an empty log
+     * starting there.
+     *
+     * @throws IllegalStateException if the files start after
+     *         {@code startPosition}, have a gap, hold a corrupt record before
+     *         the newest segment, or {@code startPosition} is not a record
+     *         boundary
+     */
+    public TickJournal(Path directory, int segmentBytes, long maxBytes, boolean sync,
+                       SymbolDictionary symbols, long startPosition) throws IOException {
+        if (segmentBytes < HEADER_BYTES + FIXED_BODY_BYTES + MAX_SYMBOL_BYTES) {
+            throw new IllegalArgumentException("Journal segments must hold at least one record");
+        }
+        if (maxBytes < 2L * segmentBytes) {
+            throw new IllegalArgumentException("Journal size limit must allow at least two segments");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        this.sync = sync;
+        this.symbols = symbols;
+        Files.createDirectories(directory);
+        recover(startPosition);
+    }
+
+    /**
+     * Appends the ticks as one unit: either all of them become readable or,
+     * if this throws, none do.
+     *
+     * @throws IllegalStateException if the journal has reached its size limit
+     */
+    public synchronized long append(List<Tick> ticks) {
+        if (ticks.isEmpty()) return writePosition;
+        long batchBytes = 0;
+        for (Tick tick : ticks) {
+            batchBytes += HEADER_BYTES + FIXED_BODY_BYTES + encoded(tick.getSymbolId()).length;
+        }
+        // Worst case the batch pads out the current segment and starts a new one
+        if (writePosition - segments.firstKey() + batchBytes + segmentBytes > maxBytes) {
+            throw new IllegalStateException("Journal is full: " + (writePosition - segments.firstKey())
+                    + " bytes not yet drained");
+        }
+
+        Segment first = segments.lastEntry().getValue();
+        try {
+            for (Tick tick : ticks) {
+                write(tick);
+            }
+            if (sync) {
+                force(writePosition, appendPosition);
+            }
+        } catch (RuntimeException | Error e) {
+            rollback(first);
+            throw e;
+        }
+        writePosition = appendPosition;
+        return writePosition;
+    }
+
+    /**
+     * Reads up to {@code maxRecords} ticks from {@code position} into {@code out}.
+     *
+     * @return the position after the last tick read
+     */
+    public long read(long position, int maxRecords, List<Tick> out) {
+        long end = writePosition;
+        if (position < segments.firstKey() || position > end) {
+            throw new IllegalArgumentException("Position " + position + " is outside the journal ["
+                    + segments.firstKey() + ", " + end + "]");
+        }
+        byte[] scratch = new byte[HEADER_BYTES + FIXED_BODY_BYTES + MAX_SYMBOL_BYTES];
+        CRC32C crc = new CRC32C();
+        int count = 0;
+        while (count < maxRecords && position < end) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(position);
+            Segment segment = entry.getValue();
+            int offset = (int) (position - segment.base);
+            int length = offset + HEADER_BYTES <= segment.capacity ? segment.buffer.getInt(offset) : 0;
+            if (length == 0) {
+                position = segment.end();
+                continue;
+            }
+            segment.buffer.get(offset, scratch, 0, HEADER_BYTES + length);
+            if (!valid(scratch, length, crc)) {
+                // Published records were checked when the journal was opened
+                throw new IllegalStateException("Corrupt journal record at position " + position);
+            }
+            out.add(decode(scratch));
+            position += HEADER_BYTES + length;
+            count++;
+        }
+        return position;
+    }
+
+    /**
+     * Deletes segments that lie entirely before {@code position}; the segment
+     * being written is always kept. Deleted segments are unmapped, so no read
+     * may still be using them: call this from the reading thread.
+     */
+    public void release(long position) {
+        for (Segment segment : segments.headMap(segments.lastKey()).values()) {
+            if (segment.end() > position) break;
+            segments.remove(segment.base);
+            delete(segment);
+        }
+    }
+
+    public long getWritePosition() {
+        return writePosition;
+    }
+
+    public long getStartPosition() {
+        return segments.firstKey();
+    }
+
+    @Override
+    public synchronized void close() {
+        for (Segment segment : segments.values()) {
+            segment.buffer.force();
+        }
+    }
+
+    private void write(Tick tick) {
+        byte[] symbol = encoded(tick.getSymbolId());
+        int length = FIXED_BODY_BYTES + symbol.length;
+        Segment segment = segments.lastEntry().getValue();
+        int offset = (int) (appendPosition - segment.base);
+        if (offset + HEADER_BYTES + length > segment.capacity) {
+            // The rest of the segment stays zero, which readers skip
+            segment = createSegment(segment.end());
+            appendPosition = segment.base;
+            offset = 0;
+        }
+
+        ByteBuffer body = ByteBuffer.wrap(writeScratch, HEADER_BYTES, length);
+        body.putShort((short) symbol.length);
+        body.put(symbol);
+        body.putLong(tick.getEpochMicros());
+        body.putDouble(tick.getPrice());
+        body.putDouble(tick.getVolume());
+        writeCrc.reset();
+        writeCrc.update(writeScratch, HEADER_BYTES, length);
+        ByteBuffer header = ByteBuffer.wrap(writeScratch, 0, HEADER_BYTES);
+        header.putInt(length);
+        header.putInt((int) writeCrc.getValue());
+
+        segment.buffer.put(offset, writeScratch, 0, HEADER_BYTES + length);
+        appendPosition += HEADER_BYTES + length;
+    }
+
+    private Tick decode(byte[] record) {
+        ByteBuffer body = ByteBuffer.wrap(record, HEADER_BYTES, record.length - HEADER_BYTES);
+        int symbolLength = Short.toUnsignedInt(body.getShort());
+        int symbolId = symbols.intern(record, HEADER_BYTES + Short.BYTES, symbolLength);
+        body.position(body.position() + symbolLength);
+        return new Tick(symbolId, body.getLong(), body.getDouble(), body.getDouble());
+    }
+
+    private byte[] encoded(int symbolId) {
+        return encodedSymbols.computeIfAbsent(symbolId, id -> {
+            byte[] utf8 = symbols.symbol(id).getBytes(StandardCharsets.UTF_8);
+            if (utf8.length > MAX_SYMBOL_BYTES) {
+                throw new IllegalArgumentException("Symbol too long for the journal: " + symbols.symbol(id));
+            }
+            return utf8;
+        });
+    }
+
+    private static boolean valid(byte[] record, int length, CRC32C crc) {
+        crc.reset();
+        crc.update(record, HEADER_BYTES, length);
+        return ByteBuffer.wrap(record).getInt(Integer.BYTES) == (int) crc.getValue();
+    }
+
+    // Undoes a failed append: segments it created are deleted and the bytes it
+    // wrote are zeroed, so a later recovery cannot mistake them for records
+    private void rollback(Segment first) {
+        for (Segment segment : segments.tailMap(first.base, false).values()) {
+            segments.remove(segment.base);
+            delete(segment);
+        }
+        zero(first, (int) (writePosition - first.base));
+        appendPosition = writePosition;
+    }
+
+    private void force(long from, long to) {
+        for (Segment segment : segments.subMap(segments.floorKey(from), true, to, false).values()) {
+            int start = (int) Math.max(0, from - segment.base);
+            int end = (int) Math.min(segment.capacity, to - segment.base);
+            segment.buffer.force(start, end - start);
+        }
+    }
+
+    private void recover(long startPosition) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                Matcher matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+                if (!matcher.matches()) continue;
+                long base = Long.parseLong(matcher.group(1));
+                segments.put(base, mapSegment(path, base, Files.size(path), false));
+            }
+        }
+
+        long end = segments.isEmpty() ? startPosition : scan(segments.lastEntry().getValue());
+        if (end < startPosition) {
+            log.warn("Journal in {} ends at {} before the drained position {}; starting a new journal",
+                    directory, end, startPosition);
+            release(Long.MAX_VALUE);
+            delete(segments.pollFirstEntry().getValue());
+        } else if (!segments.isEmpty()) {
+            verify(startPosition);
+        }
+        if (segments.isEmpty()) {
+            createSegment(startPosition);
+            end = startPosition;
+        }
+        appendPosition = end;
+        writePosition = end;
+        log.info("Opened journal in {} at [{}, {}] in {} segments", directory, segments.firstKey(), end,
+                segments.size());
+    }
+
+    // Returns the position after the last intact record and zeroes the rest
+    private long scan(Segment segment) {
+        int offset = intactBytes(segment);
+        if (zero(segment, offset)) {
+            log.warn("Journal segment {} had a torn tail after {} bytes; discarded it", segment.path, offset);
+            segment.buffer.force();
+        }
+        return segment.base + offset;
+    }
+
+    /**
+     * Checks what the drainer will read from {@code startPosition} on. Only
+     * the newest segment can have a torn tail, and {@link #scan} already cut
+     * it; a bad record anywhere before it means lost data, so this refuses to
+     * open rather than skip it. Reads every retained byte once.
+     */
+    private void verify(long startPosition) {
+        if (startPosition < segments.firstKey()) {
+            throw new IllegalStateException("Journal in " + directory + " starts at " + segments.firstKey()
+                    + ", after the drained position " + startPosition + "; ticks in between were never drained."
+                    + " Restore the missing segments or move the directory aside to start a new journal");
+        }
+        Segment last = segments.lastEntry().getValue();
+        Segment previous = null;
+        for (Segment segment : segments.tailMap(segments.floorKey(startPosition), true).values()) {
+            if (previous != null && segment.base != previous.end()) {
+                throw new IllegalStateException("Journal in " + directory + " is missing positions ["
+                        + previous.end() + ", " + segment.base + ")");
+            }
+            if (segment != last) {
+                int intact = intactBytes(segment);
+                if (intact + HEADER_BYTES <= segment.capacity && segment.buffer.getInt(intact) != 0) {
+                    throw new IllegalStateException("Corrupt journal record at position "
+                            + (segment.base + intact) + " in " + segment.path);
+                }
+            }
+            previous = segment;
+        }
+
+        Segment first = segments.floorEntry(startPosition).getValue();
+        int target = (int) Math.min(startPosition - first.base, first.capacity);
+        int offset = 0;
+        while (offset < target) {
+            int length = offset + HEADER_BYTES <= first.capacity ? first.buffer.getInt(offset) : 0;
+            if (length == 0) {
+                // Padding: the reader moves on to the next segment from anywhere in it
+                return;
+            }
+            offset += HEADER_BYTES + length;
+        }
+        if (offset != target) {
+            throw new IllegalStateException("Drained position " + startPosition + " in " + directory
+                    + " is not a record boundary");
+        }
+    }
+
+    // Length of the run of intact records at the start of the segment
+    private static int intactBytes(Segment segment) {
+        byte[] scratch = new byte[HEADER_BYTES + FIXED_BODY_BYTES + MAX_SYMBOL_BYTES];
+        CRC32C crc = new CRC32C();
+        int offset = 0;
+        while (offset + HEADER_BYTES <= segment.capacity) {
+            int length = segment.buffer.getInt(offset);
+            if (length < FIXED_BODY_BYTES || length > FIXED_BODY_BYTES + MAX_SYMBOL_BYTES
+                    || offset + HEADER_BYTES + length > segment.capacity) {
+                break;
+            }
+            segment.buffer.get(offset, scratch, 0, HEADER_BYTES + length);
+            if (!valid(scratch, length, crc)) break;
+            offset += HEADER_BYTES + length;
+        }
+        return offset;
+    }
+
+    // Returns whether any non-zero byte was found
+    private static boolean zero(Segment segment, int from) {
+        boolean dirty = false;
+        int offset = from;
+        for (; offset + Long.BYTES <= segment.capacity; offset += Long.BYTES) {
+            if (segment.buffer.getLong(offset) != 0) {
+                segment.buffer.putLong(offset, 0);
+                dirty = true;
+            }
+        }
+        for (; offset < segment.capacity; offset++) {
+            if (segment.buffer.get(offset) != 0) {
+                segment.buffer.put(offset, (byte) 0);
+                dirty = true;
+            }
+        }
+        return dirty;
+    }
+
+    private Segment createSegment(long base) {
+        Path path = directory.resolve(String.format("%020d", base) + EXTENSION);
+        try {
+            Segment segment = mapSegment(path, base, segmentBytes, true);
+            segments.put(base, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create journal segment " + path, e);
+        }
+    }
+
+    // The segment must already be out of the map and never touched again:
+    // any access after unmapping crashes the JVM
+    private static void delete(Segment segment) {
+        if (UNMAP != null) {
+            try {
+                UNMAP.invokeExact((ByteBuffer) segment.buffer);
+            } catch (Throwable e) {
+                log.warn("Failed to unmap journal segment {}: {}", segment.path, e.getMessage());
+            }
+        }
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            log.warn("Failed to delete journal segment {}: {}", segment.path, e.getMessage());
+        }
+    }
+
+    private static MethodHandle unmapper() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Journal segments cannot be unmapped eagerly; deleted segments free their disk space"
+                    + " only once garbage collected: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static Segment mapSegment(Path path, long base, long size, boolean create) throws IOException {
+        StandardOpenOption[] options = create
+                ? new StandardOpenOption[] {StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[] {StandardOpenOption.READ, StandardOpenOption.WRITE};
+        // The mapping stays valid after the channel is closed; a new file is extended with zeros
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            return new Segment(path, base, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final long base;
+        private final int capacity;
+        private final MappedByteBuffer buffer;
+
+        private Segment(Path path, long base, MappedByteBuffer buffer) {
+            this.path = path;
+            this.base = base;
+            this.capacity = buffer.capacity();
+            this.buffer = buffer;
+        }
+
+        private long end() {
+            return base + capacity;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.realtime.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets one in every {@code sampleEvery} calls through, for logging per-tick
+ * events without writing a line per tick.
+ */
+public class LogSampler {
+
+    private final long sampleEvery;
+    private final AtomicLong calls = new AtomicLong();
+
+    public LogSampler(long sampleEvery) {
+        this.sampleEvery = Math.max(1, sampleEvery);
+    }
+
+    public boolean sample() {
+        return calls.getAndIncrement() % sampleEvery == 0;
+    }
+
+    public long getSampleEvery() {
+        return sampleEvery;
+    }
+}
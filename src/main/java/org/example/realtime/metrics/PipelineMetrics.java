@@ -0,0 +1,157 @@
+package org.example.realtime.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the fetch, ingest and analysis paths. Latencies are timers with
+ * percentile histograms so Prometheus can aggregate quantiles across instances.
+ */
+@Component
+public class PipelineMetrics {
+
+    private static final String OTHER_SYMBOLS = "other";
+
+    private final MeterRegistry registry;
+    private final Set<String> lagSymbols;
+
+    private final Timer fetchSuccess;
+    private final Timer fetchFailure;
+    private final Timer rateLimitWait;
+    private final Counter rateLimitWaits;
+    private final Timer dbFlush;
+    private final Map<String, Timer> consumeLag = new ConcurrentHashMap<>();
+    private final Map<String, Counter> parseFailures = new ConcurrentHashMap<>();
+    private final Map<String, Timer> analysis = new ConcurrentHashMap<>();
+    private final Map<String, Counter> alerts = new ConcurrentHashMap<>();
+    private final Map<String, Counter> throttles = new ConcurrentHashMap<>();
+
+    public PipelineMetrics(MeterRegistry registry,
+                           @Value("${metrics.lag.symbols:${fetch.watchlist:}}") String[] lagSymbols) {
+        this.registry = registry;
+        // Per-symbol lag is limited to a configured set so the series count stays bounded
+        this.lagSymbols = new LinkedHashSet<>();
+        for (String symbol : lagSymbols) {
+            if (!symbol.isBlank()) this.lagSymbols.add(symbol.trim());
+        }
+        this.fetchSuccess = latency("stock.fetch.latency", "Upstream quote fetch latency")
+                .tag("outcome", "success").register(registry);
+        this.fetchFailure = latency("stock.fetch.latency", "Upstream quote fetch latency")
+                .tag("outcome", "failure").register(registry);
+        this.rateLimitWait = latency("stock.fetch.ratelimit.wait", "Time spent waiting for a fetch token")
+                .register(registry);
+        this.rateLimitWaits = Counter.builder("stock.fetch.ratelimit.waits")
+                .description("Fetches that had to wait for a token")
+                .register(registry);
+        this.dbFlush = latency("stock.ingest.flush", "Database flush latency per consumed batch")
+                .register(registry);
+    }
+
+    public void recordFetch(long nanos, boolean success) {
+        (success ? fetchSuccess : fetchFailure).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRateLimitWait(long nanos) {
+        if (nanos > 0) {
+            rateLimitWaits.increment();
+        }
+        rateLimitWait.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the time between a record being produced and consumed.
+     */
+    public void recordConsumeLag(String symbol, long producedAtMillis) {
+        String tag = symbol != null && lagSymbols.contains(symbol) ? symbol : OTHER_SYMBOLS;
+        Timer timer = consumeLag.computeIfAbsent(tag, key ->
+                latency("stock.ingest.lag", "Produce-to-consume lag").tag("symbol", key).register(registry));
+        timer.record(Math.max(0, System.currentTimeMillis() - producedAtMillis), TimeUnit.MILLISECONDS);
+    }
+
+    public Timer getDbFlush() {
+        return dbFlush;
+    }
+
+    public void parseFailure(String source) {
+        parseFailures.computeIfAbsent(source, key -> Counter.builder("stock.parse.failures")
+                .description("Records or responses that could not be decoded")
+                .tag("source", key)
+                .register(registry)).increment();
+    }
+
+    public void providerGauges(String provider, Supplier<Number> rate, Supplier<Number> circuitOpen) {
+        Gauge.builder("stock.provider.rate", rate)
+                .description("Current adaptive request rate per second")
+                .tag("provider", provider)
+                .register(registry);
+        Gauge.builder("stock.provider.circuit.open", circuitOpen)
+                .description("1 while the provider's circuit breaker is not closed")
+                .tag("provider", provider)
+                .register(registry);
+    }
+
+    public void bulkheadGauges(String bulkhead, Supplier<Number> active, Supplier<Number> queued) {
+        Gauge.builder("stock.request.bulkhead.active", active)
+                .description("Requests being processed by the bulkhead's threads")
+                .tag("bulkhead", bulkhead)
+                .register(registry);
+        Gauge.builder("stock.request.bulkhead.queued", queued)
+                .description("Requests waiting for a bulkhead thread")
+                .tag("bulkhead", bulkhead)
+                .register(registry);
+    }
+
+    public void providerThrottled(String provider) {
+        throttles.computeIfAbsent(provider, key -> Counter.builder("stock.provider.throttled")
+                .description("429 responses from a provider")
+                .tag("provider", key)
+                .register(registry)).increment();
+    }
+
+    public void alertFired(String ruleType) {
+        alerts.computeIfAbsent(ruleType, key -> Counter.builder("stock.alerts.fired")
+                .description("Alerts published, by rule type")
+                .tag("type", key)
+                .register(registry)).increment();
+    }
+
+    public <T> T timeAnalysis(String operation, Supplier<T> computation) {
+        return analysis.computeIfAbsent(operation, key ->
+                latency("stock.analysis.compute", "Analysis compute time per operation")
+                        .tag("operation", key).register(registry))
+                .record(computation);
+    }
+
+    public void gauge(String name, String description, Supplier<Number> value) {
+        Gauge.builder(name, value).description(description).register(registry);
+    }
+
+    /**
+     * Exposes hit/miss/eviction counts of a cache built with {@code recordStats()}.
+     */
+    public void monitorCache(Cache<?, ?> cache, String name) {
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+    }
+
+    private static Timer.Builder latency(String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30));
+    }
+}
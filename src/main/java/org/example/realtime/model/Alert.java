@@ -0,0 +1,22 @@
+package org.example.realtime.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published to the alerts topic when a rule fires. {@code value} is the
+ * observed quantity compared against the threshold: a percent move, a volume
+ * multiple, an RSI value or a z-score.
+ */
+@Value
+public class Alert {
+    long ruleId;
+    String symbol;
+    AlertRuleType type;
+    AlertDirection direction;
+    double threshold;
+    double value;
+    double price;
+    LocalDateTime timestamp;
+}
@@ -0,0 +1,15 @@
+package org.example.realtime.model;
+
+public enum AlertDirection {
+    UP,
+    DOWN,
+    BOTH;
+
+    public boolean allowsUp() {
+        return this != DOWN;
+    }
+
+    public boolean allowsDown() {
+        return this != UP;
+    }
+}
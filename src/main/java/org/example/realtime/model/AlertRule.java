@@ -0,0 +1,42 @@
+package org.example.realtime.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "alert_rules", indexes = @Index(name = "idx_alert_rules_symbol", columnList = "symbol"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertRule {
+    public static final int MAX_SYMBOL_LENGTH = 16;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = MAX_SYMBOL_LENGTH)
+    private String symbol;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private AlertRuleType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private AlertDirection direction = AlertDirection.BOTH;
+
+    @Column(nullable = false)
+    private double threshold;
+
+    // Ignored by RSI_CROSS
+    @Column(nullable = false)
+    private int windowMinutes;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
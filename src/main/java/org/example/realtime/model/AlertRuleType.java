@@ -0,0 +1,15 @@
+package org.example.realtime.model;
+
+/**
+ * What an {@link AlertRule} watches. Thresholds are interpreted per type.
+ */
+public enum AlertRuleType {
+    // Percent move from the window's low (UP) or high (DOWN)
+    PERCENT_MOVE,
+    // Tick volume as a multiple of the window's average tick volume
+    VOLUME_SPIKE,
+    // RSI crossing the threshold level; the window is not used
+    RSI_CROSS,
+    // Z-score of the tick's return against the window's returns
+    RETURN_ZSCORE
+}
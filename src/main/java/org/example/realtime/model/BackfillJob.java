@@ -0,0 +1,73 @@
+package org.example.realtime.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one backfill. Counters are updated by the job's threads and
+ * read by status requests.
+ */
+@Getter
+public class BackfillJob {
+
+    private final long id;
+    private final BackfillRequest request;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private volatile BackfillStatus status = BackfillStatus.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+    @JsonIgnore
+    private volatile boolean cancelRequested;
+    @JsonIgnore
+    private final AtomicLong read = new AtomicLong();
+    @JsonIgnore
+    private final AtomicLong written = new AtomicLong();
+    @JsonIgnore
+    private final AtomicLong failed = new AtomicLong();
+
+    public BackfillJob(long id, BackfillRequest request) {
+        this.id = id;
+        this.request = request;
+    }
+
+    public long getTicksRead() {
+        return read.get();
+    }
+
+    public long getTicksWritten() {
+        return written.get();
+    }
+
+    public long getParseFailures() {
+        return failed.get();
+    }
+
+    // Written ticks per second since the job started
+    public double getTicksPerSecond() {
+        LocalDateTime started = startedAt;
+        if (started == null) return 0.0;
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        long millis = Math.max(1, Duration.between(started, end).toMillis());
+        return written.get() * 1000.0 / millis;
+    }
+
+    public void start() {
+        startedAt = LocalDateTime.now();
+        status = BackfillStatus.RUNNING;
+    }
+
+    public void finish(BackfillStatus finalStatus, String failure) {
+        error = failure;
+        finishedAt = LocalDateTime.now();
+        status = finalStatus;
+    }
+
+    public void cancel() {
+        cancelRequested = true;
+    }
+}
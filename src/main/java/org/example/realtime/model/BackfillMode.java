@@ -0,0 +1,9 @@
+package org.example.realtime.model;
+
+public enum BackfillMode {
+    // Bulk-insert ticks and merge their bars; no in-memory state is touched
+    LOAD,
+    // Write ticks and bars batch by batch in time order, optionally paced; like LOAD,
+    // the tick store, indicators and live subscribers are left to the live stream
+    REPLAY
+}
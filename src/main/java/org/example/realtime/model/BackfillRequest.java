@@ -0,0 +1,21 @@
+package org.example.realtime.model;
+
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+public class BackfillRequest {
+    private BackfillSource source;
+    private BackfillMode mode = BackfillMode.LOAD;
+    // FILE: path on the server; csv or ndjson, taken from the extension unless format is set
+    private String path;
+    private String format;
+    // KAFKA: partition -> first offset (inclusive) and last offset (exclusive).
+    // With neither map set every partition is replayed; otherwise only those
+    // named, a missing bound meaning the beginning or the current end
+    private Map<Integer, Long> fromOffsets;
+    private Map<Integer, Long> toOffsets;
+    // REPLAY only: multiple of the original tick pace, 0 for as fast as possible
+    private double speed;
+}
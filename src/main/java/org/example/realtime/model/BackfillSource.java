@@ -0,0 +1,8 @@
+package org.example.realtime.model;
+
+public enum BackfillSource {
+    // A local CSV or NDJSON file
+    FILE,
+    // An offset range of the stock-prices topic
+    KAFKA
+}
@@ -0,0 +1,42 @@
+package org.example.realtime.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum BarResolution {
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    // Fewest bars a window must span for a resolution to be usable
+    public static final int MIN_BARS_PER_WINDOW = 20;
+
+    private final ChronoUnit unit;
+
+    BarResolution(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public LocalDateTime bucketStart(LocalDateTime timestamp) {
+        return timestamp.truncatedTo(unit);
+    }
+
+    public Duration getDuration() {
+        return unit.getDuration();
+    }
+
+    /**
+     * Coarsest resolution that still yields at least {@link #MIN_BARS_PER_WINDOW}
+     * bars over the given window.
+     */
+    public static BarResolution coarsestFor(Duration window) {
+        BarResolution[] resolutions = values();
+        for (int i = resolutions.length - 1; i > 0; i--) {
+            if (window.dividedBy(resolutions[i].getDuration()) >= MIN_BARS_PER_WINDOW) {
+                return resolutions[i];
+            }
+        }
+        return MINUTE;
+    }
+}
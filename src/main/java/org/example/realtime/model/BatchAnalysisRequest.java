@@ -0,0 +1,16 @@
+package org.example.realtime.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchAnalysisRequest {
+    private List<String> symbols;
+    // Names as in the single-symbol endpoints, e.g. "trend" or "technical-indicators"
+    private List<String> analyses;
+    private String timeframe = "1d";
+    private int shortPeriod = 20;
+    private int longPeriod = 50;
+    private int period = 14;
+}
@@ -8,13 +8,17 @@ import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "historical_stock_prices")
+@Table(name = "historical_stock_prices",
+        indexes = @Index(name = "uk_symbol_timestamp", columnList = "symbol, timestamp", unique = true))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class HistoricalStockPrice {
+    // Pooled table generator so Hibernate can batch inserts (IDENTITY cannot)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "historical_stock_price_id")
+    @TableGenerator(name = "historical_stock_price_id", table = "id_generators",
+            pkColumnName = "generator_name", valueColumnName = "next_value", allocationSize = 500)
     private Long id;
 
     @Column(nullable = false)
@@ -42,4 +46,11 @@ public class HistoricalStockPrice {
         this.volume = volume;
         this.timestamp = LocalDateTime.now();
     }
+
+    public HistoricalStockPrice(String symbol, double price, double volume, LocalDateTime timestamp) {
+        this.symbol = symbol;
+        this.price = price;
+        this.volume = volume;
+        this.timestamp = timestamp;
+    }
 } 
\ No newline at end of file
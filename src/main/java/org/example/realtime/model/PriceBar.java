@@ -0,0 +1,61 @@
+package org.example.realtime.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "price_bars")
+@IdClass(PriceBarId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceBar {
+    // Narrower than tick symbols: longer ones get no bars
+    public static final int MAX_SYMBOL_LENGTH = 16;
+
+    @Id
+    @Column(length = MAX_SYMBOL_LENGTH)
+    private String symbol;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8)
+    private BarResolution resolution;
+
+    @Id
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private double openPrice;
+
+    @Column(nullable = false)
+    private double highPrice;
+
+    @Column(nullable = false)
+    private double lowPrice;
+
+    @Column(nullable = false)
+    private double closePrice;
+
+    @Column(nullable = false)
+    private double volume;
+
+    // Sum of price * volume, for VWAP
+    @Column(nullable = false)
+    private double turnover;
+
+    @Column(nullable = false)
+    private long tickCount;
+
+    // Times of the ticks that set open and close, so ticks arriving out of
+    // order replace them only when earlier or later
+    @Column(nullable = false)
+    private LocalDateTime firstTickAt;
+
+    @Column(nullable = false)
+    private LocalDateTime lastTickAt;
+}
@@ -0,0 +1,19 @@
+package org.example.realtime.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceBarId implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String symbol;
+    private BarResolution resolution;
+    private LocalDateTime bucketStart;
+}
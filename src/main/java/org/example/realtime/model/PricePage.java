@@ -0,0 +1,14 @@
+package org.example.realtime.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PricePage {
+    private List<HistoricalStockPrice> items;
+    // Pass back as "cursor" to fetch the next page; null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,17 @@
+package org.example.realtime.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class Quote {
+    String symbol;
+    double price;
+    double volume;
+    double high;
+    double low;
+    double open;
+    double previousClose;
+    LocalDateTime fetchedAt;
+}
@@ -0,0 +1,20 @@
+package org.example.realtime.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * One pushed tick with the symbol's streaming indicators at that tick.
+ * Indicator fields are null until the indicator state is warm.
+ */
+@Value
+public class QuoteUpdate {
+    String symbol;
+    double price;
+    double volume;
+    LocalDateTime timestamp;
+    Double rsi;
+    Double macd;
+    Double macdHistogram;
+}
@@ -0,0 +1,21 @@
+package org.example.realtime.model;
+
+import lombok.Value;
+
+/**
+ * Internal form of a consumed tick: the symbol as a
+ * {@link org.example.realtime.symbol.SymbolDictionary} ID and the time as
+ * epoch microseconds, the precision of the timestamp column. The wire and
+ * JSON form stays {@link StockPrice}.
+ */
+@Value
+public class Tick {
+    int symbolId;
+    long epochMicros;
+    double price;
+    double volume;
+
+    public long getEpochMillis() {
+        return Math.floorDiv(epochMicros, 1000L);
+    }
+}
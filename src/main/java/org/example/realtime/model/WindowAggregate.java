@@ -0,0 +1,54 @@
+package org.example.realtime.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * OHLCV state of one symbol over one Kafka Streams window. An empty
+ * aggregate has {@code tickCount == 0}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WindowAggregate {
+    private double openPrice;
+    private double highPrice;
+    private double lowPrice;
+    private double closePrice;
+    private double volume;
+    // Sum of price * volume, for VWAP
+    private double turnover;
+    private long tickCount;
+    // Event time of the first and last tick, epoch millis
+    private long firstTimestamp;
+    private long lastTimestamp;
+
+    // Ticks can arrive out of order within the grace period, so open and
+    // close follow event time rather than arrival order
+    public WindowAggregate add(double price, double volume, long timestamp) {
+        if (tickCount == 0) {
+            openPrice = highPrice = lowPrice = closePrice = price;
+            firstTimestamp = lastTimestamp = timestamp;
+        } else {
+            highPrice = Math.max(highPrice, price);
+            lowPrice = Math.min(lowPrice, price);
+            if (timestamp < firstTimestamp) {
+                firstTimestamp = timestamp;
+                openPrice = price;
+            }
+            if (timestamp >= lastTimestamp) {
+                lastTimestamp = timestamp;
+                closePrice = price;
+            }
+        }
+        this.volume += volume;
+        turnover += price * volume;
+        tickCount++;
+        return this;
+    }
+
+    public double getVwap() {
+        return volume > 0 ? turnover / volume : closePrice;
+    }
+}
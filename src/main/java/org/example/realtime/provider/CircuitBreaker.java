@@ -0,0 +1,92 @@
+package org.example.realtime.provider;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold}
+ * failures it opens and rejects calls; once the open period elapses a single
+ * probe is let through (half-open). A failed probe reopens it for twice as
+ * long, up to {@code maxOpenMillis}, with jitter so instances do not probe
+ * in lockstep.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long baseOpenMillis;
+    private final long maxOpenMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private int consecutiveOpens;
+    private long openUntil;
+
+    public CircuitBreaker(int failureThreshold, long baseOpenMillis, long maxOpenMillis) {
+        if (failureThreshold < 1 || baseOpenMillis <= 0 || maxOpenMillis < baseOpenMillis) {
+            throw new IllegalArgumentException("Invalid circuit breaker settings");
+        }
+        this.failureThreshold = failureThreshold;
+        this.baseOpenMillis = baseOpenMillis;
+        this.maxOpenMillis = maxOpenMillis;
+    }
+
+    /**
+     * Returns whether a call may proceed. A true result in the half-open state
+     * makes the caller the probe, which must report its outcome.
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() >= openUntil) {
+                    state = State.HALF_OPEN;
+                    return true;
+                }
+                return false;
+            default:
+                // A probe is already in flight
+                return false;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        consecutiveOpens = 0;
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * Gives up a call admitted by {@link #tryAcquire()} without an outcome. A
+     * released probe lets the next caller probe instead.
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+        }
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && System.currentTimeMillis() >= openUntil) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    private void open() {
+        consecutiveOpens++;
+        long duration = Math.min(maxOpenMillis, baseOpenMillis << Math.min(consecutiveOpens - 1, 20));
+        // +/-20% jitter
+        duration += (long) (duration * (ThreadLocalRandom.current().nextDouble() - 0.5) * 0.4);
+        openUntil = System.currentTimeMillis() + duration;
+        state = State.OPEN;
+        consecutiveFailures = 0;
+    }
+}
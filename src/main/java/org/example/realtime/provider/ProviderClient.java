@@ -0,0 +1,134 @@
+package org.example.realtime.provider;
+
+import lombok.Getter;
+import org.example.realtime.metrics.PipelineMetrics;
+import org.example.realtime.ratelimit.AdaptiveRateLimiter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP client for one upstream data provider. Every call goes through the
+ * provider's circuit breaker and adaptive rate limiter; throttling, 5xx and
+ * I/O failures are retried with full-jitter exponential backoff. One
+ * deadline of {@code maxWaitMillis} covers the whole call: token waits and
+ * retry delays must fit in the time left and no attempt starts after it, so
+ * a caller waits at most {@code maxWaitMillis} plus the connect and read
+ * timeouts of the request in flight. While the circuit is open the caller
+ * gets a {@link ProviderUnavailableException} at once.
+ */
+public class ProviderClient {
+
+    @Getter
+    private final String name;
+    private final RestTemplate restTemplate;
+    @Getter
+    private final AdaptiveRateLimiter rateLimiter;
+    @Getter
+    private final CircuitBreaker circuitBreaker;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxWaitMillis;
+    private final PipelineMetrics metrics;
+
+    public ProviderClient(String name, RestTemplate restTemplate, AdaptiveRateLimiter rateLimiter,
+                          CircuitBreaker circuitBreaker, int maxAttempts, long baseBackoffMillis,
+                          long maxWaitMillis, PipelineMetrics metrics) {
+        this.name = name;
+        this.restTemplate = restTemplate;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.metrics = metrics;
+        metrics.providerGauges(name, rateLimiter::getPermitsPerSecond,
+                () -> circuitBreaker.getState() == CircuitBreaker.State.CLOSED ? 0 : 1);
+    }
+
+    public <T> T get(String url, Class<T> responseType) {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new ProviderUnavailableException(name + " circuit is open");
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        for (int attempt = 1; ; attempt++) {
+            acquirePermit(deadline);
+            RuntimeException failure;
+            long delayMillis;
+            try {
+                T body = restTemplate.getForObject(url, responseType);
+                rateLimiter.onSuccess();
+                circuitBreaker.onSuccess();
+                return body;
+            } catch (HttpClientErrorException.TooManyRequests e) {
+                rateLimiter.onThrottled();
+                metrics.providerThrottled(name);
+                long retryAfter = retryAfterMillis(e);
+                failure = e;
+                delayMillis = retryAfter >= 0 ? retryAfter : backoffMillis(attempt);
+            } catch (HttpClientErrorException e) {
+                // The provider answered; the request itself was rejected
+                circuitBreaker.onSuccess();
+                throw e;
+            } catch (HttpServerErrorException | ResourceAccessException e) {
+                failure = e;
+                delayMillis = backoffMillis(attempt);
+            } catch (RuntimeException e) {
+                circuitBreaker.onFailure();
+                throw e;
+            }
+
+            if (attempt >= maxAttempts
+                    || TimeUnit.MILLISECONDS.toNanos(delayMillis) >= deadline - System.nanoTime()) {
+                circuitBreaker.onFailure();
+                throw failure;
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                circuitBreaker.release();
+                throw new ProviderUnavailableException(name + " call interrupted");
+            }
+        }
+    }
+
+    private void acquirePermit(long deadline) {
+        long waited;
+        try {
+            waited = rateLimiter.tryAcquire(Math.max(0, deadline - System.nanoTime()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.release();
+            throw new ProviderUnavailableException(name + " call interrupted");
+        }
+        if (waited < 0) {
+            circuitBreaker.release();
+            throw new ProviderUnavailableException(name + " rate limit exceeded");
+        }
+        metrics.recordRateLimitWait(waited);
+    }
+
+    // Full jitter: uniform in [0, min(maxWait, base * 2^(attempt - 1))]
+    private long backoffMillis(int attempt) {
+        long cap = Math.min(maxWaitMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private static long retryAfterMillis(HttpClientErrorException e) {
+        HttpHeaders headers = e.getResponseHeaders();
+        String retryAfter = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (retryAfter == null) return -1;
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException ex) {
+            // HTTP-date form; fall back to backoff
+            return -1;
+        }
+    }
+}
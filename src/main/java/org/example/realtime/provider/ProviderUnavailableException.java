@@ -0,0 +1,14 @@
+package org.example.realtime.provider;
+
+/**
+ * Thrown without contacting the provider when its circuit is open or its
+ * rate limit cannot be met within the caller's wait budget.
+ */
+public class ProviderUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ProviderUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.realtime.ratelimit;
+
+/**
+ * Token bucket whose rate follows the upstream's feedback: halved on every
+ * throttling response and raised additively on success, between a floor and
+ * the configured ceiling (AIMD).
+ */
+public class AdaptiveRateLimiter extends TokenBucketRateLimiter {
+
+    private final double minPermitsPerSecond;
+    private final double maxPermitsPerSecond;
+    private final double increasePerSuccess;
+
+    public AdaptiveRateLimiter(double maxPermitsPerSecond, double minPermitsPerSecond, double burst) {
+        super(maxPermitsPerSecond, burst);
+        if (minPermitsPerSecond <= 0 || minPermitsPerSecond > maxPermitsPerSecond) {
+            throw new IllegalArgumentException("Minimum rate must be positive and at most the maximum");
+        }
+        this.minPermitsPerSecond = minPermitsPerSecond;
+        this.maxPermitsPerSecond = maxPermitsPerSecond;
+        // Ten consecutive successes undo one halving from full rate
+        this.increasePerSuccess = maxPermitsPerSecond / 20;
+    }
+
+    public synchronized void onSuccess() {
+        double rate = getPermitsPerSecond();
+        if (rate < maxPermitsPerSecond) {
+            setPermitsPerSecond(Math.min(maxPermitsPerSecond, rate + increasePerSuccess));
+        }
+    }
+
+    public synchronized void onThrottled() {
+        setPermitsPerSecond(Math.max(minPermitsPerSecond, getPermitsPerSecond() / 2));
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.realtime.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket shared by every caller of one upstream. {@link #acquire()}
+ * reserves a token immediately and sleeps outside the lock until it is due,
+ * so waiting callers never block each other's bookkeeping.
+ */
+public class TokenBucketRateLimiter {
+
+    private final double burst;
+    private double permitsPerSecond;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucketRateLimiter(double permitsPerSecond, double burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Blocks until a token is available.
+     *
+     * @return nanoseconds spent waiting
+     */
+    public long acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            refill();
+            tokens -= 1;
+            waitNanos = tokens >= 0 ? 0 : (long) (-tokens / permitsPerSecond * 1_000_000_000L);
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        return waitNanos;
+    }
+
+    /**
+     * Blocks until a token is available, unless that would take longer than
+     * {@code maxWaitNanos}, in which case no token is taken.
+     *
+     * @return nanoseconds spent waiting, or -1 if the wait would exceed the limit
+     */
+    public long tryAcquire(long maxWaitNanos) throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            refill();
+            waitNanos = tokens >= 1 ? 0 : (long) ((1 - tokens) / permitsPerSecond * 1_000_000_000L);
+            if (waitNanos > maxWaitNanos) return -1;
+            tokens -= 1;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        return waitNanos;
+    }
+
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    // Tokens accrued so far are kept; only the refill rate changes
+    protected synchronized void setPermitsPerSecond(double permitsPerSecond) {
+        refill();
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        double elapsedSeconds = (now - lastRefillNanos) / 1_000_000_000.0;
+        tokens = Math.min(burst, tokens + elapsedSeconds * permitsPerSecond);
+        lastRefillNanos = now;
+    }
+}
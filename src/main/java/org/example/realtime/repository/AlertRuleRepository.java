@@ -0,0 +1,13 @@
+package org.example.realtime.repository;
+
+import org.example.realtime.model.AlertRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AlertRuleRepository extends JpaRepository<AlertRule, Long> {
+
+    List<AlertRule> findBySymbolOrderByIdAsc(String symbol);
+}
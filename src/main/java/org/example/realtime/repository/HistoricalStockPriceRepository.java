@@ -1,27 +1,80 @@
 package org.example.realtime.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.realtime.model.HistoricalStockPrice;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface HistoricalStockPriceRepository extends JpaRepository<HistoricalStockPrice, Long> {
+public interface HistoricalStockPriceRepository extends JpaRepository<HistoricalStockPrice, Long>,
+        HistoricalStockPriceRepositoryCustom {
     
-    List<HistoricalStockPrice> findBySymbolOrderByTimestampDesc(String symbol);
+    List<HistoricalStockPrice> findBySymbolOrderByTimestampDesc(String symbol, Pageable pageable);
     
     List<HistoricalStockPrice> findBySymbolAndTimestampBetweenOrderByTimestampAsc(
         String symbol, LocalDateTime start, LocalDateTime end);
     
-    @Query("SELECT AVG(h.price) FROM HistoricalStockPrice h WHERE h.symbol = ?1 AND h.timestamp >= ?2")
-    Double calculateAveragePrice(String symbol, LocalDateTime since);
+    @Query("SELECT DISTINCT h.symbol FROM HistoricalStockPrice h WHERE h.timestamp >= ?1 AND h.timestamp < ?2")
+    List<String> findDistinctSymbolsBetween(LocalDateTime start, LocalDateTime end);
     
-    @Query("SELECT MAX(h.price) FROM HistoricalStockPrice h WHERE h.symbol = ?1 AND h.timestamp >= ?2")
-    Double findMaxPrice(String symbol, LocalDateTime since);
+    @Query("SELECT MIN(h.timestamp) FROM HistoricalStockPrice h WHERE h.timestamp < ?1")
+    LocalDateTime findOldestTimestampBefore(LocalDateTime before);
     
-    @Query("SELECT MIN(h.price) FROM HistoricalStockPrice h WHERE h.symbol = ?1 AND h.timestamp >= ?2")
-    Double findMinPrice(String symbol, LocalDateTime since);
+    // Rows already written to a sealed archive file; the range prunes partitions
+    @Modifying
+    @Query(value = "DELETE FROM historical_stock_prices WHERE symbol = :symbol AND timestamp >= :start "
+            + "AND timestamp < :end AND id IN (:ids)", nativeQuery = true)
+    int deleteArchived(
+        @Param("symbol") String symbol,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end,
+        @Param("ids") Collection<Long> ids);
+    
+    // Keyset page: rows strictly after the (timestamp, id) cursor
+    @Query("SELECT h FROM HistoricalStockPrice h WHERE h.symbol = :symbol AND h.timestamp <= :end "
+            + "AND (h.timestamp > :afterTimestamp OR (h.timestamp = :afterTimestamp AND h.id > :afterId)) "
+            + "ORDER BY h.timestamp ASC, h.id ASC")
+    List<HistoricalStockPrice> findPageAfter(
+        @Param("symbol") String symbol,
+        @Param("afterTimestamp") LocalDateTime afterTimestamp,
+        @Param("afterId") long afterId,
+        @Param("end") LocalDateTime end,
+        Pageable pageable);
+    
+    // Forward-only cursor; Integer.MIN_VALUE makes Connector/J stream rows
+    // instead of buffering the whole result set
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    Stream<HistoricalStockPrice> streamBySymbolAndTimestampBetweenOrderByTimestampAsc(
+        String symbol, LocalDateTime start, LocalDateTime end);
+    
+    // One scan per symbol for the aggregates; first/last are index point lookups
+    // on (symbol, timestamp) at the window's first and last tick
+    @Query(value = "SELECT s.symbol AS symbol, s.cnt AS count, s.average AS average, s.min_price AS min, "
+            + "s.max_price AS max, s.stddev AS stddev, s.vwap AS vwap, "
+            + "(SELECT h.price FROM historical_stock_prices h WHERE h.symbol = s.symbol "
+            + "AND h.timestamp = s.first_ts ORDER BY h.id LIMIT 1) AS first, "
+            + "(SELECT h.price FROM historical_stock_prices h WHERE h.symbol = s.symbol "
+            + "AND h.timestamp = s.last_ts ORDER BY h.id DESC LIMIT 1) AS last "
+            + "FROM (SELECT symbol, COUNT(*) AS cnt, AVG(price) AS average, MIN(price) AS min_price, "
+            + "MAX(price) AS max_price, STDDEV_POP(price) AS stddev, "
+            + "SUM(price * volume) / NULLIF(SUM(volume), 0) AS vwap, "
+            + "MIN(timestamp) AS first_ts, MAX(timestamp) AS last_ts "
+            + "FROM historical_stock_prices WHERE symbol IN (:symbols) "
+            + "AND timestamp >= :since AND timestamp < :until GROUP BY symbol) s",
+            nativeQuery = true)
+    List<PriceStatisticsView> calculateStatistics(
+        @Param("symbols") Collection<String> symbols,
+        @Param("since") LocalDateTime since,
+        @Param("until") LocalDateTime until);
 } 
\ No newline at end of file
@@ -0,0 +1,37 @@
+package org.example.realtime.repository;
+
+import org.example.realtime.model.HistoricalStockPrice;
+import org.example.realtime.model.Tick;
+import org.example.realtime.symbol.SymbolDictionary;
+
+import java.util.List;
+
+public interface HistoricalStockPriceRepositoryCustom {
+
+    /**
+     * Inserts new rows with plain JDBC batches, bypassing the persistence
+     * context. Ids are taken from a block reserved in the same generator table
+     * Hibernate uses, and written back onto the rows.
+     */
+    void insertAll(List<HistoricalStockPrice> rows);
+
+    /**
+     * Like {@link #insertAll} but skips rows whose (symbol, timestamp) is
+     * already stored or repeated within {@code rows}, so redelivered or
+     * reloaded ticks are written once. A row stored concurrently by another
+     * writer counts as already stored, even if it was not there when this
+     * call began.
+     *
+     * @return the rows actually inserted, in their original order
+     */
+    List<HistoricalStockPrice> insertNew(List<HistoricalStockPrice> rows);
+
+    /**
+     * {@link #insertNew} for consumed ticks: their fields are bound to the
+     * statement directly, so no entity or {@code LocalDateTime} is built per
+     * tick.
+     *
+     * @return the ticks actually inserted, in their original order
+     */
+    List<Tick> insertNewTicks(List<Tick> ticks, SymbolDictionary symbols);
+}
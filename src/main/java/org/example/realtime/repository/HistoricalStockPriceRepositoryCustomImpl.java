@@ -0,0 +1,259 @@
+package org.example.realtime.repository;
+
+import org.example.realtime.model.HistoricalStockPrice;
+import org.example.realtime.model.Tick;
+import org.example.realtime.symbol.SymbolDictionary;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+public class HistoricalStockPriceRepositoryCustomImpl implements HistoricalStockPriceRepositoryCustom {
+
+    private static final String GENERATOR = "historical_stock_price_id";
+    // Must match allocationSize on HistoricalStockPrice.id
+    private static final int ALLOCATION_SIZE = 500;
+    private static final int BATCH_SIZE = 5000;
+
+    // Symbols per read-back query; each adds one index range to the OR list
+    private static final int LOOKUP_SYMBOLS = 200;
+
+    // A row that lost a race on uk_symbol_timestamp is dropped rather than failing the batch
+    private static final String INSERT_SQL =
+            "INSERT INTO historical_stock_prices (id, symbol, price, volume, timestamp) VALUES (?, ?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE id = id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate reservation;
+
+    public HistoricalStockPriceRepositoryCustomImpl(JdbcTemplate jdbcTemplate,
+                                                    PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Short transaction of its own, so the generator row is not locked for the whole load
+        this.reservation = new TransactionTemplate(transactionManager);
+        this.reservation.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void insertAll(List<HistoricalStockPrice> rows) {
+        if (rows.isEmpty()) return;
+        long firstId = reserveIds(rows.size());
+        List<Object[]> args = new ArrayList<>(Math.min(rows.size(), BATCH_SIZE));
+        for (int i = 0; i < rows.size(); i++) {
+            HistoricalStockPrice row = rows.get(i);
+            row.setId(firstId + i);
+            args.add(new Object[] {
+                    row.getId(), row.getSymbol(), row.getPrice(), row.getVolume(), Timestamp.valueOf(row.getTimestamp())
+            });
+            if (args.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, args);
+                args.clear();
+            }
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, args);
+        }
+    }
+
+    @Override
+    public List<HistoricalStockPrice> insertNew(List<HistoricalStockPrice> rows) {
+        if (rows.isEmpty()) return rows;
+        // Repeats within the batch are dropped here; the time span per symbol
+        // bounds each read-back to one index range
+        Set<RowKey> keys = new HashSet<>();
+        List<HistoricalStockPrice> unique = new ArrayList<>(rows.size());
+        Map<String, LocalDateTime[]> spans = new LinkedHashMap<>();
+        for (HistoricalStockPrice row : rows) {
+            if (!keys.add(new RowKey(normalize(row.getSymbol()), row.getTimestamp()))) continue;
+            unique.add(row);
+            LocalDateTime[] span = spans.computeIfAbsent(normalize(row.getSymbol()),
+                    key -> new LocalDateTime[] {row.getTimestamp(), row.getTimestamp()});
+            if (row.getTimestamp().isBefore(span[0])) span[0] = row.getTimestamp();
+            if (row.getTimestamp().isAfter(span[1])) span[1] = row.getTimestamp();
+        }
+
+        // A row whose key is already stored, including by a concurrent writer a
+        // moment ago, leaves the stored row untouched
+        insertAll(unique);
+        List<Span> bounds = new ArrayList<>(spans.size());
+        spans.forEach((symbol, span) ->
+                bounds.add(new Span(symbol, Timestamp.valueOf(span[0]), Timestamp.valueOf(span[1]))));
+        BitSet inserted = readBack(unique.get(0).getId(), unique.size(), bounds);
+
+        if (inserted.cardinality() == unique.size()) return unique;
+        List<HistoricalStockPrice> fresh = new ArrayList<>(inserted.cardinality());
+        for (int i = inserted.nextSetBit(0); i >= 0; i = inserted.nextSetBit(i + 1)) {
+            fresh.add(unique.get(i));
+        }
+        return fresh;
+    }
+
+    @Override
+    public List<Tick> insertNewTicks(List<Tick> ticks, SymbolDictionary symbols) {
+        if (ticks.isEmpty()) return ticks;
+        // A symbol's ticks normally arrive in time order and so cannot repeat;
+        // keys are compared only when some symbol goes back in time
+        Map<String, TickSpan> spans = new LinkedHashMap<>();
+        Map<String, TickSpan> spansBySymbol = new HashMap<>();
+        boolean ordered = true;
+        for (Tick tick : ticks) {
+            String symbol = symbols.symbol(tick.getSymbolId());
+            TickSpan span = spansBySymbol.get(symbol);
+            if (span == null) {
+                span = spans.computeIfAbsent(normalize(symbol), key -> new TickSpan());
+                spansBySymbol.put(symbol, span);
+            }
+            long micros = tick.getEpochMicros();
+            if (span.empty) {
+                span.first = micros;
+                span.last = micros;
+                span.empty = false;
+            } else if (micros > span.last) {
+                span.last = micros;
+            } else {
+                ordered = false;
+                span.first = Math.min(span.first, micros);
+            }
+        }
+        List<Tick> unique = ticks;
+        if (!ordered) {
+            Set<TickKey> keys = new HashSet<>();
+            unique = new ArrayList<>(ticks.size());
+            for (Tick tick : ticks) {
+                if (keys.add(new TickKey(normalize(symbols.symbol(tick.getSymbolId())), tick.getEpochMicros()))) {
+                    unique.add(tick);
+                }
+            }
+        }
+
+        long firstId = reserveIds(unique.size());
+        for (int from = 0; from < unique.size(); from += BATCH_SIZE) {
+            List<Tick> chunk = unique.subList(from, Math.min(unique.size(), from + BATCH_SIZE));
+            long chunkFirstId = firstId + from;
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement statement, int i) throws SQLException {
+                    Tick tick = chunk.get(i);
+                    statement.setLong(1, chunkFirstId + i);
+                    statement.setString(2, symbols.symbol(tick.getSymbolId()));
+                    statement.setDouble(3, tick.getPrice());
+                    statement.setDouble(4, tick.getVolume());
+                    statement.setTimestamp(5, timestamp(tick.getEpochMicros()));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return chunk.size();
+                }
+            });
+        }
+        List<Span> bounds = new ArrayList<>(spans.size());
+        spans.forEach((symbol, span) ->
+                bounds.add(new Span(symbol, timestamp(span.first), timestamp(span.last))));
+        BitSet inserted = readBack(firstId, unique.size(), bounds);
+
+        if (inserted.cardinality() == unique.size()) return unique;
+        List<Tick> fresh = new ArrayList<>(inserted.cardinality());
+        for (int i = inserted.nextSetBit(0); i >= 0; i = inserted.nextSetBit(i + 1)) {
+            fresh.add(unique.get(i));
+        }
+        return fresh;
+    }
+
+    /**
+     * Which of the {@code count} ids from {@code firstId} were stored, as
+     * offsets from {@code firstId}. The driver reports no per-row counts for
+     * rewritten batches, so the ids are read back instead: only rows that went
+     * in carry one of them. Each symbol's time span bounds its lookup to one
+     * index range.
+     */
+    private BitSet readBack(long firstId, int count, List<Span> spans) {
+        BitSet inserted = new BitSet(count);
+        for (int from = 0; from < spans.size(); from += LOOKUP_SYMBOLS) {
+            List<Span> chunk = spans.subList(from, Math.min(spans.size(), from + LOOKUP_SYMBOLS));
+            StringBuilder sql = new StringBuilder(
+                    "SELECT id FROM historical_stock_prices WHERE id >= ? AND id < ? AND (");
+            List<Object> args = new ArrayList<>(2 + chunk.size() * 3);
+            args.add(firstId);
+            args.add(firstId + count);
+            for (int i = 0; i < chunk.size(); i++) {
+                if (i > 0) sql.append(" OR ");
+                sql.append("(symbol = ? AND timestamp BETWEEN ? AND ?)");
+                args.add(chunk.get(i).symbol());
+                args.add(chunk.get(i).first());
+                args.add(chunk.get(i).last());
+            }
+            sql.append(')');
+            jdbcTemplate.query(sql.toString(), rs -> {
+                inserted.set((int) (rs.getLong(1) - firstId));
+            }, args.toArray());
+        }
+        return inserted;
+    }
+
+    // Same instant as Timestamp.valueOf(Timestamps.fromEpochMicros(epochMicros))
+    private static Timestamp timestamp(long epochMicros) {
+        Timestamp timestamp = new Timestamp(Math.floorDiv(epochMicros, 1000L));
+        timestamp.setNanos((int) Math.floorMod(epochMicros, 1_000_000L) * 1000);
+        return timestamp;
+    }
+
+    // The symbol column uses a case-insensitive collation
+    private static String normalize(String symbol) {
+        return symbol.toUpperCase(Locale.ROOT);
+    }
+
+    private record RowKey(String symbol, LocalDateTime timestamp) {
+    }
+
+    private record TickKey(String symbol, long epochMicros) {
+    }
+
+    private record Span(String symbol, Timestamp first, Timestamp last) {
+    }
+
+    private static final class TickSpan {
+        private boolean empty = true;
+        private long first;
+        private long last;
+    }
+
+    /**
+     * Returns the first of {@code count} consecutive ids no Hibernate pool can
+     * hand out. A pool fetched from stored value {@code v} covers at most
+     * {@code (v - ALLOCATION_SIZE, v + ALLOCATION_SIZE)} for either pooled
+     * optimizer, so advancing the value by {@code count + ALLOCATION_SIZE}
+     * leaves {@code [v, v + count)} to this caller.
+     */
+    private long reserveIds(int count) {
+        Long firstId = reservation.execute(status -> {
+            List<Long> current = jdbcTemplate.queryForList(
+                    "SELECT next_value FROM id_generators WHERE generator_name = ? FOR UPDATE", Long.class, GENERATOR);
+            if (current.isEmpty() || current.get(0) == null) {
+                jdbcTemplate.update("INSERT INTO id_generators (generator_name, next_value) VALUES (?, ?)",
+                        GENERATOR, 1L + count + ALLOCATION_SIZE);
+                return 1L;
+            }
+            long value = current.get(0);
+            jdbcTemplate.update("UPDATE id_generators SET next_value = ? WHERE generator_name = ?",
+                    value + count + ALLOCATION_SIZE, GENERATOR);
+            return value;
+        });
+        return firstId;
+    }
+}
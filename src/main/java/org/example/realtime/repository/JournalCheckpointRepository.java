@@ -0,0 +1,31 @@
+package org.example.realtime.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class JournalCheckpointRepository {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO journal_checkpoints (journal_name, position, updated_at) VALUES (?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE position = VALUES(position), updated_at = VALUES(updated_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 0 for a journal that has never been drained
+    public long findPosition(String journalName) {
+        List<Long> positions = jdbcTemplate.queryForList(
+                "SELECT position FROM journal_checkpoints WHERE journal_name = ?", Long.class, journalName);
+        return positions.isEmpty() ? 0L : positions.get(0);
+    }
+
+    public void savePosition(String journalName, long position) {
+        jdbcTemplate.update(UPSERT_SQL, journalName, position, Timestamp.valueOf(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.realtime.repository;
+
+import org.example.realtime.model.BarResolution;
+import org.example.realtime.model.PriceBar;
+import org.example.realtime.model.PriceBarId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PriceBarRepository extends JpaRepository<PriceBar, PriceBarId>, PriceBarRepositoryCustom {
+
+    List<PriceBar> findBySymbolAndResolutionAndBucketStartBetweenOrderByBucketStartAsc(
+        String symbol, BarResolution resolution, LocalDateTime start, LocalDateTime end);
+
+    List<PriceBar> findBySymbolAndResolutionOrderByBucketStartDesc(
+        String symbol, BarResolution resolution, Pageable pageable);
+}
@@ -0,0 +1,14 @@
+package org.example.realtime.repository;
+
+import org.example.realtime.model.PriceBar;
+
+import java.util.Collection;
+
+public interface PriceBarRepositoryCustom {
+
+    /**
+     * Merges partial bars into stored ones: keeps the stored open, widens
+     * high/low, replaces close and adds volume, turnover and tick count.
+     */
+    void upsertAll(Collection<PriceBar> bars);
+}
@@ -0,0 +1,47 @@
+package org.example.realtime.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.realtime.model.PriceBar;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class PriceBarRepositoryCustomImpl implements PriceBarRepositoryCustom {
+
+    // Assignments apply left to right, so open and close are compared with the
+    // stored tick times before those are moved
+    private static final String UPSERT_SQL =
+            "INSERT INTO price_bars (symbol, resolution, bucket_start, open_price, high_price, low_price, "
+                    + "close_price, volume, turnover, tick_count, first_tick_at, last_tick_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE "
+                    + "open_price = IF(VALUES(first_tick_at) < first_tick_at, VALUES(open_price), open_price), "
+                    + "first_tick_at = LEAST(first_tick_at, VALUES(first_tick_at)), "
+                    + "close_price = IF(VALUES(last_tick_at) >= last_tick_at, VALUES(close_price), close_price), "
+                    + "last_tick_at = GREATEST(last_tick_at, VALUES(last_tick_at)), "
+                    + "high_price = GREATEST(high_price, VALUES(high_price)), "
+                    + "low_price = LEAST(low_price, VALUES(low_price)), "
+                    + "volume = volume + VALUES(volume), turnover = turnover + VALUES(turnover), "
+                    + "tick_count = tick_count + VALUES(tick_count)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void upsertAll(Collection<PriceBar> bars) {
+        if (bars.isEmpty()) return;
+        List<Object[]> args = new ArrayList<>(bars.size());
+        for (PriceBar bar : bars) {
+            args.add(new Object[] {
+                    bar.getSymbol(), bar.getResolution().name(), Timestamp.valueOf(bar.getBucketStart()),
+                    bar.getOpenPrice(), bar.getHighPrice(), bar.getLowPrice(), bar.getClosePrice(),
+                    bar.getVolume(), bar.getTurnover(), bar.getTickCount(),
+                    Timestamp.valueOf(bar.getFirstTickAt()), Timestamp.valueOf(bar.getLastTickAt())
+            });
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, args);
+    }
+}
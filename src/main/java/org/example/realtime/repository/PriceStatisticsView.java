@@ -0,0 +1,22 @@
+package org.example.realtime.repository;
+
+// Row of HistoricalStockPriceRepository.calculateStatistics, mapped by column alias
+public interface PriceStatisticsView {
+    String getSymbol();
+
+    Long getCount();
+
+    Double getAverage();
+
+    Double getMin();
+
+    Double getMax();
+
+    Double getStddev();
+
+    Double getVwap();
+
+    Double getFirst();
+
+    Double getLast();
+}
@@ -0,0 +1,106 @@
+package org.example.realtime.serialization;
+
+import org.example.realtime.analysis.Timestamps;
+import org.example.realtime.model.StockPrice;
+import org.example.realtime.model.Tick;
+import org.example.realtime.symbol.SymbolDictionary;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Fixed-layout binary encoding of {@link StockPrice}.
+ *
+ * <pre>
+ * version:u8 | symbolLength:u8 | symbol:utf8 | epochNanos:i64
+ * | price | volume | change | changePercent | high | low | open | previousClose  (f64 each)
+ * </pre>
+ *
+ * New fields must be appended and guarded by a new version so older records
+ * stay readable. The version byte also tells binary records from legacy JSON
+ * ones, which are objects and always start with '{': a version must never
+ * take that value, and a version this build does not know is rejected rather
+ * than read as JSON.
+ */
+public final class StockPriceCodec {
+
+    public static final byte VERSION_1 = 1;
+    private static final byte JSON_OBJECT = '{';
+    private static final int FIXED_BYTES = 2 + Long.BYTES + 8 * Double.BYTES;
+
+    private StockPriceCodec() {
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data.length > 0 && data[0] != JSON_OBJECT;
+    }
+
+    public static byte[] encode(StockPrice stock) {
+        byte[] symbol = stock.getSymbol().getBytes(StandardCharsets.UTF_8);
+        if (symbol.length > 255) {
+            throw new IllegalArgumentException("Symbol too long: " + stock.getSymbol());
+        }
+        LocalDateTime timestamp = stock.getTimestamp() != null ? stock.getTimestamp() : LocalDateTime.now();
+
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_BYTES + symbol.length);
+        buffer.put(VERSION_1);
+        buffer.put((byte) symbol.length);
+        buffer.put(symbol);
+        buffer.putLong(Timestamps.toEpochNanos(timestamp));
+        buffer.putDouble(stock.getPrice());
+        buffer.putDouble(stock.getVolume());
+        buffer.putDouble(stock.getChange());
+        buffer.putDouble(stock.getChangePercent());
+        buffer.putDouble(stock.getHigh());
+        buffer.putDouble(stock.getLow());
+        buffer.putDouble(stock.getOpen());
+        buffer.putDouble(stock.getPreviousClose());
+        return buffer.array();
+    }
+
+    public static StockPrice decode(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        checkVersion(buffer.get());
+        int symbolLength = Byte.toUnsignedInt(buffer.get());
+        String symbol = new String(data, buffer.position(), symbolLength, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + symbolLength);
+
+        StockPrice stock = new StockPrice();
+        stock.setSymbol(symbol);
+        stock.setTimestamp(Timestamps.fromEpochNanos(buffer.getLong()));
+        stock.setPrice(buffer.getDouble());
+        stock.setVolume(buffer.getDouble());
+        stock.setChange(buffer.getDouble());
+        stock.setChangePercent(buffer.getDouble());
+        stock.setHigh(buffer.getDouble());
+        stock.setLow(buffer.getDouble());
+        stock.setOpen(buffer.getDouble());
+        stock.setPreviousClose(buffer.getDouble());
+        return stock;
+    }
+
+    /**
+     * Decodes only the fields the consumers use, resolving the symbol through
+     * {@code symbols} so a known symbol costs no String allocation.
+     */
+    public static Tick decodeTick(byte[] data, SymbolDictionary symbols) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        checkVersion(buffer.get());
+        int symbolLength = Byte.toUnsignedInt(buffer.get());
+        int symbolId = symbols.intern(data, buffer.position(), symbolLength);
+        buffer.position(buffer.position() + symbolLength);
+
+        long epochMicros = Math.floorDiv(buffer.getLong(), 1000L);
+        double price = buffer.getDouble();
+        double volume = buffer.getDouble();
+        return new Tick(symbolId, epochMicros, price, volume);
+    }
+
+    private static void checkVersion(byte version) {
+        if (version != VERSION_1) {
+            throw new IllegalArgumentException("Unsupported StockPrice encoding version: "
+                    + Byte.toUnsignedInt(version));
+        }
+    }
+}
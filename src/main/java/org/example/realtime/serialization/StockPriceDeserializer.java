@@ -0,0 +1,32 @@
+package org.example.realtime.serialization;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.example.realtime.model.StockPrice;
+
+/**
+ * Reads both the binary layout and legacy JSON records, so consumers can be
+ * upgraded before producers switch format.
+ */
+public class StockPriceDeserializer implements Deserializer<StockPrice> {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @Override
+    public StockPrice deserialize(String topic, byte[] data) {
+        if (data == null) return null;
+        try {
+            if (StockPriceCodec.isBinary(data)) {
+                return StockPriceCodec.decode(data);
+            }
+            return objectMapper.readValue(data, StockPrice.class);
+        } catch (Exception e) {
+            throw new SerializationException("Failed to deserialize StockPrice from " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.realtime.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+import org.example.realtime.model.StockPrice;
+
+import java.util.Map;
+
+/**
+ * Writes {@link StockPrice} as binary or JSON depending on the
+ * {@value #FORMAT_CONFIG} producer property ({@code binary} by default).
+ */
+public class StockPriceSerializer implements Serializer<StockPrice> {
+
+    public static final String FORMAT_CONFIG = "stock.serialization.format";
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private boolean binary = true;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object format = configs.get(FORMAT_CONFIG);
+        if (format != null) {
+            binary = !"json".equalsIgnoreCase(format.toString().trim());
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, StockPrice data) {
+        if (data == null) return null;
+        if (binary) {
+            return StockPriceCodec.encode(data);
+        }
+        try {
+            return objectMapper.writeValueAsBytes(data);
+        } catch (Exception e) {
+            throw new SerializationException("Failed to serialize " + data.getSymbol(), e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.realtime.serialization;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.example.realtime.analysis.Timestamps;
+import org.example.realtime.model.StockPrice;
+import org.example.realtime.model.Tick;
+import org.example.realtime.symbol.SymbolDictionary;
+
+import java.time.LocalDateTime;
+
+/**
+ * Decodes stock-prices records straight into {@link Tick}. Binary records skip
+ * the intermediate {@link StockPrice}; legacy JSON records still go through it.
+ */
+public class TickDeserializer implements Deserializer<Tick> {
+
+    private final SymbolDictionary symbols;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    public TickDeserializer(SymbolDictionary symbols) {
+        this.symbols = symbols;
+    }
+
+    @Override
+    public Tick deserialize(String topic, byte[] data) {
+        if (data == null) return null;
+        try {
+            if (StockPriceCodec.isBinary(data)) {
+                return StockPriceCodec.decodeTick(data, symbols);
+            }
+            StockPrice stock = objectMapper.readValue(data, StockPrice.class);
+            LocalDateTime timestamp = stock.getTimestamp() != null ? stock.getTimestamp() : LocalDateTime.now();
+            return new Tick(symbols.intern(stock.getSymbol()), Timestamps.toEpochMicros(timestamp),
+                    stock.getPrice(), stock.getVolume());
+        } catch (Exception e) {
+            throw new SerializationException("Failed to deserialize Tick from " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.realtime.serialization;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.realtime.analysis.Timestamps;
+import org.example.realtime.model.Tick;
+import org.example.realtime.symbol.SymbolDictionary;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Parses one line of a backfill file into a {@link Tick}. Thread-safe, so
+ * chunks of a file can be parsed in parallel.
+ * <ul>
+ *   <li>{@code csv}: {@code symbol,timestamp,price,volume}; the timestamp is an
+ *       ISO local date-time or epoch milliseconds. A header line is skipped.</li>
+ *   <li>{@code ndjson}: one JSON object per line with {@code symbol},
+ *       {@code price}, {@code volume} and {@code timestamp}, as written by the
+ *       /api/historical range stream or carried on the topic as JSON.</li>
+ * </ul>
+ */
+public class TickTextParser {
+
+    public static final String CSV = "csv";
+    public static final String NDJSON = "ndjson";
+
+    private final SymbolDictionary symbols;
+    private final boolean csv;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    public TickTextParser(SymbolDictionary symbols, String format) {
+        if (!CSV.equals(format) && !NDJSON.equals(format)) {
+            throw new IllegalArgumentException("Unsupported format: " + format);
+        }
+        this.symbols = symbols;
+        this.csv = CSV.equals(format);
+    }
+
+    /**
+     * @return the tick, or null for blank and header lines
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    public Tick parse(String line) {
+        if (line.isBlank()) return null;
+        return csv ? parseCsv(line) : parseJson(line);
+    }
+
+    private Tick parseCsv(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length < 4) {
+            throw new IllegalArgumentException("Expected symbol,timestamp,price,volume: " + line);
+        }
+        String symbol = fields[0].trim();
+        if (symbol.equalsIgnoreCase("symbol")) return null;
+        if (symbol.isEmpty()) {
+            throw new IllegalArgumentException("Missing symbol: " + line);
+        }
+        String timestamp = fields[1].trim();
+        long epochMicros = !timestamp.isEmpty() && timestamp.chars().allMatch(Character::isDigit)
+                ? Long.parseLong(timestamp) * 1000L
+                : Timestamps.toEpochMicros(LocalDateTime.parse(timestamp));
+        return new Tick(symbols.intern(symbol), epochMicros,
+                Double.parseDouble(fields[2].trim()), Double.parseDouble(fields[3].trim()));
+    }
+
+    private Tick parseJson(String line) {
+        JsonTick row;
+        try {
+            row = objectMapper.readValue(line, JsonTick.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed JSON line: " + line, e);
+        }
+        if (row.symbol == null || row.symbol.isBlank() || row.timestamp == null || row.price == null) {
+            throw new IllegalArgumentException("Expected symbol, timestamp and price: " + line);
+        }
+        return new Tick(symbols.intern(row.symbol), Timestamps.toEpochMicros(row.timestamp),
+                row.price, row.volume != null ? row.volume : 0.0);
+    }
+
+    // Only the fields a tick needs; StockPrice would default a missing timestamp to now
+    private static final class JsonTick {
+        public String symbol;
+        public Double price;
+        public Double volume;
+        public LocalDateTime timestamp;
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.realtime.serialization;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+import org.example.realtime.model.WindowAggregate;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-layout binary serde for {@link WindowAggregate} state store values.
+ *
+ * <pre>
+ * version:u8 | open | high | low | close | volume | turnover  (f64 each)
+ * | tickCount | firstTimestamp | lastTimestamp  (i64 each)
+ * </pre>
+ */
+public class WindowAggregateSerde implements Serde<WindowAggregate> {
+
+    private static final byte VERSION_1 = 1;
+    private static final int BYTES = 1 + 6 * Double.BYTES + 3 * Long.BYTES;
+
+    @Override
+    public Serializer<WindowAggregate> serializer() {
+        return (topic, aggregate) -> {
+            if (aggregate == null) return null;
+            return ByteBuffer.allocate(BYTES)
+                    .put(VERSION_1)
+                    .putDouble(aggregate.getOpenPrice())
+                    .putDouble(aggregate.getHighPrice())
+                    .putDouble(aggregate.getLowPrice())
+                    .putDouble(aggregate.getClosePrice())
+                    .putDouble(aggregate.getVolume())
+                    .putDouble(aggregate.getTurnover())
+                    .putLong(aggregate.getTickCount())
+                    .putLong(aggregate.getFirstTimestamp())
+                    .putLong(aggregate.getLastTimestamp())
+                    .array();
+        };
+    }
+
+    @Override
+    public Deserializer<WindowAggregate> deserializer() {
+        return (topic, data) -> {
+            if (data == null) return null;
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            byte version = buffer.get();
+            if (version != VERSION_1 || data.length != BYTES) {
+                throw new SerializationException("Unsupported WindowAggregate encoding version: " + version);
+            }
+            return new WindowAggregate(buffer.getDouble(), buffer.getDouble(), buffer.getDouble(),
+                    buffer.getDouble(), buffer.getDouble(), buffer.getDouble(),
+                    buffer.getLong(), buffer.getLong(), buffer.getLong());
+        };
+    }
+}
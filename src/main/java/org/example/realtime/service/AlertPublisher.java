@@ -0,0 +1,54 @@
+package org.example.realtime.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.example.realtime.model.Alert;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Writes fired alerts to the alerts topic as JSON keyed by symbol. The
+ * template is private to this class: registering a second KafkaTemplate bean
+ * would switch off Boot's auto-configured one.
+ */
+@Slf4j
+@Service
+public class AlertPublisher {
+
+    private final DefaultKafkaProducerFactory<String, Alert> producerFactory;
+    private final KafkaTemplate<String, Alert> kafkaTemplate;
+    private final String topic;
+
+    public AlertPublisher(KafkaProperties kafkaProperties,
+                          ObjectMapper objectMapper,
+                          @Value("${alerting.topic.name:stock-alerts}") String topic) {
+        Map<String, Object> config = kafkaProperties.buildProducerProperties(null);
+        config.remove(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG);
+        JsonSerializer<Alert> serializer = new JsonSerializer<Alert>(objectMapper).noTypeInfo();
+        this.producerFactory = new DefaultKafkaProducerFactory<>(config, new StringSerializer(), serializer);
+        this.kafkaTemplate = new KafkaTemplate<>(producerFactory);
+        this.topic = topic.trim();
+    }
+
+    public void publish(Alert alert) {
+        kafkaTemplate.send(topic, alert.getSymbol(), alert).whenComplete((result, e) -> {
+            if (e != null) {
+                log.warn("Failed to publish alert for rule {}: {}", alert.getRuleId(), e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        producerFactory.destroy();
+    }
+}
@@ -0,0 +1,313 @@
+package org.example.realtime.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.example.realtime.analysis.IndicatorState;
+import org.example.realtime.analysis.SlidingWindow;
+import org.example.realtime.analysis.Timestamps;
+import org.example.realtime.config.KafkaConfig;
+import org.example.realtime.metrics.PipelineMetrics;
+import org.example.realtime.model.Alert;
+import org.example.realtime.model.AlertDirection;
+import org.example.realtime.model.AlertRule;
+import org.example.realtime.model.AlertRuleType;
+import org.example.realtime.model.Tick;
+import org.example.realtime.repository.AlertRuleRepository;
+import org.example.realtime.symbol.SymbolDictionary;
+import org.example.realtime.symbol.SymbolTable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evaluates user-defined alert rules against the live tick stream in its own
+ * consumer group, next to StockConsumerService. Rules are indexed by symbol,
+ * so a tick only costs the rules of its own symbol, and each rule reads
+ * incrementally maintained window state instead of querying history. Rules
+ * are reloaded periodically, so changes made through another instance take
+ * effect here within {@code alerting.rule-reload-ms}. Symbols are matched
+ * case-insensitively, like the symbol columns.
+ */
+@Slf4j
+@Service
+public class AlertingService {
+
+    // Fewer returns than this make the standard deviation too noisy to score against
+    private static final int MIN_ZSCORE_RETURNS = 10;
+
+    private final AlertRuleRepository repository;
+    private final AlertPublisher publisher;
+    private final SymbolDictionary symbols;
+    private final PipelineMetrics metrics;
+    private final int rsiPeriod;
+    private final long cooldownMillis;
+    private final int maxWindowMinutes;
+
+    // Immutable snapshot, replaced whenever rules change
+    private volatile Map<String, List<AlertRule>> rulesBySymbol = Map.of();
+    // Orders concurrent reloads so an older rule set never replaces a newer one
+    private final AtomicLong reloads = new AtomicLong();
+    private long publishedReload;
+    private final SymbolTable<SymbolState> states = new SymbolTable<>();
+
+    public AlertingService(AlertRuleRepository repository,
+                           AlertPublisher publisher,
+                           SymbolDictionary symbols,
+                           PipelineMetrics metrics,
+                           @Value("${indicator.rsi-period:14}") int rsiPeriod,
+                           @Value("${alerting.cooldown-seconds:300}") long cooldownSeconds,
+                           @Value("${alerting.max-window-minutes:1440}") int maxWindowMinutes) {
+        this.repository = repository;
+        this.publisher = publisher;
+        this.symbols = symbols;
+        this.metrics = metrics;
+        this.rsiPeriod = rsiPeriod;
+        this.cooldownMillis = cooldownSeconds * 1000;
+        this.maxWindowMinutes = maxWindowMinutes;
+    }
+
+    @PostConstruct
+    void loadRules() {
+        reindex();
+    }
+
+    public List<AlertRule> getRules(String symbol) {
+        return symbol != null ? repository.findBySymbolOrderByIdAsc(normalize(symbol)) : repository.findAll();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the rule is incomplete or out of range
+     */
+    public AlertRule createRule(AlertRule rule) {
+        validate(rule);
+        rule.setId(null);
+        rule.setSymbol(normalize(rule.getSymbol()));
+        rule.setCreatedAt(LocalDateTime.now());
+        AlertRule saved = repository.save(rule);
+        reindex();
+        return saved;
+    }
+
+    public boolean deleteRule(long id) {
+        AlertRule rule = repository.findById(id).orElse(null);
+        if (rule == null) return false;
+        repository.delete(rule);
+        reindex();
+        return true;
+    }
+
+    // Picks up rules created or deleted through other instances
+    @Scheduled(fixedDelayString = "${alerting.rule-reload-ms:30000}",
+            initialDelayString = "${alerting.rule-reload-ms:30000}")
+    public void reloadRules() {
+        try {
+            reindex();
+        } catch (Exception e) {
+            log.warn("Failed to reload alert rules: {}", e.getMessage());
+        }
+    }
+
+    @KafkaListener(topics = "${stock.topic.name:stock-prices}", groupId = "stock-alerting-group",
+            containerFactory = KafkaConfig.TICK_LISTENER_FACTORY,
+            concurrency = "${stock.topic.partitions:12}", autoStartup = "${alerting.enabled:true}")
+    public void consume(List<ConsumerRecord<String, Tick>> records) {
+        Map<String, List<AlertRule>> rules = rulesBySymbol;
+        for (ConsumerRecord<String, Tick> record : records) {
+            // Null when ErrorHandlingDeserializer could not decode the record
+            Tick tick = record.value();
+            if (tick == null) continue;
+            String symbol = symbols.symbol(tick.getSymbolId());
+            List<AlertRule> symbolRules = rules.get(normalize(symbol));
+            if (symbolRules == null) continue;
+            onTick(tick.getSymbolId(), symbol, symbolRules, tick.getEpochMillis(), tick.getPrice(), tick.getVolume());
+        }
+    }
+
+    // Drops window state of symbols that stopped ticking, e.g. after a rebalance.
+    // Idleness is measured on the wall clock when ticks arrive, not their event
+    // time, so a consumer catching up on a backlog keeps its state.
+    @Scheduled(fixedDelayString = "${alerting.idle-check-ms:600000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - maxWindowMinutes * 60_000L;
+        states.forEach((state, symbolId) -> {
+            if (state.lastReceivedMillis < cutoff) states.remove(symbolId, state);
+        });
+    }
+
+    private void onTick(int symbolId, String symbol, List<AlertRule> rules, long timestamp, double price, double volume) {
+        SymbolState state = states.computeIfAbsent(symbolId, key -> new SymbolState(rsiPeriod));
+        state.lastReceivedMillis = System.currentTimeMillis();
+        synchronized (state) {
+            if (timestamp <= state.lastTimestamp) return;
+            state.lastTimestamp = timestamp;
+
+            double previousRsi = state.indicators.isWarm() ? state.indicators.getRsi() : Double.NaN;
+            state.indicators.update(price, timestamp);
+            double rsi = state.indicators.isWarm() ? state.indicators.getRsi() : Double.NaN;
+
+            // Rules read the windows as of the previous tick, then the tick joins them
+            for (AlertRule rule : rules) {
+                if (rule.getType() != AlertRuleType.RSI_CROSS) {
+                    state.window(rule.getWindowMinutes()).evict(timestamp);
+                }
+            }
+            for (AlertRule rule : rules) {
+                SlidingWindow window = rule.getType() == AlertRuleType.RSI_CROSS ? null : state.window(rule.getWindowMinutes());
+                double value = evaluate(rule, window, price, volume, previousRsi, rsi);
+                if (Double.isNaN(value)) continue;
+                Long lastFired = state.lastFired.get(rule.getId());
+                if (lastFired != null && timestamp - lastFired < cooldownMillis) continue;
+                state.lastFired.put(rule.getId(), timestamp);
+                metrics.alertFired(rule.getType().name());
+                publisher.publish(new Alert(rule.getId(), symbol, rule.getType(), rule.getDirection(),
+                        rule.getThreshold(), value, price, Timestamps.fromEpochMillis(timestamp)));
+            }
+            for (SlidingWindow window : state.windows.values()) {
+                window.add(timestamp, price, volume);
+            }
+        }
+    }
+
+    // Observed value when the rule fires, NaN otherwise
+    private static double evaluate(AlertRule rule, SlidingWindow window, double price, double volume,
+                                   double previousRsi, double rsi) {
+        AlertDirection direction = rule.getDirection();
+        double threshold = rule.getThreshold();
+        switch (rule.getType()) {
+            case PERCENT_MOVE -> {
+                if (window.size() == 0) return Double.NaN;
+                double rise = (price - window.minPrice()) / window.minPrice() * 100;
+                double fall = (price - window.maxPrice()) / window.maxPrice() * 100;
+                if (direction.allowsUp() && rise >= threshold) return rise;
+                if (direction.allowsDown() && fall <= -threshold) return fall;
+                return Double.NaN;
+            }
+            case VOLUME_SPIKE -> {
+                double average = window.averageVolume();
+                if (!(average > 0)) return Double.NaN;
+                double multiple = volume / average;
+                return multiple >= threshold ? multiple : Double.NaN;
+            }
+            case RSI_CROSS -> {
+                if (Double.isNaN(previousRsi) || Double.isNaN(rsi)) return Double.NaN;
+                if (direction.allowsUp() && previousRsi < threshold && rsi >= threshold) return rsi;
+                if (direction.allowsDown() && previousRsi > threshold && rsi <= threshold) return rsi;
+                return Double.NaN;
+            }
+            case RETURN_ZSCORE -> {
+                double stdDev = window.returnStdDev();
+                double last = window.lastPrice();
+                if (window.returnCount() < MIN_ZSCORE_RETURNS || !(stdDev > 0) || !(last != 0)) return Double.NaN;
+                double z = ((price - last) / last - window.returnMean()) / stdDev;
+                if (direction.allowsUp() && z >= threshold) return z;
+                if (direction.allowsDown() && z <= -threshold) return z;
+                return Double.NaN;
+            }
+            default -> {
+                return Double.NaN;
+            }
+        }
+    }
+
+    private void validate(AlertRule rule) {
+        if (rule.getSymbol() == null || rule.getSymbol().isBlank()) {
+            throw new IllegalArgumentException("symbol is required");
+        }
+        if (rule.getSymbol().trim().length() > AlertRule.MAX_SYMBOL_LENGTH) {
+            throw new IllegalArgumentException(
+                    "symbol must be at most " + AlertRule.MAX_SYMBOL_LENGTH + " characters");
+        }
+        if (rule.getType() == null) {
+            throw new IllegalArgumentException("type is required");
+        }
+        if (rule.getDirection() == null) {
+            rule.setDirection(AlertDirection.BOTH);
+        }
+        if (rule.getType() == AlertRuleType.RSI_CROSS) {
+            if (rule.getThreshold() <= 0 || rule.getThreshold() >= 100) {
+                throw new IllegalArgumentException("RSI threshold must be between 0 and 100");
+            }
+            rule.setWindowMinutes(0);
+            return;
+        }
+        if (rule.getThreshold() <= 0) {
+            throw new IllegalArgumentException("threshold must be positive");
+        }
+        if (rule.getWindowMinutes() < 1 || rule.getWindowMinutes() > maxWindowMinutes) {
+            throw new IllegalArgumentException("windowMinutes must be between 1 and " + maxWindowMinutes);
+        }
+    }
+
+    // Loads the rules without holding the lock, then publishes them unless a
+    // reload that started later has already done so
+    private void reindex() {
+        long reload = reloads.incrementAndGet();
+        Map<String, List<AlertRule>> index = new HashMap<>();
+        for (AlertRule rule : repository.findAll()) {
+            // Rules stored before symbols were normalized may be in any case
+            index.computeIfAbsent(normalize(rule.getSymbol()), key -> new ArrayList<>()).add(rule);
+        }
+        index.replaceAll((symbol, rules) -> List.copyOf(rules));
+        synchronized (this) {
+            if (reload < publishedReload) return;
+            publishedReload = reload;
+            rulesBySymbol = Map.copyOf(index);
+        }
+        prune(index);
+    }
+
+    // Drops the windows and cooldowns no remaining rule uses. Windows for new
+    // spans start empty on the next tick; the rest of the symbol's state stays.
+    private void prune(Map<String, List<AlertRule>> index) {
+        states.forEach((state, symbolId) -> {
+            List<AlertRule> rules = index.getOrDefault(normalize(symbols.symbol(symbolId)), List.of());
+            Set<Integer> spans = new HashSet<>();
+            Set<Long> ids = new HashSet<>();
+            for (AlertRule rule : rules) {
+                if (rule.getType() != AlertRuleType.RSI_CROSS) spans.add(rule.getWindowMinutes());
+                ids.add(rule.getId());
+            }
+            synchronized (state) {
+                state.windows.keySet().retainAll(spans);
+                state.lastFired.keySet().retainAll(ids);
+            }
+        });
+    }
+
+    // Returns the same instance for symbols already in upper case, the usual
+    // form of ticks, so the per-tick lookup does not allocate
+    private static String normalize(String symbol) {
+        return symbol.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static final class SymbolState {
+
+        private final IndicatorState indicators;
+        // One window per distinct span, shared by every rule of the symbol using it
+        private final Map<Integer, SlidingWindow> windows = new HashMap<>();
+        private final Map<Long, Long> lastFired = new HashMap<>();
+        private volatile long lastTimestamp = Long.MIN_VALUE;
+        // Wall-clock arrival of the latest tick, for idle eviction
+        private volatile long lastReceivedMillis = System.currentTimeMillis();
+
+        private SymbolState(int rsiPeriod) {
+            this.indicators = new IndicatorState(rsiPeriod);
+        }
+
+        private SlidingWindow window(int minutes) {
+            return windows.computeIfAbsent(minutes, key -> new SlidingWindow(key * 60_000L));
+        }
+    }
+}
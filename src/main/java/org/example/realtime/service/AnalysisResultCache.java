@@ -0,0 +1,131 @@
+package org.example.realtime.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.realtime.metrics.PipelineMetrics;
+import org.example.realtime.symbol.SymbolDictionary;
+import org.example.realtime.symbol.SymbolTable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Caches analysis responses per (endpoint, symbol, parameters) and the
+ * symbol's data version at compute time. Ingest bumps the version on every
+ * tick, so a cached result is reused only while no new data arrived for its
+ * symbol and it is younger than the staleness budget. Concurrent requests for
+ * the same missing result wait for a single computation.
+ * <p>
+ * The last successful result per request also outlives its version for a
+ * while, so a request that runs out of time can still be answered with it.
+ */
+@Service
+public class AnalysisResultCache {
+
+    private final SymbolDictionary symbols;
+    private final SymbolTable<AtomicLong> versions = new SymbolTable<>();
+    // Entries of superseded versions are never hit again and age out by size or expiry
+    private final AsyncCache<Key, Object> results;
+    private final Cache<Request, Object> latest;
+
+    public AnalysisResultCache(SymbolDictionary symbols,
+                               PipelineMetrics metrics,
+                               @Value("${analysis.cache.max-size:10000}") long maxSize,
+                               @Value("${analysis.cache.max-stale-ms:2000}") long maxStaleMillis,
+                               @Value("${analysis.cache.fallback-max-age-ms:300000}") long fallbackMaxAgeMillis) {
+        this.symbols = symbols;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(maxStaleMillis))
+                .recordStats()
+                .buildAsync();
+        this.latest = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(fallbackMaxAgeMillis))
+                .recordStats()
+                .build();
+        metrics.monitorCache(results.synchronous(), "analysis-results");
+        metrics.monitorCache(latest, "analysis-fallback");
+    }
+
+    /**
+     * Marks every cached result of the symbol as outdated.
+     */
+    public void invalidate(int symbolId) {
+        versions.computeIfAbsent(symbolId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Returns the cached result or runs {@code computation} on {@code executor}.
+     * A cached result is an already completed future, so hits never leave the
+     * calling thread. Failures are not cached and fail every waiting caller;
+     * if the executor rejects the work, the future fails with its
+     * {@link java.util.concurrent.RejectedExecutionException}. Results that
+     * fail {@code cacheable} reach the waiting callers but are neither cached
+     * nor kept as the fallback.
+     * <p>
+     * The returned future is shared with concurrent callers; use
+     * {@link CompletableFuture#copy()} before completing or timing it out.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> get(String endpoint, String symbol, List<Object> parameters,
+                                        Executor executor, Supplier<T> computation,
+                                        Predicate<? super T> cacheable) {
+        Request request = new Request(endpoint, symbol, parameters);
+        // Read before computing: a tick arriving mid-computation leaves this entry behind
+        Key key = new Key(request, version(symbol));
+        CompletableFuture<Object> pending = new CompletableFuture<>();
+        CompletableFuture<Object> existing = results.asMap().putIfAbsent(key, pending);
+        if (existing != null) {
+            return (CompletableFuture<T>) existing;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    T result = computation.get();
+                    if (cacheable.test(result)) {
+                        latest.put(request, result);
+                    } else {
+                        results.asMap().remove(key, pending);
+                    }
+                    pending.complete(result);
+                } catch (Throwable e) {
+                    results.asMap().remove(key, pending);
+                    pending.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            results.asMap().remove(key, pending);
+            pending.completeExceptionally(e);
+        }
+        return (CompletableFuture<T>) pending;
+    }
+
+    /**
+     * Returns the last successful result of this request regardless of newer
+     * data, or null if none was computed within the fallback age.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T latest(String endpoint, String symbol, List<Object> parameters) {
+        return (T) latest.getIfPresent(new Request(endpoint, symbol, parameters));
+    }
+
+    private long version(String symbol) {
+        AtomicLong version = versions.get(symbols.idOf(symbol));
+        return version != null ? version.get() : 0L;
+    }
+
+    private record Request(String endpoint, String symbol, List<Object> parameters) {
+    }
+
+    private record Key(Request request, long version) {
+    }
+}
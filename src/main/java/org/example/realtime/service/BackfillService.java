@@ -0,0 +1,466 @@
+package org.example.realtime.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.example.realtime.analysis.Timestamps;
+import org.example.realtime.metrics.LogSampler;
+import org.example.realtime.model.BackfillJob;
+import org.example.realtime.model.BackfillMode;
+import org.example.realtime.model.BackfillRequest;
+import org.example.realtime.model.BackfillSource;
+import org.example.realtime.model.BackfillStatus;
+import org.example.realtime.model.HistoricalStockPrice;
+import org.example.realtime.model.Tick;
+import org.example.realtime.serialization.TickDeserializer;
+import org.example.realtime.serialization.TickTextParser;
+import org.example.realtime.symbol.SymbolDictionary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rebuilds history from local files or a replayed offset range of the
+ * stock-prices topic. Jobs run one at a time on a dedicated thread.
+ * <p>
+ * Files are read sequentially and parsed in parallel chunks, which are written
+ * back in file order. LOAD bulk-inserts ticks and merges their bars; REPLAY
+ * writes them the same way as they come due, optionally paced at a multiple
+ * of their original speed. Both skip ticks already stored, so a job can be
+ * rerun over an overlapping range.
+ * <p>
+ * Neither feeds the tick store, indicators or quote stream. Those only accept
+ * ticks newer than the last one seen, and historical ticks must not reach
+ * live subscribers; windows the tick store does not cover are read from the
+ * database, which has the backfilled rows.
+ */
+@Slf4j
+@Service
+public class BackfillService {
+
+    private static final long PACE_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private final HistoricalDataService historicalDataService;
+    private final AnalysisResultCache analysisResultCache;
+    private final SymbolDictionary symbols;
+    private final KafkaProperties kafkaProperties;
+    private final String topic;
+    private final Path directory;
+    private final int parallelism;
+    private final int chunkSize;
+    private final long progressIntervalMillis;
+    private final int historySize;
+    private final LogSampler failureLog;
+
+    private final ExecutorService runner;
+    private final ExecutorService parsers;
+    private final AtomicLong jobIds = new AtomicLong();
+    // Insertion ordered so the oldest finished jobs are dropped first
+    private final Map<Long, BackfillJob> jobs = new LinkedHashMap<>();
+
+    public BackfillService(HistoricalDataService historicalDataService,
+                           AnalysisResultCache analysisResultCache,
+                           SymbolDictionary symbols,
+                           KafkaProperties kafkaProperties,
+                           @Value("${stock.topic.name:stock-prices}") String topic,
+                           @Value("${backfill.directory:./data/backfill}") String directory,
+                           @Value("${backfill.parallelism:0}") int parallelism,
+                           @Value("${backfill.chunk-size:10000}") int chunkSize,
+                           @Value("${backfill.progress-interval-ms:5000}") long progressIntervalMillis,
+                           @Value("${backfill.history-size:50}") int historySize,
+                           @Value("${pipeline.log.sample-every:1000}") long logSampleEvery) {
+        this.historicalDataService = historicalDataService;
+        this.analysisResultCache = analysisResultCache;
+        this.symbols = symbols;
+        this.kafkaProperties = kafkaProperties;
+        this.topic = topic.trim();
+        this.directory = Path.of(directory).toAbsolutePath().normalize();
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.chunkSize = chunkSize;
+        this.progressIntervalMillis = progressIntervalMillis;
+        this.historySize = historySize;
+        this.failureLog = new LogSampler(logSampleEvery);
+        this.runner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "backfill-runner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadIds = new AtomicInteger();
+        this.parsers = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "backfill-parse-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a backfill and returns its job.
+     *
+     * @throws IllegalArgumentException if the request is incomplete or the file is not readable
+     */
+    public BackfillJob start(BackfillRequest request) {
+        validate(request);
+        BackfillJob job = new BackfillJob(jobIds.incrementAndGet(), request);
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+            trimHistory();
+        }
+        runner.execute(() -> run(job));
+        return job;
+    }
+
+    public Optional<BackfillJob> getJob(long id) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(id));
+        }
+    }
+
+    public List<BackfillJob> getJobs() {
+        synchronized (jobs) {
+            return new ArrayList<>(jobs.values());
+        }
+    }
+
+    public boolean cancel(long id) {
+        BackfillJob job = getJob(id).orElse(null);
+        if (job == null) return false;
+        job.cancel();
+        return true;
+    }
+
+    private void run(BackfillJob job) {
+        if (job.isCancelRequested()) {
+            job.finish(BackfillStatus.CANCELLED, null);
+            return;
+        }
+        job.start();
+        BackfillRequest request = job.getRequest();
+        log.info("Backfill {} started: {} {} {}", job.getId(), request.getMode(), request.getSource(),
+                request.getSource() == BackfillSource.FILE ? request.getPath() : topic);
+        Sink sink = new Sink(job);
+        try {
+            if (request.getSource() == BackfillSource.FILE) {
+                runFile(job, sink);
+            } else {
+                runKafka(job, sink);
+            }
+            job.finish(job.isCancelRequested() ? BackfillStatus.CANCELLED : BackfillStatus.COMPLETED, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(BackfillStatus.CANCELLED, "Interrupted");
+        } catch (Exception e) {
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            log.error("Backfill {} failed", job.getId(), cause);
+            job.finish(BackfillStatus.FAILED, cause.getMessage());
+        }
+        log.info("Backfill {} {}: {} ticks written, {} read, {} unparseable, {} ticks/s", job.getId(),
+                job.getStatus(), job.getTicksWritten(), job.getTicksRead(), job.getParseFailures(),
+                Math.round(job.getTicksPerSecond()));
+    }
+
+    private void runFile(BackfillJob job, Sink sink) throws Exception {
+        BackfillRequest request = job.getRequest();
+        TickTextParser parser = new TickTextParser(symbols, formatOf(request));
+        Deque<Future<List<Tick>>> pending = new ArrayDeque<>();
+        try (BufferedReader reader = Files.newBufferedReader(resolve(request.getPath()))) {
+            List<String> lines = new ArrayList<>(chunkSize);
+            String line;
+            while (!job.isCancelRequested() && (line = reader.readLine()) != null) {
+                lines.add(line);
+                if (lines.size() == chunkSize) {
+                    pending.add(parsers.submit(parseTask(job, parser, lines)));
+                    lines = new ArrayList<>(chunkSize);
+                    // Bounded read-ahead; chunks are written in file order
+                    if (pending.size() >= parallelism * 2) {
+                        sink.accept(pending.poll().get());
+                    }
+                }
+            }
+            if (!lines.isEmpty()) {
+                pending.add(parsers.submit(parseTask(job, parser, lines)));
+            }
+            while (!job.isCancelRequested() && !pending.isEmpty()) {
+                sink.accept(pending.poll().get());
+            }
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private Callable<List<Tick>> parseTask(BackfillJob job, TickTextParser parser, List<String> lines) {
+        return () -> {
+            List<Tick> ticks = new ArrayList<>(lines.size());
+            for (String line : lines) {
+                try {
+                    Tick tick = parser.parse(line);
+                    if (tick != null) ticks.add(tick);
+                } catch (RuntimeException e) {
+                    job.getFailed().incrementAndGet();
+                    if (failureLog.sample()) {
+                        log.warn("Backfill {} skipped a line: {}", job.getId(), e.getMessage());
+                    }
+                }
+            }
+            job.getRead().addAndGet(ticks.size());
+            return ticks;
+        };
+    }
+
+    private void runKafka(BackfillJob job, Sink sink) throws InterruptedException {
+        BackfillRequest request = job.getRequest();
+        Map<String, Object> config = kafkaProperties.buildConsumerProperties(null);
+        // Partitions are assigned manually and no offsets are committed, so the
+        // replay never disturbs the live consumer groups
+        config.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        try (KafkaConsumer<String, Tick> consumer = new KafkaConsumer<>(config, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(new TickDeserializer(symbols)))) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (PartitionInfo info : consumer.partitionsFor(topic)) {
+                if (request.getFromOffsets() == null && request.getToOffsets() == null
+                        || containsPartition(request, info.partition())) {
+                    partitions.add(new TopicPartition(topic, info.partition()));
+                }
+            }
+            Map<TopicPartition, Long> beginning = consumer.beginningOffsets(partitions);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+            Map<TopicPartition, Long> from = new HashMap<>();
+            Map<TopicPartition, Long> until = new HashMap<>();
+            for (TopicPartition partition : partitions) {
+                long first = Math.max(beginning.get(partition), offset(request.getFromOffsets(), partition, 0L));
+                long last = Math.min(end.get(partition), offset(request.getToOffsets(), partition, Long.MAX_VALUE));
+                if (first < last) {
+                    from.put(partition, first);
+                    until.put(partition, last);
+                }
+            }
+            consumer.assign(until.keySet());
+            from.forEach(consumer::seek);
+
+            while (!until.isEmpty() && !job.isCancelRequested()) {
+                ConsumerRecords<String, Tick> records = consumer.poll(Duration.ofMillis(500));
+                List<Tick> ticks = new ArrayList<>(records.count());
+                for (TopicPartition partition : records.partitions()) {
+                    Long limit = until.get(partition);
+                    if (limit == null) continue;
+                    for (ConsumerRecord<String, Tick> record : records.records(partition)) {
+                        if (record.offset() >= limit) break;
+                        // Null when ErrorHandlingDeserializer could not decode the record
+                        if (record.value() != null) {
+                            ticks.add(record.value());
+                        } else {
+                            job.getFailed().incrementAndGet();
+                        }
+                    }
+                }
+                job.getRead().addAndGet(ticks.size());
+                sink.accept(ticks);
+                until.entrySet().removeIf(entry -> {
+                    if (consumer.position(entry.getKey()) < entry.getValue()) return false;
+                    consumer.pause(List.of(entry.getKey()));
+                    return true;
+                });
+            }
+        }
+    }
+
+    private static boolean containsPartition(BackfillRequest request, int partition) {
+        return request.getFromOffsets() != null && request.getFromOffsets().containsKey(partition)
+                || request.getToOffsets() != null && request.getToOffsets().containsKey(partition);
+    }
+
+    private static long offset(Map<Integer, Long> offsets, TopicPartition partition, long fallback) {
+        Long offset = offsets != null ? offsets.get(partition.partition()) : null;
+        return offset != null ? offset : fallback;
+    }
+
+    private void validate(BackfillRequest request) {
+        if (request.getSource() == null) {
+            throw new IllegalArgumentException("source is required");
+        }
+        if (request.getMode() == null) {
+            request.setMode(BackfillMode.LOAD);
+        }
+        if (request.getSpeed() < 0 || Double.isNaN(request.getSpeed())) {
+            throw new IllegalArgumentException("speed must not be negative");
+        }
+        if (request.getSpeed() > 0 && request.getMode() != BackfillMode.REPLAY) {
+            throw new IllegalArgumentException("speed only applies to REPLAY");
+        }
+        if (request.getSource() == BackfillSource.FILE) {
+            if (request.getPath() == null || request.getPath().isBlank()) {
+                throw new IllegalArgumentException("path is required for FILE backfills");
+            }
+            Path path = resolve(request.getPath());
+            if (!Files.isRegularFile(path) || !Files.isReadable(path)) {
+                throw new IllegalArgumentException("Not a readable file: " + request.getPath());
+            }
+            formatOf(request);
+        } else {
+            for (Map<Integer, Long> offsets : List.of(
+                    request.getFromOffsets() != null ? request.getFromOffsets() : Map.<Integer, Long>of(),
+                    request.getToOffsets() != null ? request.getToOffsets() : Map.<Integer, Long>of())) {
+                offsets.forEach((partition, offset) -> {
+                    if (partition == null || partition < 0 || offset == null || offset < 0) {
+                        throw new IllegalArgumentException("Partitions and offsets must not be negative");
+                    }
+                });
+            }
+        }
+    }
+
+    // Files are only read from the configured backfill directory
+    private Path resolve(String path) {
+        Path resolved = directory.resolve(path).toAbsolutePath().normalize();
+        if (!resolved.startsWith(directory)) {
+            throw new IllegalArgumentException("Path must be inside " + directory + ": " + path);
+        }
+        return resolved;
+    }
+
+    private static String formatOf(BackfillRequest request) {
+        String format = request.getFormat();
+        if (format == null || format.isBlank()) {
+            String name = request.getPath().toLowerCase(Locale.ROOT);
+            format = name.endsWith(".csv") ? TickTextParser.CSV
+                    : name.endsWith(".ndjson") || name.endsWith(".jsonl") ? TickTextParser.NDJSON
+                    : null;
+            if (format == null) {
+                throw new IllegalArgumentException("Cannot tell the format of " + request.getPath() + "; set format");
+            }
+        }
+        format = format.toLowerCase(Locale.ROOT);
+        if (!format.equals(TickTextParser.CSV) && !format.equals(TickTextParser.NDJSON)) {
+            throw new IllegalArgumentException("format must be csv or ndjson");
+        }
+        return format;
+    }
+
+    // Caller holds the jobs lock
+    private void trimHistory() {
+        Iterator<BackfillJob> iterator = jobs.values().iterator();
+        int excess = jobs.size() - historySize;
+        while (excess > 0 && iterator.hasNext()) {
+            if (iterator.next().getStatus().isFinished()) {
+                iterator.remove();
+                excess--;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (jobs) {
+            jobs.values().forEach(BackfillJob::cancel);
+        }
+        runner.shutdownNow();
+        parsers.shutdownNow();
+    }
+
+    /**
+     * Writes chunks for one job: bulk load or replay, with replay optionally
+     * paced so tick time advances {@code speed} times faster than wall time.
+     * Pacing follows the order ticks arrive in, which for Kafka interleaves
+     * partitions, so it is approximate across symbols.
+     */
+    private final class Sink {
+        private final BackfillJob job;
+        private final double speed;
+        private long firstTickMicros = Long.MIN_VALUE;
+        private long startNanos;
+        private long lastProgress = System.currentTimeMillis();
+
+        private Sink(BackfillJob job) {
+            this.job = job;
+            this.speed = job.getRequest().getMode() == BackfillMode.REPLAY ? job.getRequest().getSpeed() : 0;
+        }
+
+        private void accept(List<Tick> ticks) throws InterruptedException {
+            if (ticks.isEmpty()) return;
+            if (speed > 0) {
+                replayPaced(ticks);
+            } else {
+                load(ticks);
+            }
+            long now = System.currentTimeMillis();
+            if (now - lastProgress >= progressIntervalMillis) {
+                lastProgress = now;
+                log.info("Backfill {}: {} ticks written, {} read, {} unparseable, {} ticks/s", job.getId(),
+                        job.getTicksWritten(), job.getTicksRead(), job.getParseFailures(),
+                        Math.round(job.getTicksPerSecond()));
+            }
+        }
+
+        // Counts only rows not stored before
+        private void load(List<Tick> ticks) {
+            List<HistoricalStockPrice> rows = new ArrayList<>(ticks.size());
+            for (Tick tick : ticks) {
+                rows.add(new HistoricalStockPrice(symbols.symbol(tick.getSymbolId()), tick.getPrice(),
+                        tick.getVolume(), Timestamps.fromEpochMicros(tick.getEpochMicros())));
+            }
+            int inserted = historicalDataService.bulkLoad(rows);
+            for (Tick tick : ticks) {
+                analysisResultCache.invalidate(tick.getSymbolId());
+            }
+            job.getWritten().addAndGet(inserted);
+        }
+
+        // Writes everything already due, then sleeps until the next tick is
+        private void replayPaced(List<Tick> ticks) throws InterruptedException {
+            int from = 0;
+            for (int i = 0; i < ticks.size() && !job.isCancelRequested(); i++) {
+                long waitNanos = dueNanos(ticks.get(i).getEpochMicros()) - System.nanoTime();
+                if (waitNanos <= 0) continue;
+                if (i > from) {
+                    load(ticks.subList(from, i));
+                    from = i;
+                }
+                while (waitNanos > 0 && !job.isCancelRequested()) {
+                    TimeUnit.NANOSECONDS.sleep(Math.min(waitNanos, PACE_SLICE_NANOS));
+                    waitNanos = dueNanos(ticks.get(i).getEpochMicros()) - System.nanoTime();
+                }
+            }
+            if (from < ticks.size() && !job.isCancelRequested()) {
+                load(ticks.subList(from, ticks.size()));
+            }
+        }
+
+        private long dueNanos(long epochMicros) {
+            if (firstTickMicros == Long.MIN_VALUE) {
+                firstTickMicros = epochMicros;
+                startNanos = System.nanoTime();
+            }
+            return startNanos + (long) ((epochMicros - firstTickMicros) * 1000 / speed);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.realtime.service;
+
+import jakarta.annotation.PreDestroy;
+import org.example.realtime.metrics.PipelineMetrics;
+import org.example.realtime.model.BatchAnalysisRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Evaluates analyses for many symbols on a bounded fork-join pool, one task
+ * per symbol, and hands each symbol's result to the caller as soon as it is
+ * ready. A failing symbol yields an error entry and does not affect others.
+ */
+@Service
+public class BatchAnalysisService {
+
+    private final StockAnalysisService stockAnalysisService;
+    private final PipelineMetrics metrics;
+    private final int maxSymbols;
+    private final ForkJoinPool pool;
+
+    public BatchAnalysisService(StockAnalysisService stockAnalysisService,
+                                PipelineMetrics metrics,
+                                @Value("${analysis.batch.parallelism:0}") int parallelism,
+                                @Value("${analysis.batch.max-symbols:1000}") int maxSymbols) {
+        this.stockAnalysisService = stockAnalysisService;
+        this.metrics = metrics;
+        this.maxSymbols = maxSymbols;
+        // Separate from the common pool so batch requests cannot starve parallel streams
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Validates the request, returning the distinct symbols in request order.
+     *
+     * @throws IllegalArgumentException if symbols or analyses are missing,
+     *                                  unknown or over the configured limit
+     */
+    public List<String> validate(BatchAnalysisRequest request) {
+        if (request.getSymbols() == null || request.getSymbols().isEmpty()) {
+            throw new IllegalArgumentException("At least one symbol is required");
+        }
+        if (request.getAnalyses() == null || request.getAnalyses().isEmpty()) {
+            throw new IllegalArgumentException("At least one analysis is required");
+        }
+        for (String analysis : request.getAnalyses()) {
+            if (!StockAnalysisService.ANALYSES.contains(analysis)) {
+                throw new IllegalArgumentException("Unknown analysis: " + analysis);
+            }
+        }
+        Set<String> symbols = new LinkedHashSet<>();
+        for (String symbol : request.getSymbols()) {
+            if (symbol != null && !symbol.isBlank()) symbols.add(symbol.trim());
+        }
+        if (symbols.size() > maxSymbols) {
+            throw new IllegalArgumentException("At most " + maxSymbols + " symbols per request");
+        }
+        return new ArrayList<>(symbols);
+    }
+
+    /**
+     * Runs the request and calls {@code sink} on the calling thread for each
+     * symbol in completion order. If {@code sink} throws, for example because
+     * the client went away, the remaining tasks are cancelled.
+     */
+    public void analyze(List<String> symbols, BatchAnalysisRequest request, Consumer<Map<String, Object>> sink)
+            throws InterruptedException {
+        Set<String> analyses = new LinkedHashSet<>(request.getAnalyses());
+        CompletionService<Map<String, Object>> completion = new ExecutorCompletionService<>(pool);
+        List<Future<Map<String, Object>>> futures = new ArrayList<>(symbols.size());
+        try {
+            for (String symbol : symbols) {
+                futures.add(completion.submit(() -> analyzeSymbol(symbol, analyses, request)));
+            }
+            for (int i = 0; i < symbols.size(); i++) {
+                try {
+                    sink.accept(completion.take().get());
+                } catch (ExecutionException e) {
+                    // analyzeSymbol catches its own failures; anything here is a bug
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            for (Future<Map<String, Object>> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private Map<String, Object> analyzeSymbol(String symbol, Set<String> analyses, BatchAnalysisRequest request) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("symbol", symbol);
+        try {
+            entry.put("results", metrics.timeAnalysis("batch-symbol", () -> stockAnalysisService.analyze(
+                    symbol, analyses, request.getTimeframe(),
+                    request.getShortPeriod(), request.getLongPeriod(), request.getPeriod())));
+        } catch (Exception e) {
+            entry.put("error", e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+        return entry;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
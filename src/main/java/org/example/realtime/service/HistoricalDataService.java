@@ -1,39 +1,394 @@
 package org.example.realtime.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.example.realtime.analysis.Timestamps;
+import org.example.realtime.metrics.PipelineMetrics;
 import org.example.realtime.model.HistoricalStockPrice;
+import org.example.realtime.model.PricePage;
+import org.example.realtime.model.Tick;
 import org.example.realtime.repository.HistoricalStockPriceRepository;
+import org.example.realtime.repository.JournalCheckpointRepository;
+import org.example.realtime.repository.PriceStatisticsView;
+import org.example.realtime.symbol.SymbolDictionary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class HistoricalDataService {
     
     private final HistoricalStockPriceRepository repository;
+    private final JournalCheckpointRepository journalCheckpointRepository;
+    private final PriceBarService priceBarService;
+    private final EntityManager entityManager;
+    private final TickArchiveService tickArchiveService;
+    private final PipelineMetrics metrics;
+    private final SymbolDictionary symbols;
+
+    @Value("${statistics.cache.max-size:10000}")
+    private long statisticsCacheSize;
+
+    // Windows ending at least this long ago are treated as closed
+    @Value("${statistics.cache.settle-seconds:60}")
+    private long settleSeconds;
+
+    @Value("${statistics.cache.max-age-minutes:60}")
+    private long statisticsMaxAgeMinutes;
+
+    private Cache<StatisticsKey, Map<String, Double>> statisticsCache;
+
+    @PostConstruct
+    void initStatisticsCache() {
+        // Invalidated on writes into closed windows; the age limit also covers writers
+        // on other instances
+        statisticsCache = Caffeine.newBuilder()
+                .maximumSize(statisticsCacheSize)
+                .expireAfterWrite(Duration.ofMinutes(statisticsMaxAgeMinutes))
+                .recordStats()
+                .build();
+        metrics.monitorCache(statisticsCache, "price-statistics");
+    }
     
     public void saveStockPrice(String symbol, double price, double volume) {
         HistoricalStockPrice historicalPrice = new HistoricalStockPrice(symbol, price, volume);
         repository.save(historicalPrice);
     }
     
-    public List<HistoricalStockPrice> getRecentPrices(String symbol) {
-        return repository.findBySymbolOrderByTimestampDesc(symbol);
+    /**
+     * Stores consumed ticks. A redelivered batch finds its rows already stored
+     * and skips them, so their volume is not added to the bars twice. The
+     * ticks are written as they are, without an entity row per tick.
+     */
+    @Transactional
+    public void saveStockPrices(List<Tick> ticks) {
+        List<Tick> inserted = repository.insertNewTicks(
+                tickArchiveService.withoutArchivedTicks(ticks, symbols), symbols);
+        // Rollups commit or roll back together with the raw ticks
+        priceBarService.recordTicks(inserted, symbols);
+        invalidateTickStatistics(inserted);
+    }
+    
+    /**
+     * Bulk path for backfills: rows go in as large multi-row JDBC batches
+     * sorted by symbol and time, so index inserts stay local, and their bars
+     * are merged in the same transaction. Rows whose (symbol, timestamp) is
+     * already stored are skipped, so loading the same range twice changes
+     * neither the ticks nor the bars.
+     *
+     * @return the number of rows inserted
+     */
+    @Transactional
+    public int bulkLoad(List<HistoricalStockPrice> rows) {
+        rows = new ArrayList<>(tickArchiveService.withoutArchived(rows));
+        rows.sort(Comparator.comparing(HistoricalStockPrice::getSymbol)
+                .thenComparing(HistoricalStockPrice::getTimestamp));
+        List<HistoricalStockPrice> inserted = repository.insertNew(rows);
+        priceBarService.record(inserted);
+        invalidateStatistics(inserted);
+        return inserted.size();
+    }
+    
+    /**
+     * Drain path for the tick journal: ticks, their bars and the journal's new
+     * checkpoint commit together, so a drain interrupted by a crash is redone
+     * from the previous checkpoint. Ticks already stored are skipped, which
+     * also covers ticks journaled twice after a Kafka redelivery.
+     */
+    @Transactional
+    public void saveJournaled(List<Tick> ticks, String journalName, long position) {
+        List<Tick> inserted = repository.insertNewTicks(
+                tickArchiveService.withoutArchivedTicks(ticks, symbols), symbols);
+        priceBarService.recordTicks(inserted, symbols);
+        journalCheckpointRepository.savePosition(journalName, position);
+        invalidateTickStatistics(inserted);
+    }
+    
+    public List<HistoricalStockPrice> getRecentPrices(String symbol, int limit) {
+        return repository.findBySymbolOrderByTimestampDesc(symbol, PageRequest.of(0, limit));
     }
     
+    // Keyset paging needs row ids, so it covers the rows still in the database,
+    // i.e. the archive.db-retention-days window plus late rows
+    public PricePage getPricePage(String symbol, LocalDateTime start, LocalDateTime end, String cursor, int limit) {
+        LocalDateTime afterTimestamp = start;
+        long afterId = Long.MIN_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            int separator = cursor.lastIndexOf('_');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            try {
+                afterTimestamp = LocalDateTime.parse(cursor.substring(0, separator));
+                afterId = Long.parseLong(cursor.substring(separator + 1));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                // Reported as 400 rather than surfacing as a server error
+                throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+            }
+        } else {
+            // Include rows exactly at start on the first page
+            afterTimestamp = start.minusNanos(1);
+        }
+
+        List<HistoricalStockPrice> items = repository.findPageAfter(
+                symbol, afterTimestamp, afterId, end, PageRequest.of(0, limit));
+        String nextCursor = null;
+        if (items.size() == limit) {
+            HistoricalStockPrice last = items.get(items.size() - 1);
+            nextCursor = last.getTimestamp() + "_" + last.getId();
+        }
+        return new PricePage(items, nextCursor);
+    }
+    
+    /**
+     * Streams the range through {@code sink} row by row over a forward-only
+     * cursor, detaching each entity so memory use does not grow with the range.
+     * Archived days are emitted one day at a time ahead of the cursor.
+     */
+    @Transactional(readOnly = true)
+    public void streamPricesInRange(String symbol, LocalDateTime start, LocalDateTime end,
+                                    Consumer<HistoricalStockPrice> sink) {
+        LocalDateTime horizon = tickArchiveService.archivedBefore().atStartOfDay();
+        for (LocalDate day = start.toLocalDate(); day.atStartOfDay().isBefore(horizon) && !start.isAfter(end);
+             day = day.plusDays(1)) {
+            LocalDateTime dayEnd = day.plusDays(1).atStartOfDay().minusNanos(1);
+            getArchivedRange(symbol, start, dayEnd.isBefore(end) ? dayEnd : end).forEach(sink);
+            start = dayEnd.plusNanos(1);
+        }
+        if (start.isAfter(end)) return;
+        try (Stream<HistoricalStockPrice> rows =
+                     repository.streamBySymbolAndTimestampBetweenOrderByTimestampAsc(symbol, start, end)) {
+            rows.forEach(row -> {
+                sink.accept(row);
+                entityManager.detach(row);
+            });
+        }
+    }
+    
+    /**
+     * Ticks in {@code [start, end]}, oldest first. Days whose rows have moved
+     * to the tick archive are read from their files and merged with any late
+     * rows; the rest of the range hits the database.
+     */
     public List<HistoricalStockPrice> getPricesInRange(String symbol, LocalDateTime start, LocalDateTime end) {
-        return repository.findBySymbolAndTimestampBetweenOrderByTimestampAsc(symbol, start, end);
+        LocalDateTime horizon = tickArchiveService.archivedBefore().atStartOfDay();
+        if (!start.isBefore(horizon)) {
+            return repository.findBySymbolAndTimestampBetweenOrderByTimestampAsc(symbol, start, end);
+        }
+        LocalDateTime archivedEnd = end.isBefore(horizon) ? end : horizon.minusNanos(1);
+        List<HistoricalStockPrice> prices = getArchivedRange(symbol, start, archivedEnd);
+        if (end.isBefore(horizon)) return prices;
+        prices = new ArrayList<>(prices);
+        prices.addAll(repository.findBySymbolAndTimestampBetweenOrderByTimestampAsc(symbol, horizon, end));
+        return prices;
+    }
+
+    // A range before the archive horizon: sealed days from their files, merged
+    // with whatever rows the database still holds there
+    private List<HistoricalStockPrice> getArchivedRange(String symbol, LocalDateTime start, LocalDateTime end) {
+        List<HistoricalStockPrice> archived = new ArrayList<>();
+        for (LocalDate day = start.toLocalDate(); !day.isAfter(end.toLocalDate()); day = day.plusDays(1)) {
+            if (tickArchiveService.isSealed(symbol, day)) {
+                tickArchiveService.readInto(symbol, day, start, end, archived);
+            }
+        }
+        return TickArchiveService.merge(archived,
+                repository.findBySymbolAndTimestampBetweenOrderByTimestampAsc(symbol, start, end));
     }
     
     public Map<String, Double> getPriceStatistics(String symbol, LocalDateTime since) {
+        return getPriceStatistics(List.of(symbol), since, null).get(symbol);
+    }
+    
+    /**
+     * Statistics for each symbol over {@code [since, until)}, computed with one
+     * grouped query. A null {@code until} means now. Closed windows are cached
+     * because their history no longer changes.
+     */
+    public Map<String, Map<String, Double>> getPriceStatistics(Collection<String> symbols, LocalDateTime since,
+                                                               LocalDateTime until) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean closed = until != null && !until.isAfter(now.minusSeconds(settleSeconds));
+        LocalDateTime end = until != null ? until : now;
+
+        Map<String, Map<String, Double>> results = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String symbol : symbols) {
+            Map<String, Double> cached = closed ? statisticsCache.getIfPresent(statisticsKey(symbol, since, end)) : null;
+            if (cached != null) {
+                results.put(symbol, cached);
+            } else {
+                results.put(symbol, emptyStatistics());
+                missing.add(symbol);
+            }
+        }
+        if (missing.isEmpty()) return results;
+
+        // The symbol column compares case-insensitively, so a row may come back
+        // spelled differently from the request
+        Map<String, List<String>> requested = new HashMap<>();
+        for (String symbol : missing) {
+            requested.computeIfAbsent(normalize(symbol), key -> new ArrayList<>()).add(symbol);
+        }
+        if (since.isBefore(tickArchiveService.archivedBefore().atStartOfDay())) {
+            // Part of the window only exists in the archive, so aggregate in memory
+            for (String symbol : missing) {
+                results.put(symbol, statisticsOf(getPricesInRange(symbol, since, end.minusNanos(1))));
+            }
+        } else {
+            for (PriceStatisticsView row : repository.calculateStatistics(missing, since, end)) {
+                Map<String, Double> statistics = toMap(row);
+                for (String symbol : requested.getOrDefault(normalize(row.getSymbol()), List.of())) {
+                    results.put(symbol, statistics);
+                }
+            }
+        }
+        if (closed) {
+            for (String symbol : missing) {
+                statisticsCache.put(statisticsKey(symbol, since, end), results.get(symbol));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Drops cached closed-window statistics that the written rows fall into,
+     * once the write commits. Live ticks are newer than any closed window, so
+     * only backfills and delayed journal drains pay for the scan.
+     */
+    private void invalidateStatistics(List<HistoricalStockPrice> rows) {
+        LocalDateTime settled = LocalDateTime.now().minusSeconds(settleSeconds);
+        Map<String, LocalDateTime[]> spans = new HashMap<>();
+        for (HistoricalStockPrice row : rows) {
+            if (row.getTimestamp().isBefore(settled)) {
+                widen(spans, normalize(row.getSymbol()), row.getTimestamp());
+            }
+        }
+        invalidateStatistics(spans);
+    }
+
+    // Same for ticks; only those older than the settle time are converted
+    private void invalidateTickStatistics(List<Tick> ticks) {
+        long settled = Timestamps.toEpochMicros(LocalDateTime.now().minusSeconds(settleSeconds));
+        Map<String, LocalDateTime[]> spans = new HashMap<>();
+        for (Tick tick : ticks) {
+            if (tick.getEpochMicros() < settled) {
+                widen(spans, normalize(symbols.symbol(tick.getSymbolId())),
+                        Timestamps.fromEpochMicros(tick.getEpochMicros()));
+            }
+        }
+        invalidateStatistics(spans);
+    }
+
+    private static void widen(Map<String, LocalDateTime[]> spans, String symbol, LocalDateTime timestamp) {
+        LocalDateTime[] span = spans.computeIfAbsent(symbol, key -> new LocalDateTime[] {timestamp, timestamp});
+        if (timestamp.isBefore(span[0])) span[0] = timestamp;
+        if (timestamp.isAfter(span[1])) span[1] = timestamp;
+    }
+
+    private void invalidateStatistics(Map<String, LocalDateTime[]> spans) {
+        if (spans.isEmpty()) return;
+        Runnable invalidate = () -> statisticsCache.asMap().keySet().removeIf(key -> {
+            LocalDateTime[] span = spans.get(key.symbol());
+            return span != null && !key.since().isAfter(span[1]) && key.until().isAfter(span[0]);
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate.run();
+                }
+            });
+        } else {
+            invalidate.run();
+        }
+    }
+
+    private static StatisticsKey statisticsKey(String symbol, LocalDateTime since, LocalDateTime until) {
+        return new StatisticsKey(normalize(symbol), since, until);
+    }
+
+    private static String normalize(String symbol) {
+        return symbol.toUpperCase(Locale.ROOT);
+    }
+
+    private static Map<String, Double> toMap(PriceStatisticsView row) {
+        Map<String, Double> statistics = new HashMap<>();
+        statistics.put("count", row.getCount() != null ? row.getCount().doubleValue() : 0.0);
+        statistics.put("average", row.getAverage());
+        statistics.put("max", row.getMax());
+        statistics.put("min", row.getMin());
+        statistics.put("stddev", row.getStddev());
+        statistics.put("first", row.getFirst());
+        statistics.put("last", row.getLast());
+        statistics.put("vwap", row.getVwap());
+        return statistics;
+    }
+
+    // Same aggregates as calculateStatistics, over rows already in memory
+    private static Map<String, Double> statisticsOf(List<HistoricalStockPrice> rows) {
+        if (rows.isEmpty()) return emptyStatistics();
+        double sum = 0;
+        double sumSquares = 0;
+        double notional = 0;
+        double volume = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (HistoricalStockPrice row : rows) {
+            double price = row.getPrice();
+            sum += price;
+            sumSquares += price * price;
+            notional += price * row.getVolume();
+            volume += row.getVolume();
+            min = Math.min(min, price);
+            max = Math.max(max, price);
+        }
+        int count = rows.size();
+        double average = sum / count;
         Map<String, Double> statistics = new HashMap<>();
-        statistics.put("average", repository.calculateAveragePrice(symbol, since));
-        statistics.put("max", repository.findMaxPrice(symbol, since));
-        statistics.put("min", repository.findMinPrice(symbol, since));
+        statistics.put("count", (double) count);
+        statistics.put("average", average);
+        statistics.put("max", max);
+        statistics.put("min", min);
+        statistics.put("stddev", Math.sqrt(Math.max(0, sumSquares / count - average * average)));
+        statistics.put("first", rows.get(0).getPrice());
+        statistics.put("last", rows.get(count - 1).getPrice());
+        statistics.put("vwap", volume != 0 ? notional / volume : null);
         return statistics;
     }
+
+    // Same shape as a real result; aggregates are null when there are no rows
+    private static Map<String, Double> emptyStatistics() {
+        Map<String, Double> statistics = new HashMap<>();
+        statistics.put("count", 0.0);
+        for (String key : List.of("average", "max", "min", "stddev", "first", "last", "vwap")) {
+            statistics.put(key, null);
+        }
+        return statistics;
+    }
+
+    private record StatisticsKey(String symbol, LocalDateTime since, LocalDateTime until) {
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,98 @@
+package org.example.realtime.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.realtime.analysis.IndicatorState;
+import org.example.realtime.symbol.SymbolDictionary;
+import org.example.realtime.symbol.SymbolTable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Service
+@RequiredArgsConstructor
+public class IndicatorEngineService {
+
+    private final TickStoreService tickStoreService;
+    private final SymbolDictionary symbols;
+
+    private final SymbolTable<IndicatorState> states = new SymbolTable<>();
+
+    @Value("${indicator.rsi-period:14}")
+    private int rsiPeriod;
+
+    /**
+     * Advances the symbol's state. Updates and the seeding swap in
+     * {@link #getState} lock the state object, so a tick is never applied to a
+     * state that has just been replaced. The returned state is safe to read on
+     * the calling thread until that thread's next update for the symbol.
+     */
+    public IndicatorState onTick(int symbolId, double price, long epochMillis) {
+        while (true) {
+            IndicatorState state = states.computeIfAbsent(symbolId, id -> new IndicatorState(rsiPeriod));
+            synchronized (state) {
+                if (states.get(symbolId) != state) continue;
+                if (epochMillis >= state.getLastTimestamp()) {
+                    state.update(price, epochMillis);
+                }
+                return state;
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of warm indicator state for the symbol, seeding it
+     * from history when the live stream has not yet delivered enough ticks.
+     */
+    public IndicatorState getState(String symbol, int period) {
+        // Only symbols already seen on the stream are retained, so requests for
+        // arbitrary tickers do not grow the dictionary
+        int symbolId = symbols.idOf(symbol);
+        if (period == rsiPeriod && symbolId != SymbolDictionary.UNKNOWN) {
+            IndicatorState state = states.get(symbolId);
+            if (state != null) {
+                synchronized (state) {
+                    if (state.isWarm()) return state.copy();
+                }
+            }
+            IndicatorState seeded = seed(symbol, period);
+            // Taken before the seeded state is published and ticks start updating it
+            IndicatorState snapshot = seeded.copy();
+            // Keep whichever state has seen more ticks
+            while (true) {
+                IndicatorState current = states.get(symbolId);
+                if (current == null) {
+                    if (states.replace(symbolId, null, seeded)) return snapshot;
+                    continue;
+                }
+                synchronized (current) {
+                    if (states.get(symbolId) != current) continue;
+                    if (current.getCount() >= seeded.getCount()) {
+                        return current.copy();
+                    }
+                    states.replace(symbolId, current, seeded);
+                    return snapshot;
+                }
+            }
+        }
+        // Non-default periods are computed on demand and not retained
+        return seed(symbol, period);
+    }
+
+    public void evict(int symbolId) {
+        states.remove(symbolId);
+    }
+
+    private IndicatorState seed(String symbol, int period) {
+        LocalDateTime end = LocalDateTime.now();
+        LocalDateTime start = end.minus(period * 2L, ChronoUnit.DAYS);
+        return tickStoreService.withWindow(symbol, start, end, window -> {
+            IndicatorState state = new IndicatorState(period);
+            for (int i = 0; i < window.size(); i++) {
+                state.update(window.priceAt(i), window.timestampAt(i));
+            }
+            return state;
+        });
+    }
+}
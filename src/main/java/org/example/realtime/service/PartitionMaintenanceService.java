@@ -0,0 +1,95 @@
+package org.example.realtime.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps monthly partitions of historical_stock_prices created ahead of time
+ * and drops whole partitions once they fall out of the retention window.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PartitionMaintenanceService {
+
+    private static final String TABLE = "historical_stock_prices";
+    private static final String MAX_PARTITION = "p_max";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    // MySQL TO_DAYS('1970-01-01')
+    private static final long TO_DAYS_EPOCH_OFFSET = 719528;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${retention.historical-days:365}")
+    private int retentionDays;
+
+    @Value("${retention.partition-months-ahead:3}")
+    private int monthsAhead;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${retention.cron:0 15 0 * * *}")
+    public void maintainPartitions() {
+        try {
+            createFuturePartitions();
+            dropExpiredPartitions();
+        } catch (Exception e) {
+            log.error("Partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    private void createFuturePartitions() {
+        List<Map<String, Object>> partitions = listPartitions();
+        long highestBound = partitions.stream()
+                .filter(p -> !MAX_PARTITION.equals(p.get("name")))
+                .mapToLong(p -> Long.parseLong(p.get("bound").toString()))
+                .max()
+                .orElse(Long.MIN_VALUE);
+
+        YearMonth last = YearMonth.now().plusMonths(monthsAhead);
+        for (YearMonth month = YearMonth.now(); !month.isAfter(last); month = month.plusMonths(1)) {
+            long bound = toDays(month.plusMonths(1).atDay(1));
+            if (bound <= highestBound) continue;
+            // Rows already in p_max below the new bound move into the new partition
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + MAX_PARTITION + " INTO ("
+                    + "PARTITION " + month.format(PARTITION_NAME) + " VALUES LESS THAN (" + bound + "), "
+                    + "PARTITION " + MAX_PARTITION + " VALUES LESS THAN MAXVALUE)");
+            highestBound = bound;
+        }
+    }
+
+    private void dropExpiredPartitions() {
+        long cutoff = toDays(LocalDate.now().minusDays(retentionDays));
+        for (Map<String, Object> partition : listPartitions()) {
+            String name = partition.get("name").toString();
+            if (MAX_PARTITION.equals(name)) continue;
+            // Every row in the partition is older than its exclusive upper bound
+            if (Long.parseLong(partition.get("bound").toString()) <= cutoff) {
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + name);
+                log.info("Dropped expired partition {}", name);
+            }
+        }
+    }
+
+    private List<Map<String, Object>> listPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME AS name, PARTITION_DESCRIPTION AS bound FROM information_schema.PARTITIONS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL "
+                        + "ORDER BY PARTITION_ORDINAL_POSITION", TABLE);
+    }
+
+    private static long toDays(LocalDate date) {
+        return date.toEpochDay() + TO_DAYS_EPOCH_OFFSET;
+    }
+}
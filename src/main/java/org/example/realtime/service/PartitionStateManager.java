@@ -0,0 +1,65 @@
+package org.example.realtime.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.example.realtime.symbol.SymbolTable;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tracks which partition each symbol was consumed from and drops that symbol's
+ * in-memory state when the partition moves to another consumer instance.
+ * Records are keyed by symbol, so a symbol only ever lives on one partition.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PartitionStateManager implements ConsumerAwareRebalanceListener {
+
+    private final IndicatorEngineService indicatorEngineService;
+    private final TickStoreService tickStoreService;
+
+    private final SymbolTable<TopicPartition> symbolPartitions = new SymbolTable<>();
+
+    public void track(int symbolId, String topic, int partition) {
+        TopicPartition current = symbolPartitions.get(symbolId);
+        if (current == null || current.partition() != partition || !current.topic().equals(topic)) {
+            symbolPartitions.put(symbolId, new TopicPartition(topic, partition));
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        release(partitions);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        release(partitions);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        // Nothing to preload: indicator state is seeded from history on first use
+        // and tick-store misses fall back to the database
+        log.info("Assigned partitions: {}", partitions);
+    }
+
+    private void release(Collection<TopicPartition> partitions) {
+        if (partitions.isEmpty()) return;
+        Set<TopicPartition> released = new HashSet<>(partitions);
+        symbolPartitions.forEach((partition, symbolId) -> {
+            if (released.contains(partition) && symbolPartitions.remove(symbolId, partition)) {
+                indicatorEngineService.evict(symbolId);
+                tickStoreService.evict(symbolId);
+            }
+        });
+        log.info("Released state for partitions: {}", partitions);
+    }
+}
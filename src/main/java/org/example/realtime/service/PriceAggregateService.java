@@ -0,0 +1,90 @@
+package org.example.realtime.service;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.example.realtime.analysis.Timestamps;
+import org.example.realtime.model.BarResolution;
+import org.example.realtime.model.WindowAggregate;
+import org.example.realtime.streams.PriceAggregationTopology;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Interactive queries against the Kafka Streams window stores. Only
+ * partitions hosted by this instance are visible; callers fall back to the
+ * database when a query returns nothing.
+ */
+@Service
+@RequiredArgsConstructor
+public class PriceAggregateService {
+
+    private final StreamsBuilderFactoryBean streamsFactory;
+
+    /**
+     * Returns the windows of {@code resolution} between {@code start} and
+     * {@code end}, oldest first, or an empty list when the local stores do not
+     * reach back to {@code start} or are not queryable yet.
+     */
+    public List<WindowAggregate> getCoveringAggregates(String symbol, BarResolution resolution,
+                                                       LocalDateTime start, LocalDateTime end) {
+        ReadOnlyWindowStore<String, WindowAggregate> store = store(PriceAggregationTopology.storeFor(resolution));
+        if (store == null) return List.of();
+
+        long startMillis = Timestamps.toEpochMillis(start);
+        List<WindowAggregate> aggregates = new ArrayList<>();
+        long firstWindowStart = Long.MAX_VALUE;
+        try (WindowStoreIterator<WindowAggregate> windows = store.fetch(symbol,
+                Instant.ofEpochMilli(startMillis - resolution.getDuration().toMillis()),
+                Instant.ofEpochMilli(Timestamps.toEpochMillis(end)))) {
+            while (windows.hasNext()) {
+                KeyValue<Long, WindowAggregate> window = windows.next();
+                firstWindowStart = Math.min(firstWindowStart, window.key);
+                // The window straddling start only proves coverage, as with bars
+                if (window.key >= startMillis) aggregates.add(window.value);
+            }
+        } catch (InvalidStateStoreException e) {
+            return List.of();
+        }
+        return firstWindowStart <= startMillis ? aggregates : List.of();
+    }
+
+    /**
+     * The most recent hopping window covering the last 24 hours.
+     */
+    public Optional<WindowAggregate> getRollingDay(String symbol) {
+        ReadOnlyWindowStore<String, WindowAggregate> store = store(PriceAggregationTopology.ROLLING_DAY_STORE);
+        if (store == null) return Optional.empty();
+
+        Instant now = Instant.now();
+        // Windows still open now started within the last day; the oldest of them spans the most of it
+        Instant from = now.minus(Duration.ofDays(1)).plusMillis(1);
+        try (WindowStoreIterator<WindowAggregate> windows = store.fetch(symbol, from, now)) {
+            return windows.hasNext() ? Optional.of(windows.next().value) : Optional.empty();
+        } catch (InvalidStateStoreException e) {
+            return Optional.empty();
+        }
+    }
+
+    private ReadOnlyWindowStore<String, WindowAggregate> store(String name) {
+        KafkaStreams streams = streamsFactory.getKafkaStreams();
+        if (streams == null || streams.state() != KafkaStreams.State.RUNNING) return null;
+        try {
+            return streams.store(StoreQueryParameters.fromNameAndType(name, QueryableStoreTypes.windowStore()));
+        } catch (InvalidStateStoreException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package org.example.realtime.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.realtime.analysis.Timestamps;
+import org.example.realtime.model.BarResolution;
+import org.example.realtime.model.HistoricalStockPrice;
+import org.example.realtime.model.PriceBar;
+import org.example.realtime.model.Tick;
+import org.example.realtime.repository.PriceBarRepository;
+import org.example.realtime.symbol.SymbolDictionary;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class PriceBarService {
+
+    private final PriceBarRepository priceBarRepository;
+
+    /**
+     * Folds a batch of ticks into 1-minute, 1-hour and 1-day bars and merges
+     * them into the stored bars with one batched upsert. Ticks for symbols
+     * longer than {@link PriceBar#MAX_SYMBOL_LENGTH} are left out, since a
+     * failed upsert would roll back the ticks it is recorded with.
+     */
+    public void record(List<HistoricalStockPrice> ticks) {
+        priceBarRepository.upsertAll(fold(ticks));
+    }
+
+    // Same for consumed ticks, without a LocalDateTime per tick
+    public void recordTicks(List<Tick> ticks, SymbolDictionary symbols) {
+        priceBarRepository.upsertAll(fold(ticks, symbols));
+    }
+
+    static Collection<PriceBar> fold(List<HistoricalStockPrice> ticks) {
+        BarFolder folder = new BarFolder();
+        for (HistoricalStockPrice tick : ticks) {
+            folder.add(tick.getSymbol(), Timestamps.toEpochMicros(tick.getTimestamp()), tick.getPrice(),
+                    tick.getVolume());
+        }
+        return folder.bars();
+    }
+
+    static Collection<PriceBar> fold(List<Tick> ticks, SymbolDictionary symbols) {
+        BarFolder folder = new BarFolder();
+        for (Tick tick : ticks) {
+            folder.add(symbols.symbol(tick.getSymbolId()), tick.getEpochMicros(), tick.getPrice(), tick.getVolume());
+        }
+        return folder.bars();
+    }
+
+    public List<PriceBar> getBars(String symbol, BarResolution resolution, LocalDateTime start, LocalDateTime end) {
+        return priceBarRepository.findBySymbolAndResolutionAndBucketStartBetweenOrderByBucketStartAsc(
+                symbol, resolution, start, end);
+    }
+
+    // Most recent bars, oldest first
+    public List<PriceBar> getLatestBars(String symbol, BarResolution resolution, int count) {
+        List<PriceBar> bars = new ArrayList<>(priceBarRepository.findBySymbolAndResolutionOrderByBucketStartDesc(
+                symbol, resolution, PageRequest.of(0, count)));
+        Collections.reverse(bars);
+        return bars;
+    }
+
+    /**
+     * Accumulates bars in epoch microseconds. Buckets are cut in local time
+     * like {@link BarResolution#bucketStart}; objects are created per bar, not
+     * per tick.
+     */
+    private static final class BarFolder {
+
+        private static final BarResolution[] RESOLUTIONS = BarResolution.values();
+        private static final long[] UNIT_MICROS = new long[RESOLUTIONS.length];
+
+        static {
+            for (int i = 0; i < RESOLUTIONS.length; i++) {
+                UNIT_MICROS[i] = RESOLUTIONS[i].getDuration().toNanos() / 1000;
+            }
+        }
+
+        private final ZoneRules zone = ZoneId.systemDefault().getRules();
+        private final List<PartialBar> bars = new ArrayList<>();
+        // Per symbol and resolution, the bar the last tick went into, then the
+        // newest bar, which heads a chain of the older ones
+        private final Map<String, PartialBar[]> symbols = new HashMap<>();
+        // Zone offset in force over [offsetFrom, offsetUntil) epoch seconds
+        private long offsetFrom = Long.MAX_VALUE;
+        private long offsetUntil = Long.MIN_VALUE;
+        private long offsetMicros;
+        // A tick's bars are converted one after another and share its times
+        private long convertedMicros;
+        private LocalDateTime converted;
+
+        void add(String symbol, long epochMicros, double price, double volume) {
+            if (symbol.length() > PriceBar.MAX_SYMBOL_LENGTH) return;
+            long localMicros = epochMicros + offsetMicros(epochMicros);
+            PartialBar[] state = symbols.computeIfAbsent(symbol, key -> new PartialBar[2 * RESOLUTIONS.length]);
+            for (int i = 0; i < RESOLUTIONS.length; i++) {
+                long bucket = Math.floorDiv(localMicros, UNIT_MICROS[i]) * UNIT_MICROS[i];
+                PartialBar bar = state[i];
+                if (bar == null || bar.bucketMicros != bucket) {
+                    bar = state[RESOLUTIONS.length + i];
+                    while (bar != null && bar.bucketMicros != bucket) {
+                        bar = bar.older;
+                    }
+                    if (bar == null) {
+                        PriceBar priceBar = new PriceBar(symbol, RESOLUTIONS[i], localDateTime(bucket),
+                                price, price, price, price, volume, price * volume, 1, null, null);
+                        bar = new PartialBar(priceBar, bucket, epochMicros, state[RESOLUTIONS.length + i]);
+                        state[RESOLUTIONS.length + i] = bar;
+                        state[i] = bar;
+                        bars.add(bar);
+                        continue;
+                    }
+                    state[i] = bar;
+                }
+                bar.add(epochMicros, price, volume);
+            }
+        }
+
+        Collection<PriceBar> bars() {
+            List<PriceBar> result = new ArrayList<>(bars.size());
+            for (PartialBar partial : bars) {
+                PriceBar bar = partial.bar;
+                bar.setFirstTickAt(toLocalDateTime(partial.firstMicros));
+                bar.setLastTickAt(toLocalDateTime(partial.lastMicros));
+                result.add(bar);
+            }
+            return result;
+        }
+
+        private LocalDateTime toLocalDateTime(long epochMicros) {
+            if (converted == null || convertedMicros != epochMicros) {
+                converted = localDateTime(epochMicros + offsetMicros(epochMicros));
+                convertedMicros = epochMicros;
+            }
+            return converted;
+        }
+
+        private static LocalDateTime localDateTime(long localMicros) {
+            return LocalDateTime.ofEpochSecond(Math.floorDiv(localMicros, 1_000_000L),
+                    (int) Math.floorMod(localMicros, 1_000_000L) * 1000, ZoneOffset.UTC);
+        }
+
+        // Looked up again only when a tick falls outside the last offset's period
+        private long offsetMicros(long epochMicros) {
+            long second = Math.floorDiv(epochMicros, 1_000_000L);
+            if (second < offsetFrom || second >= offsetUntil) {
+                Instant instant = Instant.ofEpochSecond(second);
+                ZoneOffsetTransition previous = zone.previousTransition(instant.plusSeconds(1));
+                ZoneOffsetTransition next = zone.nextTransition(instant);
+                offsetFrom = previous != null ? previous.toEpochSecond() : Long.MIN_VALUE;
+                offsetUntil = next != null ? next.toEpochSecond() : Long.MAX_VALUE;
+                offsetMicros = zone.getOffset(instant).getTotalSeconds() * 1_000_000L;
+            }
+            return offsetMicros;
+        }
+    }
+
+    // A bar being folded; the tick times are kept in microseconds until the end
+    private static final class PartialBar {
+        private final PriceBar bar;
+        private final long bucketMicros;
+        // Previous bar of the same symbol and resolution in this batch
+        private final PartialBar older;
+        private long firstMicros;
+        private long lastMicros;
+
+        private PartialBar(PriceBar bar, long bucketMicros, long epochMicros, PartialBar older) {
+            this.bar = bar;
+            this.bucketMicros = bucketMicros;
+            this.firstMicros = epochMicros;
+            this.lastMicros = epochMicros;
+            this.older = older;
+        }
+
+        // Open and close follow tick time, not arrival order
+        private void add(long epochMicros, double price, double volume) {
+            bar.setHighPrice(Math.max(bar.getHighPrice(), price));
+            bar.setLowPrice(Math.min(bar.getLowPrice(), price));
+            if (epochMicros < firstMicros) {
+                bar.setOpenPrice(price);
+                firstMicros = epochMicros;
+            }
+            if (epochMicros >= lastMicros) {
+                bar.setClosePrice(price);
+                lastMicros = epochMicros;
+            }
+            bar.setVolume(bar.getVolume() + volume);
+            bar.setTurnover(bar.getTurnover() + price * volume);
+            bar.setTickCount(bar.getTickCount() + 1);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.realtime.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.realtime.metrics.LogSampler;
+import org.example.realtime.provider.ProviderClient;
+import org.example.realtime.ratelimit.TokenBucketRateLimiter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Decides which symbols to refresh each cycle and runs their fetches
+ * concurrently. Watchlist symbols are refreshed on a fixed interval; the long
+ * tail is walked round-robin with whatever rate budget is left over. The
+ * budget follows the provider's adaptive rate, so a throttled provider shrinks
+ * each cycle instead of queueing fetches behind the limiter.
+ */
+@Slf4j
+@Service
+public class PriceFetchScheduler {
+
+    private final int maxInFlight;
+    private final long cycleMillis;
+    private final long watchlistRefreshMillis;
+    private final Set<String> watchlist;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final Semaphore inFlight;
+    private final ExecutorService executor;
+    private final LogSampler failureLog;
+
+    private final Set<String> inFlightSymbols = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> lastDispatched = new ConcurrentHashMap<>();
+    private final AtomicInteger tailCursor = new AtomicInteger();
+
+    public PriceFetchScheduler(
+            @Value("${fetch.max-in-flight:64}") int maxInFlight,
+            @Value("${fetch.cycle-ms:1000}") long cycleMillis,
+            @Value("${fetch.watchlist:}") String[] watchlist,
+            @Value("${fetch.watchlist-refresh-ms:10000}") long watchlistRefreshMillis,
+            @Value("${pipeline.log.sample-every:1000}") long logSampleEvery,
+            @Qualifier("yahooProvider") ProviderClient provider) {
+        this.maxInFlight = maxInFlight;
+        this.cycleMillis = cycleMillis;
+        this.watchlistRefreshMillis = watchlistRefreshMillis;
+        this.watchlist = new LinkedHashSet<>();
+        for (String symbol : watchlist) {
+            if (!symbol.isBlank()) this.watchlist.add(symbol.trim());
+        }
+        // Shared with the quote cache's refreshes, so both draw on one adaptive budget
+        this.rateLimiter = provider.getRateLimiter();
+        this.inFlight = new Semaphore(maxInFlight);
+        this.failureLog = new LogSampler(logSampleEvery);
+        // Java 17 has no virtual threads: fetches are I/O bound, so one platform
+        // thread per in-flight slot keeps the pool bounded by the same limit
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(maxInFlight, runnable -> {
+            Thread thread = new Thread(runnable, "price-fetch-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Selects this cycle's symbols and submits {@code fetch} for each of them.
+     *
+     * @return the number of fetches submitted
+     */
+    public int dispatch(List<String> allSymbols, Consumer<String> fetch) {
+        long now = System.currentTimeMillis();
+        List<String> due = new ArrayList<>();
+
+        for (String symbol : watchlist) {
+            Long last = lastDispatched.get(symbol);
+            if (last == null || now - last >= watchlistRefreshMillis) {
+                due.add(symbol);
+            }
+        }
+
+        // Spend the rest of this cycle's rate budget on the long tail
+        int budget = (int) (rateLimiter.getPermitsPerSecond() * cycleMillis / 1000.0) - due.size();
+        int size = allSymbols.size();
+        for (int scanned = 0; budget > 0 && scanned < size; scanned++) {
+            String symbol = allSymbols.get(Math.floorMod(tailCursor.getAndIncrement(), size));
+            if (!watchlist.contains(symbol)) {
+                due.add(symbol);
+                budget--;
+            }
+        }
+
+        int submitted = 0;
+        for (String symbol : due) {
+            if (submit(symbol, fetch, now)) submitted++;
+        }
+        return submitted;
+    }
+
+    private boolean submit(String symbol, Consumer<String> fetch, long now) {
+        if (!inFlightSymbols.add(symbol)) return false;
+        if (!inFlight.tryAcquire()) {
+            // Saturated; the symbol is picked up again on a later cycle
+            inFlightSymbols.remove(symbol);
+            return false;
+        }
+        lastDispatched.put(symbol, now);
+        try {
+            executor.execute(() -> {
+                try {
+                    // The provider client waits for a permit and backs off on its own
+                    fetch.accept(symbol);
+                } catch (Exception e) {
+                    // Failures are counted by the fetch timer; a dead upstream would otherwise log every fetch
+                    if (failureLog.sample()) {
+                        log.warn("Fetch failed for {}: {}", symbol, e.getMessage());
+                    }
+                } finally {
+                    inFlightSymbols.remove(symbol);
+                    inFlight.release();
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            inFlightSymbols.remove(symbol);
+            inFlight.release();
+            return false;
+        }
+    }
+
+    public int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,261 @@
+package org.example.realtime.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.realtime.metrics.PipelineMetrics;
+import org.example.realtime.model.QuoteUpdate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans consumed ticks out to SSE subscribers. Subscribers are indexed by
+ * symbol, and each keeps only the latest pending update per symbol, so a slow
+ * client is sent the newest value rather than a growing backlog. A small
+ * fixed pool of flush threads serves every subscriber; an idle subscriber
+ * holds no thread. A write that blocks longer than {@code stream.write-timeout-ms}
+ * drops its subscriber and a new flush thread takes over, so a stalled client
+ * holds one thread until the container's own write timeout fails the write,
+ * and never stalls the others.
+ */
+@Slf4j
+@Service
+public class QuoteBroadcastService {
+
+    private final Map<String, Set<Subscription>> bySymbol = new ConcurrentHashMap<>();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    // Subscriptions with pending updates; each appears at most once
+    private final BlockingQueue<Subscription> ready = new LinkedBlockingQueue<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService flushers;
+
+    private final int maxSubscribers;
+    private final int maxSymbolsPerSubscriber;
+    private final long timeoutMillis;
+    private final long writeTimeoutNanos;
+
+    public QuoteBroadcastService(PipelineMetrics metrics,
+                                 @Value("${stream.flush-threads:4}") int flushThreads,
+                                 @Value("${stream.max-subscribers:10000}") int maxSubscribers,
+                                 @Value("${stream.max-symbols-per-subscriber:500}") int maxSymbolsPerSubscriber,
+                                 @Value("${stream.timeout-ms:1800000}") long timeoutMillis,
+                                 @Value("${stream.write-timeout-ms:2000}") long writeTimeoutMillis) {
+        this.maxSubscribers = maxSubscribers;
+        this.maxSymbolsPerSubscriber = maxSymbolsPerSubscriber;
+        this.timeoutMillis = timeoutMillis;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis);
+        AtomicInteger threadIds = new AtomicInteger();
+        // Cached rather than fixed: stalled flush threads are replaced, not waited for
+        this.flushers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "quote-flush-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < flushThreads; i++) {
+            flushers.execute(this::flushLoop);
+        }
+        metrics.gauge("stock.stream.subscribers", "Open quote stream subscriptions", subscriberCount::get);
+    }
+
+    /**
+     * Opens a stream of {@code quote} events for the given symbols.
+     *
+     * @throws IllegalArgumentException if no symbols or too many are requested
+     * @throws IllegalStateException    if the subscriber limit is reached
+     */
+    public SseEmitter subscribe(Collection<String> symbols) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String symbol : symbols) {
+            if (symbol != null && !symbol.isBlank()) distinct.add(symbol.trim());
+        }
+        if (distinct.isEmpty() || distinct.size() > maxSymbolsPerSubscriber) {
+            throw new IllegalArgumentException("Between 1 and " + maxSymbolsPerSubscriber + " symbols are required");
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new IllegalStateException("Subscriber limit reached");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscription subscription = new Subscription(emitter, distinct);
+        subscriptions.add(subscription);
+        for (String symbol : distinct) {
+            bySymbol.computeIfAbsent(symbol, key -> ConcurrentHashMap.newKeySet()).add(subscription);
+        }
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(() -> unsubscribe(subscription));
+        emitter.onError(e -> unsubscribe(subscription));
+        return emitter;
+    }
+
+    public boolean hasSubscribers(String symbol) {
+        return bySymbol.containsKey(symbol);
+    }
+
+    /**
+     * Queues the update for every subscriber of its symbol. Never blocks.
+     */
+    public void publish(QuoteUpdate update) {
+        Set<Subscription> subscribers = bySymbol.get(update.getSymbol());
+        if (subscribers == null) return;
+        for (Subscription subscription : subscribers) {
+            if (subscription.offer(update)) {
+                ready.offer(subscription);
+            }
+        }
+    }
+
+    // Comments keep proxies from closing idle streams and surface dead clients
+    @Scheduled(fixedRateString = "${stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.requestHeartbeat()) {
+                ready.offer(subscription);
+            }
+        }
+    }
+
+    /**
+     * Drops subscribers whose current write has blocked past the write timeout
+     * and starts a flush thread in place of each one stuck writing to them.
+     */
+    @Scheduled(fixedRateString = "${stream.write-check-ms:500}")
+    public void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Subscription subscription : subscriptions) {
+            long started = subscription.writeStartedNanos;
+            if (started != 0 && now - started > writeTimeoutNanos && subscription.stalled.compareAndSet(false, true)) {
+                log.debug("Dropping quote stream subscriber stalled for over {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos));
+                unsubscribe(subscription);
+                flushers.execute(this::flushLoop);
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private void flushLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Subscription subscription;
+            try {
+                subscription = ready.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                if (subscription.flush()) {
+                    ready.offer(subscription);
+                }
+            } catch (Exception e) {
+                if (!subscription.stalled.get()) {
+                    log.debug("Dropping quote stream subscriber: {}", e.getMessage());
+                }
+                subscription.emitter.completeWithError(e);
+                unsubscribe(subscription);
+            }
+            if (subscription.stalled.get()) {
+                // A replacement thread took over while this one was blocked
+                return;
+            }
+        }
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        if (!subscription.closed.compareAndSet(false, true)) return;
+        subscriptions.remove(subscription);
+        for (String symbol : subscription.symbols) {
+            bySymbol.computeIfPresent(symbol, (key, subscribers) -> {
+                subscribers.remove(subscription);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+        subscriberCount.decrementAndGet();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushers.shutdownNow();
+        for (Subscription subscription : subscriptions) {
+            subscription.emitter.complete();
+        }
+    }
+
+    private static final class Subscription {
+
+        private final SseEmitter emitter;
+        private final Set<String> symbols;
+        // Latest unsent update per symbol
+        private final Map<String, QuoteUpdate> pending = new ConcurrentHashMap<>();
+        // True while the subscription is in the ready queue or being flushed,
+        // so only one flush thread writes to the emitter at a time
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // Set once the watchdog gave up on a blocked write
+        private final AtomicBoolean stalled = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+        // System.nanoTime() when the write in progress started, 0 between writes
+        private volatile long writeStartedNanos;
+
+        private Subscription(SseEmitter emitter, Set<String> symbols) {
+            this.emitter = emitter;
+            this.symbols = symbols;
+        }
+
+        // Returns true if the caller must enqueue this subscription
+        private boolean offer(QuoteUpdate update) {
+            if (closed.get()) return false;
+            pending.put(update.getSymbol(), update);
+            return scheduled.compareAndSet(false, true);
+        }
+
+        private boolean requestHeartbeat() {
+            if (closed.get()) return false;
+            heartbeatDue = true;
+            return scheduled.compareAndSet(false, true);
+        }
+
+        // Returns true if updates arrived during the flush and it must be re-enqueued
+        private boolean flush() throws IOException {
+            if (heartbeatDue) {
+                heartbeatDue = false;
+                send(SseEmitter.event().comment("heartbeat"));
+            }
+            for (String symbol : pending.keySet()) {
+                QuoteUpdate update = pending.remove(symbol);
+                if (update != null) {
+                    send(SseEmitter.event().name("quote").data(update));
+                }
+                if (stalled.get()) return false;
+            }
+            scheduled.set(false);
+            return (heartbeatDue || !pending.isEmpty()) && !closed.get() && scheduled.compareAndSet(false, true);
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            writeStartedNanos = System.nanoTime();
+            try {
+                emitter.send(event);
+            } finally {
+                writeStartedNanos = 0;
+            }
+        }
+    }
+}
@@ -1,20 +1,39 @@
 package org.example.realtime.service;
 
+import org.example.realtime.analysis.AggregatePriceWindow;
+import org.example.realtime.analysis.BarPriceWindow;
+import org.example.realtime.analysis.IndicatorState;
+import org.example.realtime.analysis.PriceWindow;
+import org.example.realtime.analysis.WindowKernel;
+import org.example.realtime.analysis.WindowStatistics;
+import org.example.realtime.analysis.WindowSummary;
+import org.example.realtime.model.BarResolution;
+import org.example.realtime.model.Quote;
+import org.example.realtime.model.WindowAggregate;
 import org.example.realtime.model.StockPrice;
-import org.example.realtime.model.HistoricalStockPrice;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 
 @Service
 public class StockAnalysisService {
 
+    public static final String TREND = "trend";
+    public static final String VOLATILITY = "volatility";
+    public static final String MOVING_AVERAGE = "moving-average";
+    public static final String VOLUME = "volume-analysis";
+    public static final String TECHNICAL_INDICATORS = "technical-indicators";
+    public static final Set<String> ANALYSES = Set.of(TREND, VOLATILITY, MOVING_AVERAGE, VOLUME, TECHNICAL_INDICATORS);
+    // Marks a result degraded by a missing quote or a failed read
+    public static final String UNKNOWN = "UNKNOWN";
+
     @Autowired
     private KafkaTemplate<String, StockPrice> kafkaTemplate;
 
@@ -22,12 +41,16 @@ public class StockAnalysisService {
     private StockPriceService stockPriceService;
 
     @Autowired
-    private HistoricalDataService historicalDataService;
+    private IndicatorEngineService indicatorEngineService;
+
+    @Autowired
+    private TickStoreService tickStoreService;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private PriceBarService priceBarService;
 
-    private final Map<String, LocalDateTime> lastVolumeFetchTimes = new HashMap<>();
-    private static final int VOLUME_RATE_LIMIT_SECONDS = 5;
+    @Autowired
+    private PriceAggregateService priceAggregateService;
 
     public Map<String, Object> analyzeTrend(String symbol, String timeframe) {
         Map<String, Object> result = new HashMap<>();
@@ -35,48 +58,18 @@ public class StockAnalysisService {
         result.put("timeframe", timeframe);
 
         try {
-            // Get current price
-            double currentPrice = stockPriceService.getPrice(symbol);
-            
-            // Get historical prices for the specified timeframe
-            LocalDateTime end = LocalDateTime.now();
-            LocalDateTime start = end.minus(1, ChronoUnit.DAYS); // Default to 1 day
-            if (timeframe.equals("1w")) {
-                start = end.minus(7, ChronoUnit.DAYS);
-            } else if (timeframe.equals("1m")) {
-                start = end.minus(30, ChronoUnit.DAYS);
-            }
-
-            List<HistoricalStockPrice> historicalPrices = historicalDataService.getPricesInRange(symbol, start, end);
-            
-            if (historicalPrices.isEmpty()) {
-                result.put("trend", "NEUTRAL");
-                result.put("strength", 0.5);
-                return result;
+            // Current price from the quote cache; requests never wait on the provider
+            Quote quote = stockPriceService.peekQuote(symbol);
+            if (quote == null) {
+                throw new IllegalStateException("No quote cached for " + symbol);
             }
 
-            // Calculate trend
-            double firstPrice = historicalPrices.get(0).getPrice();
-            double priceChange = currentPrice - firstPrice;
-            double percentChange = (priceChange / firstPrice) * 100;
-
-            String trend;
-            double strength;
-            if (percentChange > 2) {
-                trend = "BULLISH";
-                strength = Math.min(0.5 + (percentChange / 100), 1.0);
-            } else if (percentChange < -2) {
-                trend = "BEARISH";
-                strength = Math.min(0.5 + (Math.abs(percentChange) / 100), 1.0);
-            } else {
-                trend = "NEUTRAL";
-                strength = 0.5;
-            }
-
-            result.put("trend", trend);
-            result.put("strength", strength);
+            // Get historical prices for the specified timeframe
+            LocalDateTime end = LocalDateTime.now();
+            Double firstPrice = withSeries(symbol, windowStart(timeframe, end), end, StockAnalysisService::firstPrice);
+            putTrend(result, quote.getPrice(), firstPrice);
         } catch (Exception e) {
-            result.put("trend", "UNKNOWN");
+            result.put("trend", UNKNOWN);
             result.put("strength", 0.0);
         }
         return result;
@@ -90,51 +83,10 @@ public class StockAnalysisService {
         try {
             // Get historical prices
             LocalDateTime end = LocalDateTime.now();
-            LocalDateTime start = end.minus(1, ChronoUnit.DAYS);
-            if (timeframe.equals("1w")) {
-                start = end.minus(7, ChronoUnit.DAYS);
-            } else if (timeframe.equals("1m")) {
-                start = end.minus(30, ChronoUnit.DAYS);
-            }
-
-            List<HistoricalStockPrice> prices = historicalDataService.getPricesInRange(symbol, start, end);
-            
-            if (prices.size() < 2) {
-                result.put("volatility", 0.0);
-                result.put("risk_level", "LOW");
-                return result;
-            }
-
-            // Calculate daily returns
-            List<Double> returns = new ArrayList<>();
-            for (int i = 1; i < prices.size(); i++) {
-                double dailyReturn = (prices.get(i).getPrice() - prices.get(i-1).getPrice()) / prices.get(i-1).getPrice();
-                returns.add(dailyReturn);
-            }
-
-            // Calculate volatility (standard deviation of returns)
-            double mean = returns.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-            double variance = returns.stream()
-                    .mapToDouble(r -> Math.pow(r - mean, 2))
-                    .average()
-                    .orElse(0.0);
-            double volatility = Math.sqrt(variance);
-
-            // Determine risk level
-            String riskLevel;
-            if (volatility < 0.01) {
-                riskLevel = "LOW";
-            } else if (volatility < 0.02) {
-                riskLevel = "MODERATE";
-            } else {
-                riskLevel = "HIGH";
-            }
-
-            result.put("volatility", volatility);
-            result.put("risk_level", riskLevel);
+            putVolatility(result, withSeries(symbol, windowStart(timeframe, end), end, WindowStatistics::returnVolatility));
         } catch (Exception e) {
             result.put("volatility", 0.0);
-            result.put("risk_level", "UNKNOWN");
+            result.put("risk_level", UNKNOWN);
         }
         return result;
     }
@@ -144,49 +96,11 @@ public class StockAnalysisService {
         result.put("symbol", symbol);
 
         try {
-            // Get historical prices
-            LocalDateTime end = LocalDateTime.now();
-            LocalDateTime start = end.minus(longPeriod, ChronoUnit.DAYS);
-            List<HistoricalStockPrice> prices = historicalDataService.getPricesInRange(symbol, start, end);
-            
-            if (prices.size() < longPeriod) {
-                result.put("short_ma", 0.0);
-                result.put("long_ma", 0.0);
-                result.put("signal", "NEUTRAL");
-                return result;
-            }
-
-            // Calculate short-term MA
-            double shortMA = prices.subList(prices.size() - shortPeriod, prices.size())
-                    .stream()
-                    .mapToDouble(HistoricalStockPrice::getPrice)
-                    .average()
-                    .orElse(0.0);
-
-            // Calculate long-term MA
-            double longMA = prices.subList(prices.size() - longPeriod, prices.size())
-                    .stream()
-                    .mapToDouble(HistoricalStockPrice::getPrice)
-                    .average()
-                    .orElse(0.0);
-
-            // Determine signal
-            String signal;
-            if (shortMA > longMA) {
-                signal = "BULLISH";
-            } else if (shortMA < longMA) {
-                signal = "BEARISH";
-            } else {
-                signal = "NEUTRAL";
-            }
-
-            result.put("short_ma", shortMA);
-            result.put("long_ma", longMA);
-            result.put("signal", signal);
+            putMovingAverages(result, symbol, shortPeriod, longPeriod);
         } catch (Exception e) {
             result.put("short_ma", 0.0);
             result.put("long_ma", 0.0);
-            result.put("signal", "UNKNOWN");
+            result.put("signal", UNKNOWN);
         }
         return result;
     }
@@ -197,222 +111,266 @@ public class StockAnalysisService {
         result.put("timeframe", timeframe);
 
         try {
-            // Check rate limit
-            LocalDateTime lastFetch = lastVolumeFetchTimes.get(symbol);
-            if (lastFetch != null) {
-                LocalDateTime now = LocalDateTime.now();
-                long secondsSinceLastFetch = ChronoUnit.SECONDS.between(lastFetch, now);
-                if (secondsSinceLastFetch < VOLUME_RATE_LIMIT_SECONDS) {
-                    // Use historical data only if we're rate limited
-                    List<HistoricalStockPrice> historicalPrices = historicalDataService.getPricesInRange(
-                        symbol, 
-                        LocalDateTime.now().minus(1, ChronoUnit.DAYS),
-                        LocalDateTime.now()
-                    );
-                    
-                    if (!historicalPrices.isEmpty()) {
-                        double averageVolume = historicalPrices.stream()
-                            .mapToDouble(HistoricalStockPrice::getVolume)
-                            .average()
-                            .orElse(0.0);
-                        
-                        result.put("average_volume", averageVolume);
-                        result.put("volume_trend", "NEUTRAL");
-                        return result;
-                    }
-                }
-            }
-
-            // Get current volume from Yahoo Finance
-            String url = "https://query1.finance.yahoo.com/v8/finance/chart/" + symbol;
-            Map<String, Object> yahooResponse = restTemplate.getForObject(url, Map.class);
-            
-            if (yahooResponse != null && yahooResponse.containsKey("chart")) {
-                Map<String, Object> chart = (Map<String, Object>) yahooResponse.get("chart");
-                Map<String, Object> yahooResult = (Map<String, Object>) ((List<?>) chart.get("result")).get(0);
-                Map<String, Object> meta = (Map<String, Object>) yahooResult.get("meta");
-                long currentVolume = (long) meta.get("regularMarketVolume");
-
-                // Update last fetch time
-                lastVolumeFetchTimes.put(symbol, LocalDateTime.now());
-
-                // Get historical volumes
-                LocalDateTime end = LocalDateTime.now();
-                LocalDateTime start = end.minus(1, ChronoUnit.DAYS);
-                if (timeframe.equals("1w")) {
-                    start = end.minus(7, ChronoUnit.DAYS);
-                } else if (timeframe.equals("1m")) {
-                    start = end.minus(30, ChronoUnit.DAYS);
-                }
-
-                List<HistoricalStockPrice> historicalPrices = historicalDataService.getPricesInRange(symbol, start, end);
-                
-                if (historicalPrices.isEmpty()) {
-                    result.put("average_volume", currentVolume);
-                    result.put("volume_trend", "NEUTRAL");
-                    return result;
-                }
+            // Current volume comes from the shared quote cache; null until it is loaded
+            Quote quote = stockPriceService.peekQuote(symbol);
 
-                // Calculate average volume
-                double averageVolume = historicalPrices.stream()
-                        .mapToDouble(HistoricalStockPrice::getVolume)
-                        .average()
-                        .orElse(currentVolume);
-
-                // Determine volume trend
-                String volumeTrend;
-                if (currentVolume > averageVolume * 1.2) {
-                    volumeTrend = "INCREASING";
-                } else if (currentVolume < averageVolume * 0.8) {
-                    volumeTrend = "DECREASING";
-                } else {
-                    volumeTrend = "STABLE";
-                }
-
-                result.put("average_volume", averageVolume);
-                result.put("volume_trend", volumeTrend);
-            }
+            // Get historical volumes
+            LocalDateTime end = LocalDateTime.now();
+            putVolume(result, quote != null ? quote.getVolume() : null,
+                    averageVolume(symbol, windowStart(timeframe, end)));
         } catch (Exception e) {
-            // If we get rate limited, try to use historical data
-            List<HistoricalStockPrice> historicalPrices = historicalDataService.getPricesInRange(
-                symbol, 
-                LocalDateTime.now().minus(1, ChronoUnit.DAYS),
-                LocalDateTime.now()
-            );
-            
-            if (!historicalPrices.isEmpty()) {
-                double averageVolume = historicalPrices.stream()
-                    .mapToDouble(HistoricalStockPrice::getVolume)
-                    .average()
-                    .orElse(0.0);
-                
-                result.put("average_volume", averageVolume);
-                result.put("volume_trend", "NEUTRAL");
-            } else {
-                result.put("average_volume", 0.0);
-                result.put("volume_trend", "UNKNOWN");
-            }
+            result.put("average_volume", 0.0);
+            result.put("volume_trend", UNKNOWN);
         }
         return result;
     }
 
+    /**
+     * Whether a result may be reused. A degraded result is still returned, but
+     * caching it would pin UNKNOWN until the symbol ticks and would replace a
+     * good result as the stale fallback.
+     */
+    public static boolean isComplete(Map<String, ?> result) {
+        return !result.containsValue(UNKNOWN);
+    }
+
     public Map<String, Object> calculateTechnicalIndicators(String symbol, int period) {
         Map<String, Object> result = new HashMap<>();
         result.put("symbol", symbol);
 
         try {
-            // Get historical prices
-            LocalDateTime end = LocalDateTime.now();
-            LocalDateTime start = end.minus(period * 2, ChronoUnit.DAYS);
-            List<HistoricalStockPrice> prices = historicalDataService.getPricesInRange(symbol, start, end);
-            
-            if (prices.size() < period) {
-                result.put("rsi", 50.0);
-                result.put("macd", 0.0);
-                result.put("signal", "NEUTRAL");
-                return result;
-            }
-
-            // Calculate RSI
-            double rsi = calculateRSI(prices, period);
-
-            // Calculate MACD
-            double macd = calculateMACD(prices);
-
-            // Determine signal based on RSI and MACD
-            String signal;
-            if (rsi > 70 && macd > 0) {
-                signal = "BEARISH"; // Overbought
-            } else if (rsi < 30 && macd < 0) {
-                signal = "BULLISH"; // Oversold
-            } else if (rsi > 50 && macd > 0) {
-                signal = "BULLISH";
-            } else if (rsi < 50 && macd < 0) {
-                signal = "BEARISH";
-            } else {
-                signal = "NEUTRAL";
-            }
-
-            result.put("rsi", rsi);
-            result.put("macd", macd);
-            result.put("signal", signal);
+            // Read streaming indicator state instead of reprocessing the window
+            putIndicators(result, indicatorEngineService.getState(symbol, period));
         } catch (Exception e) {
             result.put("rsi", 50.0);
             result.put("macd", 0.0);
-            result.put("signal", "UNKNOWN");
+            result.put("signal", UNKNOWN);
         }
         return result;
     }
 
-    private double calculateRSI(List<HistoricalStockPrice> prices, int period) {
-        List<Double> gains = new ArrayList<>();
-        List<Double> losses = new ArrayList<>();
-
-        for (int i = 1; i < prices.size(); i++) {
-            double change = prices.get(i).getPrice() - prices.get(i-1).getPrice();
-            if (change >= 0) {
-                gains.add(change);
-                losses.add(0.0);
-            } else {
-                gains.add(0.0);
-                losses.add(Math.abs(change));
+    /**
+     * Runs several analyses for one symbol. The timeframe window is read and
+     * summarized once for trend, volatility and volume, and the quote is looked
+     * up once. Failures propagate to the caller instead of becoming UNKNOWN.
+     *
+     * @return results keyed by analysis name, in the order requested
+     */
+    public Map<String, Map<String, Object>> analyze(String symbol, Collection<String> analyses, String timeframe,
+                                                    int shortPeriod, int longPeriod, int period) {
+        boolean trend = analyses.contains(TREND);
+        boolean volatility = analyses.contains(VOLATILITY);
+        boolean volume = analyses.contains(VOLUME);
+
+        // Null until the quote is cached; handled per analysis below
+        Quote quote = trend || volume ? stockPriceService.peekQuote(symbol) : null;
+
+        WindowSummary summary = null;
+        if (trend || volatility || volume) {
+            LocalDateTime end = LocalDateTime.now();
+            summary = summarize(symbol, windowStart(timeframe, end), end);
+        }
+
+        Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+        for (String analysis : analyses) {
+            Map<String, Object> result = new HashMap<>();
+            switch (analysis) {
+                case TREND -> {
+                    result.put("timeframe", timeframe);
+                    if (quote != null) {
+                        putTrend(result, quote.getPrice(), summary.getFirstPrice());
+                    } else {
+                        result.put("trend", UNKNOWN);
+                        result.put("strength", 0.0);
+                    }
+                }
+                case VOLATILITY -> {
+                    result.put("timeframe", timeframe);
+                    putVolatility(result, summary.getVolatility());
+                }
+                case MOVING_AVERAGE -> putMovingAverages(result, symbol, shortPeriod, longPeriod);
+                case VOLUME -> {
+                    result.put("timeframe", timeframe);
+                    putVolume(result, quote != null ? quote.getVolume() : null, summary.getAverageVolume());
+                }
+                case TECHNICAL_INDICATORS -> putIndicators(result, indicatorEngineService.getState(symbol, period));
+                default -> throw new IllegalArgumentException("Unknown analysis: " + analysis);
             }
+            results.put(analysis, result);
+        }
+        return results;
+    }
+
+    private static void putTrend(Map<String, Object> result, double currentPrice, Double firstPrice) {
+        if (firstPrice == null) {
+            result.put("trend", "NEUTRAL");
+            result.put("strength", 0.5);
+            return;
         }
 
-        double avgGain = gains.subList(gains.size() - period, gains.size())
-                .stream()
-                .mapToDouble(Double::doubleValue)
-                .average()
-                .orElse(0.0);
-
-        double avgLoss = losses.subList(losses.size() - period, losses.size())
-                .stream()
-                .mapToDouble(Double::doubleValue)
-                .average()
-                .orElse(0.0);
-
-        if (avgLoss == 0) return 100.0;
-        double rs = avgGain / avgLoss;
-        return 100.0 - (100.0 / (1.0 + rs));
+        // Calculate trend
+        double priceChange = currentPrice - firstPrice;
+        double percentChange = (priceChange / firstPrice) * 100;
+
+        String trend;
+        double strength;
+        if (percentChange > 2) {
+            trend = "BULLISH";
+            strength = Math.min(0.5 + (percentChange / 100), 1.0);
+        } else if (percentChange < -2) {
+            trend = "BEARISH";
+            strength = Math.min(0.5 + (Math.abs(percentChange) / 100), 1.0);
+        } else {
+            trend = "NEUTRAL";
+            strength = 0.5;
+        }
+
+        result.put("trend", trend);
+        result.put("strength", strength);
     }
 
-    private double calculateMACD(List<HistoricalStockPrice> prices) {
-        int fastPeriod = 12;
-        int slowPeriod = 26;
-        int signalPeriod = 9;
+    private static void putVolatility(Map<String, Object> result, Double volatility) {
+        if (volatility == null) {
+            result.put("volatility", 0.0);
+            result.put("risk_level", "LOW");
+            return;
+        }
 
-        // Calculate EMAs
-        double fastEMA = calculateEMA(prices, fastPeriod);
-        double slowEMA = calculateEMA(prices, slowPeriod);
+        // Determine risk level
+        String riskLevel;
+        if (volatility < 0.01) {
+            riskLevel = "LOW";
+        } else if (volatility < 0.02) {
+            riskLevel = "MODERATE";
+        } else {
+            riskLevel = "HIGH";
+        }
 
-        // Calculate MACD line
-        double macdLine = fastEMA - slowEMA;
+        result.put("volatility", volatility);
+        result.put("risk_level", riskLevel);
+    }
 
-        // Calculate Signal line (EMA of MACD)
-        List<Double> macdValues = new ArrayList<>();
-        for (int i = 0; i < prices.size(); i++) {
-            double fastEMAi = calculateEMA(prices.subList(0, i + 1), fastPeriod);
-            double slowEMAi = calculateEMA(prices.subList(0, i + 1), slowPeriod);
-            macdValues.add(fastEMAi - slowEMAi);
+    private void putMovingAverages(Map<String, Object> result, String symbol, int shortPeriod, int longPeriod) {
+        // Periods are in days, so read daily bars
+        int days = Math.max(shortPeriod, longPeriod);
+        PriceWindow window = new BarPriceWindow(priceBarService.getLatestBars(symbol, BarResolution.DAY, days));
+        if (window.size() < days) {
+            result.put("short_ma", 0.0);
+            result.put("long_ma", 0.0);
+            result.put("signal", "NEUTRAL");
+            return;
         }
 
-        double signalLine = calculateEMA(macdValues, signalPeriod);
+        double shortMA = WindowStatistics.trailingAverage(window, shortPeriod);
+        double longMA = WindowStatistics.trailingAverage(window, longPeriod);
+
+        // Determine signal
+        String signal;
+        if (shortMA > longMA) {
+            signal = "BULLISH";
+        } else if (shortMA < longMA) {
+            signal = "BEARISH";
+        } else {
+            signal = "NEUTRAL";
+        }
 
-        // Return MACD histogram
-        return macdLine - signalLine;
+        result.put("short_ma", shortMA);
+        result.put("long_ma", longMA);
+        result.put("signal", signal);
     }
 
-    private double calculateEMA(List<?> data, int period) {
-        if (data.isEmpty()) return 0.0;
-        
-        double multiplier = 2.0 / (period + 1);
-        double ema = ((Number) data.get(0)).doubleValue();
+    // A null current volume means no quote was available, so there is no trend to report
+    private static void putVolume(Map<String, Object> result, Double currentVolume, Double averageVolume) {
+        if (currentVolume == null) {
+            result.put("average_volume", averageVolume != null ? averageVolume : 0.0);
+            result.put("volume_trend", UNKNOWN);
+            return;
+        }
 
-        for (int i = 1; i < data.size(); i++) {
-            double value = ((Number) data.get(i)).doubleValue();
-            ema = (value - ema) * multiplier + ema;
+        if (averageVolume == null) {
+            result.put("average_volume", currentVolume);
+            result.put("volume_trend", "NEUTRAL");
+            return;
         }
 
-        return ema;
+        // Determine volume trend
+        String volumeTrend;
+        if (currentVolume > averageVolume * 1.2) {
+            volumeTrend = "INCREASING";
+        } else if (currentVolume < averageVolume * 0.8) {
+            volumeTrend = "DECREASING";
+        } else {
+            volumeTrend = "STABLE";
+        }
+
+        result.put("average_volume", averageVolume);
+        result.put("volume_trend", volumeTrend);
+    }
+
+    private static void putIndicators(Map<String, Object> result, IndicatorState state) {
+        if (!state.isWarm()) {
+            result.put("rsi", 50.0);
+            result.put("macd", 0.0);
+            result.put("signal", "NEUTRAL");
+            return;
+        }
+
+        double rsi = state.getRsi();
+        double macd = state.getMacdHistogram();
+
+        // Determine signal based on RSI and MACD
+        String signal;
+        if (rsi > 70 && macd > 0) {
+            signal = "BEARISH"; // Overbought
+        } else if (rsi < 30 && macd < 0) {
+            signal = "BULLISH"; // Oversold
+        } else if (rsi > 50 && macd > 0) {
+            signal = "BULLISH";
+        } else if (rsi < 50 && macd < 0) {
+            signal = "BEARISH";
+        } else {
+            signal = "NEUTRAL";
+        }
+
+        result.put("rsi", rsi);
+        result.put("macd", macd);
+        result.put("signal", signal);
+    }
+
+    private static LocalDateTime windowStart(String timeframe, LocalDateTime end) {
+        if (timeframe.equals("1w")) {
+            return end.minus(7, ChronoUnit.DAYS);
+        } else if (timeframe.equals("1m")) {
+            return end.minus(30, ChronoUnit.DAYS);
+        }
+        return end.minus(1, ChronoUnit.DAYS); // Default to 1 day
+    }
+
+    private static Double firstPrice(PriceWindow window) {
+        return window.isEmpty() ? null : window.priceAt(0);
+    }
+
+    private Double averageVolume(String symbol, LocalDateTime start) {
+        return withSeries(symbol, start, LocalDateTime.now(), WindowStatistics::averageVolume);
+    }
+
+    // First price, volatility and average volume from one pass over the series
+    private WindowSummary summarize(String symbol, LocalDateTime start, LocalDateTime end) {
+        return withSeries(symbol, start, end, WindowKernel::summarize);
+    }
+
+    // Ticks when the hot tier covers the window, otherwise window aggregates at
+    // the coarsest resolution that still gives enough points: from the local
+    // Kafka Streams stores when they reach back far enough, else from MySQL bars
+    private <T> T withSeries(String symbol, LocalDateTime start, LocalDateTime end, Function<PriceWindow, T> reader) {
+        if (tickStoreService.covers(symbol, start)) {
+            return tickStoreService.withWindow(symbol, start, end, reader);
+        }
+        BarResolution resolution = BarResolution.coarsestFor(Duration.between(start, end));
+        List<WindowAggregate> aggregates = priceAggregateService.getCoveringAggregates(symbol, resolution, start, end);
+        if (!aggregates.isEmpty()) {
+            return reader.apply(new AggregatePriceWindow(aggregates));
+        }
+        return reader.apply(new BarPriceWindow(priceBarService.getBars(symbol, resolution, start, end)));
     }
-} 
\ No newline at end of file
+}
@@ -1,29 +1,136 @@
 package org.example.realtime.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.example.realtime.model.StockPrice;
+import org.apache.kafka.common.record.TimestampType;
+import org.example.realtime.analysis.IndicatorState;
+import org.example.realtime.analysis.Timestamps;
+import org.example.realtime.config.KafkaConfig;
+import org.example.realtime.metrics.LogSampler;
+import org.example.realtime.metrics.PipelineMetrics;
+import org.example.realtime.model.QuoteUpdate;
+import org.example.realtime.model.Tick;
+import org.example.realtime.symbol.SymbolDictionary;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class StockConsumerService {
 
-    private final ObjectMapper objectMapper;
+    public static final String GROUP_ID = "stock-consumer-group";
+
     private final HistoricalDataService historicalDataService;
+    private final IndicatorEngineService indicatorEngineService;
+    private final TickStoreService tickStoreService;
+    private final PartitionStateManager partitionStateManager;
+    private final QuoteBroadcastService quoteBroadcastService;
+    private final AnalysisResultCache analysisResultCache;
+    private final TickJournalService tickJournalService;
+    private final SymbolDictionary symbols;
+    private final PipelineMetrics metrics;
+    private final LogSampler failureLog;
+    private final LogSampler batchLog;
+
+    public StockConsumerService(HistoricalDataService historicalDataService,
+                                IndicatorEngineService indicatorEngineService,
+                                TickStoreService tickStoreService,
+                                PartitionStateManager partitionStateManager,
+                                QuoteBroadcastService quoteBroadcastService,
+                                AnalysisResultCache analysisResultCache,
+                                TickJournalService tickJournalService,
+                                SymbolDictionary symbols,
+                                PipelineMetrics metrics,
+                                @Value("${pipeline.log.sample-every:1000}") long logSampleEvery) {
+        this.historicalDataService = historicalDataService;
+        this.indicatorEngineService = indicatorEngineService;
+        this.tickStoreService = tickStoreService;
+        this.partitionStateManager = partitionStateManager;
+        this.quoteBroadcastService = quoteBroadcastService;
+        this.analysisResultCache = analysisResultCache;
+        this.tickJournalService = tickJournalService;
+        this.symbols = symbols;
+        this.metrics = metrics;
+        this.failureLog = new LogSampler(logSampleEvery);
+        this.batchLog = new LogSampler(logSampleEvery);
+    }
 
-    @KafkaListener(topics = "stock-prices", groupId = "stock-consumer-group")
-    public void consume(ConsumerRecord<String, String> record) {
-        try {
-            StockPrice stock = objectMapper.readValue(record.value(), StockPrice.class);
-            // Save to historical database
-            historicalDataService.saveStockPrice(stock.getSymbol(), stock.getPrice(), stock.getVolume());
-            System.out.println("Consumed and saved: " + stock);
-        } catch (Exception e) {
-            System.err.println(" Failed to process message: " + record.value());
-            e.printStackTrace();
+    // Batch listener: offsets for the poll are committed only after this method
+    // returns, so a failed flush is redelivered instead of dropped
+    // One listener thread per partition; records are keyed by symbol, so each
+    // symbol is always handled by the same thread in order
+    @KafkaListener(topics = "stock-prices", groupId = GROUP_ID,
+            containerFactory = KafkaConfig.TICK_LISTENER_FACTORY,
+            concurrency = "${stock.topic.partitions:12}")
+    public void consume(List<ConsumerRecord<String, Tick>> records) {
+        List<Tick> ticks = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, Tick> record : records) {
+            try {
+                // Null when ErrorHandlingDeserializer could not decode the record
+                Tick tick = record.value();
+                if (tick == null) {
+                    throw new IllegalArgumentException("Undecodable record at offset " + record.offset());
+                }
+                ticks.add(tick);
+                partitionStateManager.track(tick.getSymbolId(), record.topic(), record.partition());
+                if (record.timestampType() == TimestampType.CREATE_TIME) {
+                    metrics.recordConsumeLag(symbols.symbol(tick.getSymbolId()), record.timestamp());
+                }
+            } catch (Exception e) {
+                metrics.parseFailure("kafka");
+                if (failureLog.sample()) {
+                    log.warn("Failed to process message at {}-{}@{}", record.topic(), record.partition(), record.offset(), e);
+                }
+            }
         }
+        ingest(ticks);
+        if (log.isDebugEnabled() && !ticks.isEmpty() && batchLog.sample()) {
+            log.debug("Consumed and saved {} ticks (1 in {} batches logged)", ticks.size(), batchLog.getSampleEvery());
+        }
+    }
+
+    /**
+     * Persists the ticks with their rollups, then feeds the hot tick store,
+     * streaming indicators and subscribers and invalidates cached analyses.
+     * Ticks of one symbol must arrive in time order.
+     * <p>
+     * With the journal enabled, persisting means a local journal append and
+     * the rows reach the database shortly after.
+     */
+    public void ingest(List<Tick> ticks) {
+        if (ticks.isEmpty()) return;
+
+        // Let failures propagate so the batch is retried. Both paths store the
+        // ticks as they are, without an entity row per tick
+        if (tickJournalService.isEnabled()) {
+            tickJournalService.append(ticks);
+        } else {
+            metrics.getDbFlush().record(() -> historicalDataService.saveStockPrices(ticks));
+        }
+
+        // This path works on symbol IDs and epoch millis; only pushed updates allocate
+        for (Tick tick : ticks) {
+            long epochMillis = tick.getEpochMillis();
+            tickStoreService.append(tick.getSymbolId(), epochMillis, tick.getPrice(), tick.getVolume());
+            IndicatorState state = indicatorEngineService.onTick(tick.getSymbolId(), tick.getPrice(), epochMillis);
+            analysisResultCache.invalidate(tick.getSymbolId());
+            String symbol = symbols.symbol(tick.getSymbolId());
+            if (quoteBroadcastService.hasSubscribers(symbol)) {
+                quoteBroadcastService.publish(toUpdate(symbol, tick, state));
+            }
+        }
+    }
+
+    private static QuoteUpdate toUpdate(String symbol, Tick tick, IndicatorState state) {
+        boolean warm = state.isWarm();
+        return new QuoteUpdate(symbol, tick.getPrice(), tick.getVolume(),
+                Timestamps.fromEpochMicros(tick.getEpochMicros()),
+                warm ? state.getRsi() : null,
+                warm ? state.getMacdLine() : null,
+                warm ? state.getMacdHistogram() : null);
     }
 }
@@ -1,57 +1,173 @@
 package org.example.realtime.service;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.realtime.concurrent.Bulkhead;
+import org.example.realtime.metrics.PipelineMetrics;
+import org.example.realtime.model.Quote;
+import org.example.realtime.provider.ProviderClient;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.concurrent.RejectedExecutionException;
 
+@Slf4j
 @Service
 public class StockPriceService {
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final Map<String, Double> lastPrices = new HashMap<>();
-    private final Map<String, LocalDateTime> lastFetchTimes = new HashMap<>();
-    private static final int RATE_LIMIT_SECONDS = 5; // Minimum time between requests for the same symbol
+    private final ProviderClient provider;
+    private final String baseUrl;
+    private final PipelineMetrics metrics;
+    private final Bulkhead refreshExecutor;
+
+    // Bounded W-TinyLFU cache. Entries older than the TTL are returned at once
+    // and refreshed in the background by a single loader per symbol; a failed
+    // refresh, including one rejected by the provider's open circuit, keeps
+    // the previous quote.
+    private final LoadingCache<String, Quote> quotes;
+
+    public StockPriceService(@Qualifier("yahooProvider") ProviderClient provider,
+                             PipelineMetrics metrics,
+                             @Value("${provider.yahoo.base-url:https://query1.finance.yahoo.com}") String baseUrl,
+                             @Value("${quote.cache.max-size:10000}") long maxSize,
+                             @Value("${quote.cache.ttl-seconds:5}") long ttlSeconds,
+                             @Value("${quote.cache.max-stale-seconds:600}") long maxStaleSeconds,
+                             @Value("${quote.cache.refresh-threads:4}") int refreshThreads,
+                             @Value("${quote.cache.refresh-queue:1000}") int refreshQueue) {
+        this.provider = provider;
+        this.baseUrl = baseUrl;
+        this.metrics = metrics;
+        // Bounded so a stalled provider cannot queue refreshes without limit
+        this.refreshExecutor = new Bulkhead("quote-refresh", refreshThreads, refreshQueue);
+        this.quotes = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .refreshAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .expireAfterWrite(Duration.ofSeconds(maxStaleSeconds))
+                .executor(refreshExecutor)
+                .recordStats()
+                .build(this::fetchQuote);
+        metrics.monitorCache(quotes, "quotes");
+    }
 
     public Double getPrice(String symbol) {
         try {
-            // Check if we need to wait before making another request
-            LocalDateTime lastFetch = lastFetchTimes.get(symbol);
-            if (lastFetch != null) {
-                LocalDateTime now = LocalDateTime.now();
-                long secondsSinceLastFetch = ChronoUnit.SECONDS.between(lastFetch, now);
-                if (secondsSinceLastFetch < RATE_LIMIT_SECONDS) {
-                    // Return cached price if available
-                    return lastPrices.getOrDefault(symbol, 0.0);
-                }
-            }
+            return getQuote(symbol).getPrice();
+        } catch (Exception e) {
+            log.warn("Error fetching price for {}: {}", symbol, e.getMessage());
+            return 0.0;
+        }
+    }
 
-            String url = "https://query1.finance.yahoo.com/v8/finance/chart/" + symbol;
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-            
-            if (response != null && response.containsKey("chart")) {
-                Map<String, Object> chart = (Map<String, Object>) response.get("chart");
-                Map<String, Object> result = (Map<String, Object>) ((List<?>) chart.get("result")).get(0);
-                Map<String, Object> meta = (Map<String, Object>) result.get("meta");
-                double price = (double) meta.get("regularMarketPrice");
-                
-                // Update cache and last fetch time
-                lastPrices.put(symbol, price);
-                lastFetchTimes.put(symbol, LocalDateTime.now());
-                
-                return price;
+    /**
+     * Returns the cached quote, loading it from Yahoo Finance when missing.
+     * A quote older than the TTL is returned as is while it refreshes. Throws
+     * if no quote has ever been loaded.
+     */
+    public Quote getQuote(String symbol) {
+        Quote quote = quotes.get(symbol);
+        if (quote == null) {
+            throw new IllegalStateException("No quote available for " + symbol);
+        }
+        return quote;
+    }
+
+    /**
+     * Returns the cached quote without waiting on Yahoo Finance, or null when
+     * none is cached yet; a missing or expired quote is then loaded in the
+     * background. Used on request paths, which must not block on the provider.
+     */
+    public Quote peekQuote(String symbol) {
+        Quote quote = quotes.getIfPresent(symbol);
+        if (quote == null) {
+            try {
+                quotes.refresh(symbol);
+            } catch (RejectedExecutionException e) {
+                // Refresh pool saturated; a later request retries
             }
-            return lastPrices.getOrDefault(symbol, 0.0);
-        } catch (Exception e) {
-            System.err.println("Error fetching price for " + symbol + ": " + e.getMessage());
-            // Return cached price if available, otherwise 0.0
-            return lastPrices.getOrDefault(symbol, 0.0);
         }
+        return quote;
+    }
+
+    /**
+     * Fetches a fresh quote on the calling thread and caches it. Used by the
+     * producer, which must not publish a stale cached quote.
+     */
+    public Quote refreshQuote(String symbol) {
+        Quote quote = fetchQuote(symbol);
+        quotes.put(symbol, quote);
+        return quote;
     }
 
     public Map<String, Double> getLastPrices() {
-        return new HashMap<>(lastPrices);
+        Map<String, Double> prices = new HashMap<>();
+        quotes.asMap().forEach((symbol, quote) -> prices.put(symbol, quote.getPrice()));
+        return prices;
+    }
+
+    public Map<String, Object> getCacheStats() {
+        CacheStats stats = quotes.stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("size", quotes.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("evictions", stats.evictionCount());
+        result.put("load_failures", stats.loadFailureCount());
+        result.put("hit_rate", stats.hitRate());
+        return result;
+    }
+
+    private Quote fetchQuote(String symbol) {
+        long started = System.nanoTime();
+        boolean success = false;
+        try {
+            Quote quote = requestQuote(symbol);
+            success = true;
+            return quote;
+        } finally {
+            metrics.recordFetch(System.nanoTime() - started, success);
+        }
+    }
+
+    private Quote requestQuote(String symbol) {
+        String url = baseUrl + "/v8/finance/chart/" + symbol;
+        Map<String, Object> response = provider.get(url, Map.class);
+
+        double price;
+        Map<String, Object> meta;
+        try {
+            Map<String, Object> chart = (Map<String, Object>) response.get("chart");
+            Map<String, Object> result = (Map<String, Object>) ((List<?>) chart.get("result")).get(0);
+            meta = (Map<String, Object>) result.get("meta");
+            price = ((Number) meta.get("regularMarketPrice")).doubleValue();
+        } catch (RuntimeException e) {
+            metrics.parseFailure("quote");
+            throw new IllegalStateException("Unexpected quote response for " + symbol, e);
+        }
+        return new Quote(
+                symbol,
+                price,
+                number(meta, "regularMarketVolume", 0.0),
+                number(meta, "regularMarketDayHigh", price),
+                number(meta, "regularMarketDayLow", price),
+                number(meta, "regularMarketOpen", price),
+                number(meta, "chartPreviousClose", price),
+                LocalDateTime.now());
+    }
+
+    private static double number(Map<String, Object> meta, String key, double fallback) {
+        Object value = meta.get(key);
+        return value instanceof Number ? ((Number) value).doubleValue() : fallback;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdown();
     }
 }
@@ -1,24 +1,27 @@
 package org.example.realtime.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.kafka.clients.producer.ProducerRecord;
+import lombok.extern.slf4j.Slf4j;
+import org.example.realtime.metrics.LogSampler;
+import org.example.realtime.model.Quote;
 import org.example.realtime.model.StockPrice;
+import org.example.realtime.provider.ProviderClient;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
 
+@Slf4j
 @Service
 public class StockProducerService {
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final KafkaTemplate<String, StockPrice> kafkaTemplate;
+    private final ProviderClient alphaVantage;
+    private final LogSampler sentLog;
     private List<String> allSymbols = new ArrayList<>();
 
     @Value("${stock.topic.name:stock-prices}")
@@ -27,18 +30,28 @@ public class StockProducerService {
     @Value("${alpha.vantage.api.key}")
     private String apiKey;
 
-    public StockProducerService(KafkaTemplate<String, String> kafkaTemplate) {
+    @Value("${provider.alpha-vantage.base-url:https://www.alphavantage.co}")
+    private String alphaVantageBaseUrl;
+
+    public StockProducerService(KafkaTemplate<String, StockPrice> kafkaTemplate,
+                                @Qualifier("alphaVantageProvider") ProviderClient alphaVantage,
+                                @Value("${pipeline.log.sample-every:1000}") long logSampleEvery) {
         this.kafkaTemplate = kafkaTemplate;
+        this.alphaVantage = alphaVantage;
+        this.sentLog = new LogSampler(logSampleEvery);
     }
 
     @Autowired
     private StockPriceService stockPriceService;
 
+    @Autowired
+    private PriceFetchScheduler priceFetchScheduler;
+
     @Scheduled(fixedRate = 60000) // Update symbols list every minute
     public void updateSymbolsList() {
         try {
-            String url = "https://www.alphavantage.co/query?function=LISTING_STATUS&apikey=" + apiKey;
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
+            String url = alphaVantageBaseUrl + "/query?function=LISTING_STATUS&apikey=" + apiKey;
+            Map<String, Object> response = alphaVantage.get(url, Map.class);
             
             if (response != null && response.containsKey("data")) {
                 List<Map<String, String>> data = (List<Map<String, String>>) response.get("data");
@@ -46,40 +59,42 @@ public class StockProducerService {
                     .map(item -> item.get("symbol"))
                     .filter(Objects::nonNull)
                     .toList();
-                System.out.println("Updated symbols list. Total symbols: " + allSymbols.size());
+                log.info("Updated symbols list. Total symbols: {}", allSymbols.size());
             }
         } catch (Exception e) {
-            System.err.println("Failed to update symbols list: " + e.getMessage());
+            log.warn("Failed to update symbols list: {}", e.getMessage());
         }
     }
 
-    @Scheduled(fixedRate = 10000) // Send data every 10 seconds
+    @Scheduled(fixedRateString = "${fetch.cycle-ms:1000}")
     public void sendStockPrice() {
         if (allSymbols.isEmpty()) {
             updateSymbolsList();
             return;
         }
 
-        // Process a batch of symbols each time
-        int batchSize = 5; // Process 5 symbols at a time to respect API limits
-        int startIndex = (int) (System.currentTimeMillis() / 10000) % allSymbols.size();
-        
-        for (int i = 0; i < batchSize; i++) {
-            int index = (startIndex + i) % allSymbols.size();
-            String symbol = allSymbols.get(index);
-            Double price = stockPriceService.getPrice(symbol);
-
-            if (price == null) continue;
-
-            StockPrice stock = new StockPrice(symbol, price, 0.0, 0.0, 0.0, price, price, price, price);
-            try {
-                String message = objectMapper.writeValueAsString(stock);
-                String cleanTopic = StringUtils.trimAllWhitespace(topic);
-                kafkaTemplate.send(cleanTopic, symbol, message);
-                System.out.println("Sent live data: " + message);
-            } catch (Exception e) {
-                System.err.println("Failed to send message to Kafka: " + e.getMessage());
+        // Fetches run concurrently under the scheduler's in-flight and rate limits
+        priceFetchScheduler.dispatch(allSymbols, this::fetchAndSend);
+    }
+
+    private void fetchAndSend(String symbol) {
+        // Always fetch; a stale cached quote would be republished as a new tick
+        Quote quote = stockPriceService.refreshQuote(symbol);
+        double price = quote.getPrice();
+        double change = price - quote.getPreviousClose();
+        double changePercent = quote.getPreviousClose() != 0 ? change / quote.getPreviousClose() * 100 : 0.0;
+
+        StockPrice stock = new StockPrice(symbol, price, quote.getVolume(), change, changePercent,
+                quote.getHigh(), quote.getLow(), quote.getOpen(), quote.getPreviousClose());
+        try {
+            // Encoded by StockPriceSerializer in the configured wire format
+            String cleanTopic = StringUtils.trimAllWhitespace(topic);
+            kafkaTemplate.send(cleanTopic, symbol, stock);
+            if (log.isDebugEnabled() && sentLog.sample()) {
+                log.debug("Sent live data (1 in {} logged): {}", sentLog.getSampleEvery(), stock);
             }
+        } catch (Exception e) {
+            log.warn("Failed to send message to Kafka: {}", e.getMessage());
         }
     }
 
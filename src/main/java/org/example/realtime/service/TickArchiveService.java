@@ -0,0 +1,267 @@
+package org.example.realtime.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.realtime.analysis.Timestamps;
+import org.example.realtime.archive.TickArchiveCodec;
+import org.example.realtime.archive.TickColumns;
+import org.example.realtime.model.HistoricalStockPrice;
+import org.example.realtime.model.Tick;
+import org.example.realtime.repository.HistoricalStockPriceRepository;
+import org.example.realtime.symbol.SymbolDictionary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Cold tier: each closed symbol-day is sealed into one immutable columnar file
+ * under {@code archive.dir/<SYMBOL>/<yyyy-MM-dd>.tka} and read back through a
+ * memory-mapped channel. Once a sealed day is older than
+ * {@code archive.db-retention-days} its rows are deleted from the database and
+ * the file becomes the day's primary copy; ticks that arrive for such a day
+ * later stay in the database until the next run folds them into the file.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TickArchiveService {
+
+    private static final String EXTENSION = ".tka";
+    private static final Pattern SAFE_SYMBOL = Pattern.compile("[A-Za-z0-9.^=_-]{1,32}");
+
+    // Ids per DELETE statement when purging a sealed day
+    private static final int DELETE_BATCH = 5000;
+
+    private final HistoricalStockPriceRepository repository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${archive.dir:./data/archive}")
+    private String archiveDir;
+
+    @Value("${archive.seal-after-days:1}")
+    private int sealAfterDays;
+
+    @Value("${archive.lookback-days:7}")
+    private int lookbackDays;
+
+    @Value("${archive.db-retention-days:30}")
+    private int dbRetentionDays;
+
+    // Seals recent closed days that have not been archived yet, then moves days
+    // past the retention window (and late rows for them) out of the database
+    @Scheduled(cron = "${archive.cron:0 30 0 * * *}")
+    public void sealClosedDays() {
+        LocalDate newest = LocalDate.now().minusDays(sealAfterDays);
+        for (LocalDate day = newest.minusDays(lookbackDays - 1L); !day.isAfter(newest); day = day.plusDays(1)) {
+            try {
+                for (String symbol : repository.findDistinctSymbolsBetween(day.atStartOfDay(),
+                        day.plusDays(1).atStartOfDay())) {
+                    if (!isSealed(symbol, day)) {
+                        seal(symbol, day);
+                    }
+                }
+            } catch (Exception e) {
+                log.error("Failed to seal archive for {}: {}", day, e.getMessage());
+            }
+        }
+
+        LocalDate horizon = archivedBefore();
+        LocalDateTime oldest = repository.findOldestTimestampBefore(horizon.atStartOfDay());
+        if (oldest == null) return;
+        for (LocalDate day = oldest.toLocalDate(); day.isBefore(horizon); day = day.plusDays(1)) {
+            try {
+                for (String symbol : repository.findDistinctSymbolsBetween(day.atStartOfDay(),
+                        day.plusDays(1).atStartOfDay())) {
+                    seal(symbol, day);
+                }
+            } catch (Exception e) {
+                log.error("Failed to archive {}: {}", day, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Writes the day's database rows, merged with any file already sealed for
+     * it, into a new file. For days before {@link #archivedBefore()} the rows
+     * written are then deleted in one transaction; rows inserted meanwhile are
+     * left for the next run.
+     */
+    public void seal(String symbol, LocalDate day) throws IOException {
+        List<HistoricalStockPrice> rows = repository.findBySymbolAndTimestampBetweenOrderByTimestampAsc(
+                symbol, day.atStartOfDay(), day.plusDays(1).atStartOfDay().minusNanos(1));
+        if (rows.isEmpty()) return;
+
+        List<HistoricalStockPrice> merged = rows;
+        if (isSealed(symbol, day)) {
+            List<HistoricalStockPrice> archived = new ArrayList<>();
+            readInto(symbol, day, day.atStartOfDay(), day.plusDays(1).atStartOfDay(), archived);
+            merged = merge(archived, rows);
+        }
+
+        int count = merged.size();
+        long[] timestamps = new long[count];
+        double[] prices = new double[count];
+        double[] volumes = new double[count];
+        for (int i = 0; i < count; i++) {
+            HistoricalStockPrice row = merged.get(i);
+            timestamps[i] = Timestamps.toEpochMicros(row.getTimestamp());
+            prices[i] = row.getPrice();
+            volumes[i] = row.getVolume();
+        }
+
+        // Write to a temp file and rename so readers never see a partial file
+        Path target = pathFor(symbol, day);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), day.toString(), ".tmp");
+        try {
+            Files.write(temp, TickArchiveCodec.encode(timestamps, prices, volumes, count));
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        if (day.isBefore(archivedBefore())) {
+            List<Long> ids = rows.stream().map(HistoricalStockPrice::getId).toList();
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int from = 0; from < ids.size(); from += DELETE_BATCH) {
+                    repository.deleteArchived(symbol, day.atStartOfDay(), day.plusDays(1).atStartOfDay(),
+                            ids.subList(from, Math.min(ids.size(), from + DELETE_BATCH)));
+                }
+            });
+        }
+    }
+
+    /**
+     * First day whose rows are still kept in the database. Earlier days are
+     * served from their files, merged with any late rows.
+     */
+    public LocalDate archivedBefore() {
+        return LocalDate.now().minusDays(Math.max(dbRetentionDays, sealAfterDays));
+    }
+
+    public boolean isArchived(String symbol, LocalDate day) {
+        return day.isBefore(archivedBefore()) && isSealed(symbol, day);
+    }
+
+    /**
+     * Drops rows of archived days whose timestamp the day's file already holds,
+     * so a redelivered or reloaded tick is not stored a second time once its
+     * original row has left the database.
+     */
+    public List<HistoricalStockPrice> withoutArchived(List<HistoricalStockPrice> rows) {
+        return withoutArchived(rows, HistoricalStockPrice::getSymbol,
+                row -> Timestamps.toEpochMicros(row.getTimestamp()));
+    }
+
+    // Same for consumed ticks; only ticks older than the horizon are converted
+    public List<Tick> withoutArchivedTicks(List<Tick> ticks, SymbolDictionary symbols) {
+        return withoutArchived(ticks, tick -> symbols.symbol(tick.getSymbolId()), Tick::getEpochMicros);
+    }
+
+    private <T> List<T> withoutArchived(List<T> rows, Function<T, String> symbolOf, ToLongFunction<T> epochMicrosOf) {
+        long horizon = Timestamps.toEpochMicros(archivedBefore().atStartOfDay());
+        Map<String, long[]> files = null;
+        List<T> kept = null;
+        for (int i = 0; i < rows.size(); i++) {
+            T row = rows.get(i);
+            long epochMicros = epochMicrosOf.applyAsLong(row);
+            boolean archived = false;
+            if (epochMicros < horizon) {
+                if (files == null) files = new HashMap<>();
+                String symbol = symbolOf.apply(row);
+                LocalDate day = Timestamps.fromEpochMicros(epochMicros).toLocalDate();
+                long[] timestamps = files.computeIfAbsent(symbol + "/" + day,
+                        key -> isSealed(symbol, day) ? read(symbol, day).timestampsMicros() : null);
+                archived = timestamps != null && Arrays.binarySearch(timestamps, epochMicros) >= 0;
+            }
+            if (archived && kept == null) {
+                kept = new ArrayList<>(rows.subList(0, i));
+            } else if (!archived && kept != null) {
+                kept.add(row);
+            }
+        }
+        return kept != null ? kept : rows;
+    }
+
+    /**
+     * Merges two timestamp-ordered lists of one symbol's ticks, keeping the
+     * first of any two with the same timestamp.
+     */
+    public static List<HistoricalStockPrice> merge(List<HistoricalStockPrice> first,
+                                                   List<HistoricalStockPrice> second) {
+        if (second.isEmpty()) return first;
+        if (first.isEmpty()) return second;
+        List<HistoricalStockPrice> merged = new ArrayList<>(first.size() + second.size());
+        int i = 0;
+        int j = 0;
+        while (i < first.size() || j < second.size()) {
+            HistoricalStockPrice next;
+            if (j == second.size()) {
+                next = first.get(i++);
+            } else if (i == first.size()) {
+                next = second.get(j++);
+            } else {
+                int order = first.get(i).getTimestamp().compareTo(second.get(j).getTimestamp());
+                if (order == 0) j++;
+                next = order <= 0 ? first.get(i++) : second.get(j++);
+            }
+            if (merged.isEmpty() || !merged.get(merged.size() - 1).getTimestamp().equals(next.getTimestamp())) {
+                merged.add(next);
+            }
+        }
+        return merged;
+    }
+
+    public boolean isSealed(String symbol, LocalDate day) {
+        // Symbols come from request paths; never let them escape the archive dir
+        return SAFE_SYMBOL.matcher(symbol).matches() && Files.isRegularFile(pathFor(symbol, day));
+    }
+
+    public TickColumns read(String symbol, LocalDate day) {
+        try (FileChannel channel = FileChannel.open(pathFor(symbol, day), StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return TickArchiveCodec.decode(mapped);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Appends archived rows of one sealed day that fall within [start, end]
+    public void readInto(String symbol, LocalDate day, LocalDateTime start, LocalDateTime end,
+                         List<HistoricalStockPrice> out) {
+        TickColumns columns = read(symbol, day);
+        long startMicros = Timestamps.toEpochMicros(start);
+        long endMicros = Timestamps.toEpochMicros(end);
+        for (int i = 0; i < columns.size(); i++) {
+            long timestamp = columns.timestampsMicros()[i];
+            if (timestamp < startMicros || timestamp > endMicros) continue;
+            out.add(new HistoricalStockPrice(null, symbol, columns.prices()[i], columns.volumes()[i],
+                    Timestamps.fromEpochMicros(timestamp)));
+        }
+    }
+
+    private Path pathFor(String symbol, LocalDate day) {
+        return Paths.get(archiveDir, symbol, day + EXTENSION);
+    }
+}
@@ -0,0 +1,208 @@
+package org.example.realtime.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.realtime.journal.TickJournal;
+import org.example.realtime.metrics.PipelineMetrics;
+import org.example.realtime.model.Tick;
+import org.example.realtime.repository.JournalCheckpointRepository;
+import org.example.realtime.symbol.SymbolDictionary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Decouples ingest from MySQL: consumed ticks are appended to the local
+ * {@link TickJournal} and acknowledged to Kafka right away, and one drainer
+ * thread writes them to the database in large batches. While the database is
+ * slow or down the journal grows instead of the consumer stalling; only a
+ * full journal pushes back on the consumer.
+ * <p>
+ * The drained position is stored with the rows it covers, so after a crash
+ * the drainer resumes exactly where the last committed batch ended. Ticks
+ * can still be journaled twice: if the process dies after an append but
+ * before Kafka commits the offsets, the batch is redelivered. The drainer
+ * skips rows already stored, so such duplicates reach neither the tick table
+ * nor the bars.
+ * <p>
+ * The checkpoint is keyed by the journal's name. Unless {@code journal.name}
+ * is set, a random name is generated on first start and kept in
+ * {@value #ID_FILE} under the journal directory. A recreated instance that
+ * mounts the same directory therefore resumes the same journal.
+ */
+@Slf4j
+@Service
+public class TickJournalService {
+
+    static final String ID_FILE = "journal.id";
+
+    private final HistoricalDataService historicalDataService;
+    private final JournalCheckpointRepository checkpointRepository;
+    private final SymbolDictionary symbols;
+    private final PipelineMetrics metrics;
+    private final boolean enabled;
+    private final String configuredName;
+    private final Path directory;
+    private final int segmentBytes;
+    private final long maxBytes;
+    private final boolean sync;
+    private final int drainBatchSize;
+    private final long drainIntervalMillis;
+    private final long retryMaxMillis;
+
+    private final ExecutorService drainer;
+    private String name;
+    private TickJournal journal;
+    // Drainer thread only, except for the lag gauge
+    private volatile long drainedPosition;
+
+    public TickJournalService(HistoricalDataService historicalDataService,
+                              JournalCheckpointRepository checkpointRepository,
+                              SymbolDictionary symbols,
+                              PipelineMetrics metrics,
+                              @Value("${journal.enabled:true}") boolean enabled,
+                              @Value("${journal.name:}") String name,
+                              @Value("${journal.dir:./data/journal}") String directory,
+                              @Value("${journal.segment-bytes:67108864}") int segmentBytes,
+                              @Value("${journal.max-bytes:4294967296}") long maxBytes,
+                              @Value("${journal.sync:false}") boolean sync,
+                              @Value("${journal.drain-batch-size:20000}") int drainBatchSize,
+                              @Value("${journal.drain-interval-ms:200}") long drainIntervalMillis,
+                              @Value("${journal.retry-max-ms:30000}") long retryMaxMillis) {
+        this.historicalDataService = historicalDataService;
+        this.checkpointRepository = checkpointRepository;
+        this.symbols = symbols;
+        this.metrics = metrics;
+        this.enabled = enabled;
+        this.configuredName = name;
+        this.directory = Path.of(directory).toAbsolutePath().normalize();
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        this.sync = sync;
+        this.drainBatchSize = drainBatchSize;
+        this.drainIntervalMillis = drainIntervalMillis;
+        this.retryMaxMillis = retryMaxMillis;
+        this.drainer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-drainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    void open() {
+        if (!enabled) return;
+        try {
+            name = configuredName.isBlank() ? storedName() : configuredName;
+            drainedPosition = checkpointRepository.findPosition(name);
+            journal = new TickJournal(directory.resolve(name), segmentBytes, maxBytes, sync, symbols,
+                    drainedPosition);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open tick journal in " + directory, e);
+        }
+        metrics.gauge("stock.journal.lag.bytes", "Journaled tick bytes not yet written to the database",
+                () -> journal.getWritePosition() - drainedPosition);
+        metrics.gauge("stock.journal.retained.bytes", "Bytes held in journal segments on disk",
+                () -> journal.getWritePosition() - journal.getStartPosition());
+        drainer.execute(this::drain);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Makes the ticks durable locally; they reach the database asynchronously.
+     *
+     * @throws IllegalStateException if the journal is full
+     */
+    public void append(List<Tick> ticks) {
+        journal.append(ticks);
+    }
+
+    private void drain() {
+        List<Tick> ticks = new ArrayList<>(drainBatchSize);
+        long backoffMillis = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            ticks.clear();
+            long next;
+            try {
+                next = journal.read(drainedPosition, drainBatchSize, ticks);
+            } catch (RuntimeException e) {
+                // Reading again from the same position fails the same way. The journal
+                // fills up and consumption stops, which the lag gauge shows
+                log.error("Tick journal {} is unreadable at {}; draining stopped", name, drainedPosition, e);
+                return;
+            }
+            try {
+                if (ticks.isEmpty()) {
+                    // Only segment padding was skipped; nothing to commit
+                    drainedPosition = next;
+                    Thread.sleep(drainIntervalMillis);
+                    continue;
+                }
+                metrics.getDbFlush().record(() -> historicalDataService.saveJournaled(ticks, name, next));
+                drainedPosition = next;
+                journal.release(next);
+                backoffMillis = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // The batch is read again from the same position after the pause, which
+                // also bounds how often this is logged
+                backoffMillis = Math.min(retryMaxMillis, Math.max(drainIntervalMillis, backoffMillis * 2));
+                log.warn("Failed to drain tick journal at {}, retrying in {} ms: {}",
+                        drainedPosition, backoffMillis, e.getMessage());
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    // Reuses the name of a journal created under a configured name, such as the
+    // former host name default, so upgrading does not orphan it
+    private String storedName() throws IOException {
+        Path idFile = directory.resolve(ID_FILE);
+        if (Files.exists(idFile)) {
+            return Files.readString(idFile).strip();
+        }
+        Files.createDirectories(directory);
+        List<Path> existing;
+        try (Stream<Path> children = Files.list(directory)) {
+            existing = children.filter(Files::isDirectory).toList();
+        }
+        String generated = existing.size() == 1
+                ? existing.get(0).getFileName().toString()
+                : UUID.randomUUID().toString();
+        Path temp = Files.writeString(directory.resolve(ID_FILE + ".tmp"), generated);
+        Files.move(temp, idFile, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Tick journal in {} is named {}", directory, generated);
+        return generated;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        drainer.shutdownNow();
+        if (journal != null) {
+            // An interrupted batch rolls back and is drained again on the next start
+            drainer.awaitTermination(10, TimeUnit.SECONDS);
+            journal.close();
+        }
+    }
+}
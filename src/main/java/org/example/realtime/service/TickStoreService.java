@@ -0,0 +1,100 @@
+package org.example.realtime.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.realtime.analysis.ListPriceWindow;
+import org.example.realtime.analysis.PriceWindow;
+import org.example.realtime.analysis.TickRingBuffer;
+import org.example.realtime.analysis.Timestamps;
+import org.example.realtime.symbol.SymbolDictionary;
+import org.example.realtime.symbol.SymbolTable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Hot tier for recent ticks. Windows fully covered by a symbol's ring buffer
+ * are served from memory; anything older falls back to the database.
+ */
+@Service
+@RequiredArgsConstructor
+public class TickStoreService {
+
+    private final HistoricalDataService historicalDataService;
+    private final SymbolDictionary symbols;
+
+    private final SymbolTable<TickRingBuffer> buffers = new SymbolTable<>();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+
+    // 30 days at one tick every 10 seconds
+    @Value("${tickstore.capacity-per-symbol:262144}")
+    private int capacityPerSymbol;
+
+    @Value("${tickstore.memory-budget-mb:1024}")
+    private long memoryBudgetMb;
+
+    // Eviction scans every symbol, so while over budget it runs at most this often
+    @Value("${tickstore.eviction-interval-ms:1000}")
+    private long evictionIntervalMs;
+
+    private volatile long lastEvictionNanos = System.nanoTime();
+
+    public void append(int symbolId, long epochMillis, double price, double volume) {
+        TickRingBuffer buffer = buffers.computeIfAbsent(symbolId,
+                key -> new TickRingBuffer(capacityPerSymbol, allocatedBytes));
+        buffer.append(epochMillis, price, volume);
+        if (allocatedBytes.get() > memoryBudgetMb * 1024 * 1024
+                && System.nanoTime() - lastEvictionNanos >= evictionIntervalMs * 1_000_000) {
+            evictColdSymbols();
+        }
+    }
+
+    public <T> T withWindow(String symbol, LocalDateTime start, LocalDateTime end,
+                            Function<PriceWindow, T> reader) {
+        long startMillis = Timestamps.toEpochMillis(start);
+        TickRingBuffer buffer = buffers.get(symbols.idOf(symbol));
+        if (buffer != null && buffer.covers(startMillis)) {
+            return buffer.read(startMillis, Timestamps.toEpochMillis(end), reader);
+        }
+        return reader.apply(new ListPriceWindow(historicalDataService.getPricesInRange(symbol, start, end)));
+    }
+
+    public boolean covers(String symbol, LocalDateTime start) {
+        TickRingBuffer buffer = buffers.get(symbols.idOf(symbol));
+        return buffer != null && buffer.covers(Timestamps.toEpochMillis(start));
+    }
+
+    public void evict(int symbolId) {
+        TickRingBuffer removed = buffers.remove(symbolId);
+        if (removed != null) {
+            removed.detach();
+        }
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    // Drops least recently touched symbols until usage is back under budget
+    private synchronized void evictColdSymbols() {
+        long now = System.nanoTime();
+        if (now - lastEvictionNanos < evictionIntervalMs * 1_000_000) return;
+        lastEvictionNanos = now;
+        long budget = memoryBudgetMb * 1024 * 1024;
+        while (allocatedBytes.get() > budget) {
+            long[] coldest = {SymbolDictionary.UNKNOWN, Long.MAX_VALUE};
+            int[] count = {0};
+            buffers.forEach((buffer, symbolId) -> {
+                count[0]++;
+                if (buffer.getLastAccess() < coldest[1]) {
+                    coldest[0] = symbolId;
+                    coldest[1] = buffer.getLastAccess();
+                }
+            });
+            if (count[0] <= 1 || coldest[0] == SymbolDictionary.UNKNOWN) return;
+            evict((int) coldest[0]);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.realtime.streams;
+
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.KGroupedStream;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.state.WindowStore;
+import org.example.realtime.analysis.Timestamps;
+import org.example.realtime.model.BarResolution;
+import org.example.realtime.model.StockPrice;
+import org.example.realtime.model.WindowAggregate;
+import org.example.realtime.serialization.StockPriceDeserializer;
+import org.example.realtime.serialization.StockPriceSerializer;
+import org.example.realtime.serialization.WindowAggregateSerde;
+
+import java.time.Duration;
+
+/**
+ * Per-symbol OHLCV/VWAP window aggregates over the tick topic, materialized
+ * in RocksDB window stores for interactive queries. Built on a plain
+ * StreamsBuilder so it runs the same under TopologyTestDriver as in the app.
+ */
+public final class PriceAggregationTopology {
+
+    public static final String MINUTE_STORE = "price-aggregates-1m";
+    public static final String HOUR_STORE = "price-aggregates-1h";
+    public static final String DAY_STORE = "price-aggregates-1d";
+    // Hopping 24h windows advancing hourly: a rolling day updated every hour
+    public static final String ROLLING_DAY_STORE = "price-aggregates-24h-rolling";
+
+    public static final Duration ROLLING_DAY_ADVANCE = Duration.ofHours(1);
+    public static final Duration GRACE = Duration.ofSeconds(30);
+
+    // Retention covers the longest window StockAnalysisService reads at each
+    // resolution; BarResolution.coarsestFor switches to the next one before that
+    private static final Duration MINUTE_RETENTION = Duration.ofDays(2);
+    private static final Duration HOUR_RETENTION = Duration.ofDays(21);
+    private static final Duration DAY_RETENTION = Duration.ofDays(400);
+
+    private PriceAggregationTopology() {
+    }
+
+    public static String storeFor(BarResolution resolution) {
+        return switch (resolution) {
+            case MINUTE -> MINUTE_STORE;
+            case HOUR -> HOUR_STORE;
+            case DAY -> DAY_STORE;
+        };
+    }
+
+    /**
+     * Adds the aggregation to {@code builder} and returns the source stream.
+     */
+    public static KStream<String, StockPrice> build(StreamsBuilder builder, String topic) {
+        Serde<StockPrice> stockPriceSerde = Serdes.serdeFrom(new StockPriceSerializer(), new StockPriceDeserializer());
+        KStream<String, StockPrice> prices = builder.stream(topic,
+                Consumed.with(Serdes.String(), stockPriceSerde)
+                        .withTimestampExtractor(new StockPriceTimestampExtractor()));
+
+        // Producers key records by symbol, so no repartition is needed. A JSON
+        // tick may carry a null timestamp; it has no window, and an exception
+        // in the aggregator would stop the stream thread
+        KGroupedStream<String, StockPrice> bySymbol = prices
+                .filter((symbol, stock) -> symbol != null && stock != null && stock.getTimestamp() != null)
+                .groupByKey(Grouped.with(Serdes.String(), stockPriceSerde));
+
+        aggregate(bySymbol, TimeWindows.ofSizeAndGrace(Duration.ofMinutes(1), GRACE), MINUTE_STORE, MINUTE_RETENTION);
+        aggregate(bySymbol, TimeWindows.ofSizeAndGrace(Duration.ofHours(1), GRACE), HOUR_STORE, HOUR_RETENTION);
+        aggregate(bySymbol, TimeWindows.ofSizeAndGrace(Duration.ofDays(1), GRACE), DAY_STORE, DAY_RETENTION);
+        aggregate(bySymbol, TimeWindows.ofSizeAndGrace(Duration.ofDays(1), GRACE).advanceBy(ROLLING_DAY_ADVANCE),
+                ROLLING_DAY_STORE, Duration.ofDays(2));
+        return prices;
+    }
+
+    private static void aggregate(KGroupedStream<String, StockPrice> bySymbol, TimeWindows windows,
+                                  String store, Duration retention) {
+        bySymbol.windowedBy(windows).aggregate(
+                WindowAggregate::new,
+                (symbol, stock, aggregate) -> aggregate.add(stock.getPrice(), stock.getVolume(),
+                        Timestamps.toEpochMillis(stock.getTimestamp())),
+                Materialized.<String, WindowAggregate, WindowStore<Bytes, byte[]>>as(store)
+                        .withKeySerde(Serdes.String())
+                        .withValueSerde(new WindowAggregateSerde())
+                        .withRetention(retention));
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.realtime.streams;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.streams.processor.TimestampExtractor;
+import org.example.realtime.analysis.Timestamps;
+import org.example.realtime.model.StockPrice;
+
+/**
+ * Windows ticks by the time in the payload rather than the time they were
+ * produced, so replayed or late records land in the right window.
+ */
+public class StockPriceTimestampExtractor implements TimestampExtractor {
+
+    @Override
+    public long extract(ConsumerRecord<Object, Object> record, long partitionTime) {
+        if (record.value() instanceof StockPrice stock && stock.getTimestamp() != null) {
+            return Timestamps.toEpochMillis(stock.getTimestamp());
+        }
+        return record.timestamp() >= 0 ? record.timestamp() : partitionTime;
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.realtime.symbol;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Maps tickers to dense int IDs for the lifetime of the process. IDs are
+ * assigned on first sight and never reused, so per-symbol state can live in
+ * arrays indexed by ID. Lookups are lock-free; only new symbols take the lock.
+ * <p>
+ * Lookups by UTF-8 bytes let decoders resolve a known symbol without creating
+ * a String, and every ID maps back to one canonical String instance.
+ */
+@Component
+public class SymbolDictionary {
+
+    public static final int UNKNOWN = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    // Open-addressing table keyed by the symbol's UTF-8 bytes, kept at most half full
+    private volatile AtomicReferenceArray<Entry> table = new AtomicReferenceArray<>(INITIAL_CAPACITY * 2);
+    private volatile String[] symbols = new String[INITIAL_CAPACITY];
+    private int size;
+
+    public int intern(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : add(symbol);
+    }
+
+    public int intern(byte[] utf8, int offset, int length) {
+        int hash = hash(utf8, offset, length);
+        AtomicReferenceArray<Entry> current = table;
+        int mask = current.length() - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            Entry entry = current.get(slot);
+            if (entry == null) break;
+            if (entry.hash == hash && entry.matches(utf8, offset, length)) return entry.id;
+        }
+        return add(new String(utf8, offset, length, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the symbol's ID without assigning one, or {@link #UNKNOWN}.
+     */
+    public int idOf(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : UNKNOWN;
+    }
+
+    public String symbol(int id) {
+        String[] current = symbols;
+        if (id < 0 || id >= current.length || current[id] == null) {
+            throw new IllegalArgumentException("Unknown symbol id: " + id);
+        }
+        return current[id];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized int add(String symbol) {
+        Integer existing = ids.get(symbol);
+        if (existing != null) return existing;
+
+        int id = size;
+        String[] names = symbols;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, id * 2);
+        }
+        names[id] = symbol;
+        symbols = names;
+
+        byte[] utf8 = symbol.getBytes(StandardCharsets.UTF_8);
+        AtomicReferenceArray<Entry> current = table;
+        if ((id + 1) * 2 > current.length()) {
+            current = resize(current);
+        }
+        insert(current, new Entry(utf8, hash(utf8, 0, utf8.length), id));
+        table = current;
+
+        size = id + 1;
+        // Published last: a reader that finds the ID also sees its name
+        ids.put(symbol, id);
+        return id;
+    }
+
+    private static AtomicReferenceArray<Entry> resize(AtomicReferenceArray<Entry> current) {
+        AtomicReferenceArray<Entry> resized = new AtomicReferenceArray<>(current.length() * 2);
+        for (int i = 0; i < current.length(); i++) {
+            Entry entry = current.get(i);
+            if (entry != null) insert(resized, entry);
+        }
+        return resized;
+    }
+
+    private static void insert(AtomicReferenceArray<Entry> target, Entry entry) {
+        int mask = target.length() - 1;
+        int slot = entry.hash & mask;
+        while (target.get(slot) != null) {
+            slot = (slot + 1) & mask;
+        }
+        target.set(slot, entry);
+    }
+
+    private static int hash(byte[] bytes, int offset, int length) {
+        int h = 1;
+        for (int i = offset; i < offset + length; i++) {
+            h = 31 * h + bytes[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Entry {
+        private final byte[] utf8;
+        private final int hash;
+        private final int id;
+
+        private Entry(byte[] utf8, int hash, int id) {
+            this.utf8 = utf8;
+            this.hash = hash;
+            this.id = id;
+        }
+
+        private boolean matches(byte[] bytes, int offset, int length) {
+            return Arrays.equals(utf8, 0, utf8.length, bytes, offset, offset + length);
+        }
+    }
+}
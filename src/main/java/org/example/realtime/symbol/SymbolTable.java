@@ -0,0 +1,90 @@
+package org.example.realtime.symbol;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Per-symbol values indexed by {@link SymbolDictionary} ID. Reads are a
+ * bounds check and an array load; writes are serialized, which is cheap
+ * because they only happen when a symbol first appears or is evicted.
+ */
+public class SymbolTable<V> {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private volatile AtomicReferenceArray<V> slots = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+
+    public V get(int id) {
+        AtomicReferenceArray<V> current = slots;
+        return id >= 0 && id < current.length() ? current.get(id) : null;
+    }
+
+    public V computeIfAbsent(int id, IntFunction<? extends V> factory) {
+        V value = get(id);
+        return value != null ? value : create(id, factory);
+    }
+
+    public synchronized V put(int id, V value) {
+        return ensureCapacity(id).getAndSet(id, value);
+    }
+
+    /**
+     * Replaces the value only if it is still {@code expected}.
+     */
+    public synchronized boolean replace(int id, V expected, V value) {
+        return ensureCapacity(id).compareAndSet(id, expected, value);
+    }
+
+    public synchronized V remove(int id) {
+        AtomicReferenceArray<V> current = slots;
+        return id >= 0 && id < current.length() ? current.getAndSet(id, null) : null;
+    }
+
+    /**
+     * Removes the value only if it is still {@code expected}.
+     */
+    public synchronized boolean remove(int id, V expected) {
+        AtomicReferenceArray<V> current = slots;
+        return id >= 0 && id < current.length() && current.compareAndSet(id, expected, null);
+    }
+
+    /**
+     * Visits a snapshot of the present values; concurrent changes may or may
+     * not be seen.
+     */
+    public void forEach(ObjIntConsumer<V> action) {
+        AtomicReferenceArray<V> current = slots;
+        for (int id = 0; id < current.length(); id++) {
+            V value = current.get(id);
+            if (value != null) action.accept(value, id);
+        }
+    }
+
+    private synchronized V create(int id, IntFunction<? extends V> factory) {
+        AtomicReferenceArray<V> current = ensureCapacity(id);
+        V value = current.get(id);
+        if (value == null) {
+            value = factory.apply(id);
+            current.set(id, value);
+        }
+        return value;
+    }
+
+    // Caller holds the lock
+    private AtomicReferenceArray<V> ensureCapacity(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative symbol id: " + id);
+        }
+        AtomicReferenceArray<V> current = slots;
+        if (id < current.length()) return current;
+        int capacity = current.length();
+        while (capacity <= id) capacity *= 2;
+        AtomicReferenceArray<V> grown = new AtomicReferenceArray<>(capacity);
+        for (int i = 0; i < current.length(); i++) {
+            grown.set(i, current.get(i));
+        }
+        slots = grown;
+        return grown;
+    }
+}
@@ -0,0 +1,31 @@
+-- Tables as previously created by hibernate ddl-auto=update. IF NOT EXISTS keeps
+-- this a no-op on databases that predate Flyway.
+
+CREATE TABLE IF NOT EXISTS historical_stock_prices (
+    id          BIGINT       NOT NULL,
+    symbol      VARCHAR(255) NOT NULL,
+    price       DOUBLE       NOT NULL,
+    volume      DOUBLE       NOT NULL,
+    timestamp   DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS id_generators (
+    generator_name VARCHAR(255) NOT NULL,
+    next_value     BIGINT,
+    PRIMARY KEY (generator_name)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS price_bars (
+    symbol       VARCHAR(16) NOT NULL,
+    resolution   VARCHAR(8)  NOT NULL,
+    bucket_start DATETIME(6) NOT NULL,
+    open_price   DOUBLE      NOT NULL,
+    high_price   DOUBLE      NOT NULL,
+    low_price    DOUBLE      NOT NULL,
+    close_price  DOUBLE      NOT NULL,
+    volume       DOUBLE      NOT NULL,
+    turnover     DOUBLE      NOT NULL,
+    tick_count   BIGINT      NOT NULL,
+    PRIMARY KEY (symbol, resolution, bucket_start)
+) ENGINE = InnoDB;
@@ -0,0 +1,22 @@
+-- Composite (symbol, timestamp) index for every per-symbol range query, and
+-- monthly RANGE partitioning on timestamp so retention can drop whole months.
+-- MySQL requires the partitioning column in every unique key, hence the
+-- (id, timestamp) primary key. PartitionMaintenanceService splits p_max into
+-- monthly partitions ahead of time.
+
+ALTER TABLE historical_stock_prices MODIFY id BIGINT NOT NULL;
+
+ALTER TABLE historical_stock_prices
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, timestamp),
+    ADD INDEX idx_symbol_timestamp (symbol, timestamp);
+
+ALTER TABLE historical_stock_prices
+    PARTITION BY RANGE (TO_DAYS(timestamp)) (
+        PARTITION p_max VALUES LESS THAN MAXVALUE
+    );
+
+-- Start the pooled id generator above any ids issued under IDENTITY
+INSERT INTO id_generators (generator_name, next_value)
+SELECT 'historical_stock_price_id', COALESCE(MAX(id), 0) + 1000 FROM historical_stock_prices
+ON DUPLICATE KEY UPDATE next_value = GREATEST(next_value, VALUES(next_value));
@@ -0,0 +1,13 @@
+-- User-defined alert rules evaluated by AlertingService on every tick
+
+CREATE TABLE alert_rules (
+    id             BIGINT      NOT NULL AUTO_INCREMENT,
+    symbol         VARCHAR(16) NOT NULL,
+    type           VARCHAR(16) NOT NULL,
+    direction      VARCHAR(8)  NOT NULL,
+    threshold      DOUBLE      NOT NULL,
+    window_minutes INT         NOT NULL,
+    created_at     DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_alert_rules_symbol (symbol)
+) ENGINE = InnoDB;
@@ -0,0 +1,9 @@
+-- Position up to which each instance's local tick journal has been written to
+-- historical_stock_prices; updated in the same transaction as the rows
+
+CREATE TABLE journal_checkpoints (
+    journal_name VARCHAR(255) NOT NULL,
+    position     BIGINT       NOT NULL,
+    updated_at   DATETIME(6)  NOT NULL,
+    PRIMARY KEY (journal_name)
+) ENGINE = InnoDB;
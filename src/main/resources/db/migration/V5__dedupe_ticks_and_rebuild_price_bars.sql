@@ -0,0 +1,84 @@
+-- One row per (symbol, timestamp): redelivered Kafka batches, journal replays and
+-- repeated backfills are skipped on insert instead of stored again. Rows already
+-- duplicated that way are removed first, keeping the oldest id.
+
+DELETE newer
+FROM historical_stock_prices newer
+JOIN historical_stock_prices older
+  ON older.symbol = newer.symbol
+ AND older.timestamp = newer.timestamp
+ AND older.id < newer.id;
+
+ALTER TABLE historical_stock_prices
+    DROP INDEX idx_symbol_timestamp,
+    ADD UNIQUE INDEX uk_symbol_timestamp (symbol, timestamp);
+
+-- Bars were only maintained for ticks ingested after they were introduced, and
+-- redeliveries counted some volume twice. Rebuild all of them from the raw ticks:
+-- minute bars from ticks, hour bars from minute bars, day bars from hour bars.
+-- price_bars.symbol is VARCHAR(16); longer symbols never had bars.
+
+DELETE FROM price_bars;
+
+INSERT INTO price_bars (symbol, resolution, bucket_start, open_price, high_price, low_price, close_price,
+                        volume, turnover, tick_count)
+SELECT symbol, 'MINUTE', bucket_start,
+       MAX(CASE WHEN first_rank = 1 THEN price END),
+       MAX(price),
+       MIN(price),
+       MAX(CASE WHEN last_rank = 1 THEN price END),
+       SUM(volume),
+       SUM(price * volume),
+       COUNT(*)
+FROM (
+    SELECT symbol, price, volume,
+           CAST(DATE_FORMAT(timestamp, '%Y-%m-%d %H:%i:00') AS DATETIME(6)) AS bucket_start,
+           ROW_NUMBER() OVER (bucket ORDER BY timestamp, id) AS first_rank,
+           ROW_NUMBER() OVER (bucket ORDER BY timestamp DESC, id DESC) AS last_rank
+    FROM historical_stock_prices
+    WHERE CHAR_LENGTH(symbol) <= 16
+    WINDOW bucket AS (PARTITION BY symbol, DATE_FORMAT(timestamp, '%Y-%m-%d %H:%i:00'))
+) ticks
+GROUP BY symbol, bucket_start;
+
+INSERT INTO price_bars (symbol, resolution, bucket_start, open_price, high_price, low_price, close_price,
+                        volume, turnover, tick_count)
+SELECT symbol, 'HOUR', hour_start,
+       MAX(CASE WHEN first_rank = 1 THEN open_price END),
+       MAX(high_price),
+       MIN(low_price),
+       MAX(CASE WHEN last_rank = 1 THEN close_price END),
+       SUM(volume),
+       SUM(turnover),
+       SUM(tick_count)
+FROM (
+    SELECT symbol, open_price, high_price, low_price, close_price, volume, turnover, tick_count,
+           CAST(DATE_FORMAT(bucket_start, '%Y-%m-%d %H:00:00') AS DATETIME(6)) AS hour_start,
+           ROW_NUMBER() OVER (hour_bucket ORDER BY bucket_start) AS first_rank,
+           ROW_NUMBER() OVER (hour_bucket ORDER BY bucket_start DESC) AS last_rank
+    FROM price_bars
+    WHERE resolution = 'MINUTE'
+    WINDOW hour_bucket AS (PARTITION BY symbol, DATE_FORMAT(bucket_start, '%Y-%m-%d %H:00:00'))
+) minutes
+GROUP BY symbol, hour_start;
+
+INSERT INTO price_bars (symbol, resolution, bucket_start, open_price, high_price, low_price, close_price,
+                        volume, turnover, tick_count)
+SELECT symbol, 'DAY', day_start,
+       MAX(CASE WHEN first_rank = 1 THEN open_price END),
+       MAX(high_price),
+       MIN(low_price),
+       MAX(CASE WHEN last_rank = 1 THEN close_price END),
+       SUM(volume),
+       SUM(turnover),
+       SUM(tick_count)
+FROM (
+    SELECT symbol, open_price, high_price, low_price, close_price, volume, turnover, tick_count,
+           CAST(DATE(bucket_start) AS DATETIME(6)) AS day_start,
+           ROW_NUMBER() OVER (day_bucket ORDER BY bucket_start) AS first_rank,
+           ROW_NUMBER() OVER (day_bucket ORDER BY bucket_start DESC) AS last_rank
+    FROM price_bars
+    WHERE resolution = 'HOUR'
+    WINDOW day_bucket AS (PARTITION BY symbol, DATE(bucket_start))
+) hours
+GROUP BY symbol, day_start;
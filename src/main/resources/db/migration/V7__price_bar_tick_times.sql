@@ -0,0 +1,75 @@
+-- Open and close follow event time: each bar keeps the times of its first and last
+-- tick, and a late or backfilled tick replaces open or close only when it is
+-- earlier or later than those. Existing bars take the times from their stored
+-- ticks; where the ticks are gone, the bucket bounds, so their open and close stand.
+
+ALTER TABLE price_bars
+    ADD COLUMN first_tick_at DATETIME(6) NULL,
+    ADD COLUMN last_tick_at  DATETIME(6) NULL;
+
+UPDATE price_bars bar
+JOIN (
+    SELECT symbol,
+           CAST(DATE_FORMAT(timestamp, '%Y-%m-%d %H:%i:00') AS DATETIME(6)) AS bucket_start,
+           MIN(timestamp) AS first_tick_at,
+           MAX(timestamp) AS last_tick_at
+    FROM historical_stock_prices
+    WHERE CHAR_LENGTH(symbol) <= 16
+    GROUP BY symbol, bucket_start
+) ticks
+  ON ticks.symbol = bar.symbol
+ AND ticks.bucket_start = bar.bucket_start
+SET bar.first_tick_at = ticks.first_tick_at,
+    bar.last_tick_at  = ticks.last_tick_at
+WHERE bar.resolution = 'MINUTE';
+
+UPDATE price_bars
+SET first_tick_at = bucket_start,
+    last_tick_at  = bucket_start + INTERVAL 1 MINUTE - INTERVAL 1 MICROSECOND
+WHERE resolution = 'MINUTE' AND first_tick_at IS NULL;
+
+UPDATE price_bars bar
+JOIN (
+    SELECT symbol,
+           CAST(DATE_FORMAT(bucket_start, '%Y-%m-%d %H:00:00') AS DATETIME(6)) AS hour_start,
+           MIN(first_tick_at) AS first_tick_at,
+           MAX(last_tick_at) AS last_tick_at
+    FROM price_bars
+    WHERE resolution = 'MINUTE'
+    GROUP BY symbol, hour_start
+) minutes
+  ON minutes.symbol = bar.symbol
+ AND minutes.hour_start = bar.bucket_start
+SET bar.first_tick_at = minutes.first_tick_at,
+    bar.last_tick_at  = minutes.last_tick_at
+WHERE bar.resolution = 'HOUR';
+
+UPDATE price_bars
+SET first_tick_at = bucket_start,
+    last_tick_at  = bucket_start + INTERVAL 1 HOUR - INTERVAL 1 MICROSECOND
+WHERE resolution = 'HOUR' AND first_tick_at IS NULL;
+
+UPDATE price_bars bar
+JOIN (
+    SELECT symbol,
+           CAST(DATE(bucket_start) AS DATETIME(6)) AS day_start,
+           MIN(first_tick_at) AS first_tick_at,
+           MAX(last_tick_at) AS last_tick_at
+    FROM price_bars
+    WHERE resolution = 'HOUR'
+    GROUP BY symbol, day_start
+) hours
+  ON hours.symbol = bar.symbol
+ AND hours.day_start = bar.bucket_start
+SET bar.first_tick_at = hours.first_tick_at,
+    bar.last_tick_at  = hours.last_tick_at
+WHERE bar.resolution = 'DAY';
+
+UPDATE price_bars
+SET first_tick_at = bucket_start,
+    last_tick_at  = bucket_start + INTERVAL 1 DAY - INTERVAL 1 MICROSECOND
+WHERE resolution = 'DAY' AND first_tick_at IS NULL;
+
+ALTER TABLE price_bars
+    MODIFY first_tick_at DATETIME(6) NOT NULL,
+    MODIFY last_tick_at  DATETIME(6) NOT NULL;
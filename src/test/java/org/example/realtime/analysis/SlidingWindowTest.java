@@ -0,0 +1,156 @@
+package org.example.realtime.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Drives the window the way AlertingService does (evict, read, add) and
+ * checks every statistic against a recomputation over the ticks still inside
+ * the span.
+ */
+class SlidingWindowTest {
+
+    private static final long SPAN = 60_000;
+
+    @Test
+    void matchesRecomputationOnARandomWalk() {
+        Random random = new Random(7);
+        SlidingWindow window = new SlidingWindow(SPAN);
+        Reference reference = new Reference();
+        long timestamp = 1_700_000_000_000L;
+        double price = 100.0;
+        for (int i = 0; i < 20_000; i++) {
+            // Bursts fill the window past its initial capacity; long gaps empty it
+            int gap = random.nextInt(100);
+            timestamp += gap < 80 ? random.nextInt(50) : gap < 99 ? random.nextInt(5_000) : 2 * SPAN;
+            price = Math.max(0.01, price + random.nextGaussian() * 0.3);
+            double volume = random.nextInt(1_000);
+
+            window.evict(timestamp);
+            reference.evict(timestamp);
+            assertMatches(window, reference);
+            window.add(timestamp, price, volume);
+            reference.add(timestamp, price, volume);
+        }
+    }
+
+    @Test
+    void keepsMinAndMaxThroughMonotonicRunsLongerThanTheDeques() {
+        SlidingWindow window = new SlidingWindow(SPAN);
+        Reference reference = new Reference();
+        long timestamp = 0;
+        // Rising then falling runs keep one deque growing past 16 elements while
+        // eviction advances its head, so the deque wraps around before it grows
+        for (int run = 0; run < 20; run++) {
+            for (int i = 0; i < 300; i++) {
+                timestamp += 100;
+                double price = run % 2 == 0 ? 100 + i : 400 - i;
+                window.evict(timestamp);
+                reference.evict(timestamp);
+                assertMatches(window, reference);
+                window.add(timestamp, price, 1);
+                reference.add(timestamp, price, 1);
+            }
+        }
+    }
+
+    @Test
+    void evictsTheOldestReturnWithItsPredecessor() {
+        SlidingWindow window = new SlidingWindow(SPAN);
+        window.add(0, 100, 1);
+        window.add(10_000, 110, 1);
+        window.add(20_000, 99, 1);
+
+        assertThat(window.returnCount()).isEqualTo(2);
+        assertThat(window.returnMean()).isCloseTo((0.10 - 0.10) / 2, within(1e-12));
+
+        window.evict(70_001);
+
+        // Only 99 remains after the 110; the 10% rise left with the 100
+        assertThat(window.size()).isEqualTo(1);
+        assertThat(window.returnCount()).isZero();
+        assertThat(window.returnMean()).isNaN();
+        assertThat(window.minPrice()).isEqualTo(99);
+        assertThat(window.lastPrice()).isEqualTo(99);
+    }
+
+    @Test
+    void emptiesCompletelyAfterAGap() {
+        SlidingWindow window = new SlidingWindow(SPAN);
+        for (int i = 0; i < 100; i++) {
+            window.add(i, 50 + i, 10);
+        }
+
+        window.evict(10 * SPAN);
+
+        assertThat(window.size()).isZero();
+        assertThat(window.minPrice()).isNaN();
+        assertThat(window.maxPrice()).isNaN();
+        assertThat(window.averageVolume()).isNaN();
+        assertThat(window.returnStdDev()).isNaN();
+        // Still the reference for the next tick's return
+        assertThat(window.lastPrice()).isEqualTo(149);
+    }
+
+    @Test
+    void dequeWrapsAroundAndGrowsInOrder() {
+        LongDeque deque = new LongDeque();
+        long next = 0;
+        long expectedFirst = 0;
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 13; i++) deque.addLast(next++);
+            for (int i = 0; i < 10; i++) assertThat(deque.pollFirst()).isEqualTo(expectedFirst++);
+        }
+        assertThat(deque.peekFirst()).isEqualTo(expectedFirst);
+        assertThat(deque.peekLast()).isEqualTo(next - 1);
+        assertThat(deque.pollLast()).isEqualTo(next - 1);
+        while (!deque.isEmpty()) assertThat(deque.pollFirst()).isEqualTo(expectedFirst++);
+        assertThat(expectedFirst).isEqualTo(next - 1);
+    }
+
+    private static void assertMatches(SlidingWindow window, Reference reference) {
+        assertThat(window.size()).isEqualTo(reference.ticks.size());
+        if (reference.ticks.isEmpty()) {
+            assertThat(window.minPrice()).isNaN();
+            assertThat(window.maxPrice()).isNaN();
+            return;
+        }
+        assertThat(window.minPrice()).isEqualTo(reference.ticks.stream().mapToDouble(t -> t[1]).min().orElseThrow());
+        assertThat(window.maxPrice()).isEqualTo(reference.ticks.stream().mapToDouble(t -> t[1]).max().orElseThrow());
+        double averageVolume = reference.ticks.stream().mapToDouble(t -> t[2]).average().orElseThrow();
+        assertThat(window.averageVolume()).isCloseTo(averageVolume, within(1e-6 * Math.max(1, averageVolume)));
+
+        double[] returns = reference.ticks.stream().skip(1).mapToDouble(t -> t[3]).toArray();
+        assertThat(window.returnCount()).isEqualTo(returns.length);
+        if (returns.length == 0) return;
+        double mean = 0;
+        for (double r : returns) mean += r;
+        mean /= returns.length;
+        double squares = 0;
+        for (double r : returns) squares += (r - mean) * (r - mean);
+        assertThat(window.returnMean()).isCloseTo(mean, within(1e-9));
+        assertThat(window.returnStdDev()).isCloseTo(Math.sqrt(squares / returns.length), within(1e-6));
+    }
+
+    // Ticks as {timestamp, price, volume, return against the previously added price}
+    private static final class Reference {
+        private final Deque<double[]> ticks = new ArrayDeque<>();
+        private double lastPrice = Double.NaN;
+
+        void evict(long now) {
+            while (!ticks.isEmpty() && ticks.peekFirst()[0] < now - SPAN) ticks.pollFirst();
+        }
+
+        void add(long timestamp, double price, double volume) {
+            double r = Double.isNaN(lastPrice) ? 0.0 : (price - lastPrice) / lastPrice;
+            ticks.addLast(new double[] {timestamp, price, volume, r});
+            lastPrice = price;
+        }
+    }
+}
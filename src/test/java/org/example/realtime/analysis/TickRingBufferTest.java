@@ -0,0 +1,61 @@
+package org.example.realtime.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Growth, wraparound and the memory accounting shared with the tick store.
+ */
+class TickRingBufferTest {
+
+    @Test
+    void chargesGrowthToTheSharedCounter() {
+        AtomicLong usage = new AtomicLong();
+        TickRingBuffer buffer = new TickRingBuffer(4096, usage);
+        long initial = usage.get();
+
+        long grown = 0;
+        for (int i = 0; i < 3000; i++) {
+            grown += buffer.append(i, 1.0, 1.0);
+        }
+
+        assertThat(grown).isPositive();
+        assertThat(usage.get()).isEqualTo(initial + grown).isEqualTo(buffer.allocatedBytes());
+    }
+
+    @Test
+    void detachedBufferReleasesItsBytesAndTakesNoMoreTicks() {
+        AtomicLong usage = new AtomicLong();
+        TickRingBuffer buffer = new TickRingBuffer(4096, usage);
+        for (int i = 0; i < 100; i++) {
+            buffer.append(i, 1.0, 1.0);
+        }
+
+        buffer.detach();
+        buffer.detach();
+        // A writer that fetched the buffer before it was evicted
+        for (int i = 100; i < 3000; i++) {
+            assertThat(buffer.append(i, 1.0, 1.0)).isZero();
+        }
+
+        assertThat(usage.get()).isZero();
+        assertThat(buffer.read(0, Long.MAX_VALUE, PriceWindow::size)).isEqualTo(100);
+    }
+
+    @Test
+    void overwritesTheOldestTicksOnceFull() {
+        TickRingBuffer buffer = new TickRingBuffer(1500);
+        for (int i = 0; i < 4000; i++) {
+            buffer.append(i, i, 1.0);
+        }
+
+        assertThat(buffer.getCoveredFrom()).isEqualTo(2500);
+        double oldest = buffer.read(0, Long.MAX_VALUE, window -> window.priceAt(0));
+        assertThat(oldest).isEqualTo(2500.0);
+        assertThat(buffer.read(3990, 3995, PriceWindow::size)).isEqualTo(6);
+        assertThat(buffer.covers(2499)).isFalse();
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.realtime.analysis;
+
+import org.example.realtime.model.BarResolution;
+import org.example.realtime.model.PriceBar;
+import org.example.realtime.model.WindowAggregate;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The combined pass must agree with the single-metric statistics on every
+ * kind of window the analysis endpoints read.
+ */
+class WindowKernelTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 9, 30);
+
+    @Test
+    void matchesSingleMetricsOnTickWindows() {
+        for (int size : new int[] {0, 1, 2, 3, 500}) {
+            TickRingBuffer buffer = new TickRingBuffer(1024);
+            Random random = new Random(size);
+            double price = 100.0;
+            for (int i = 0; i < size; i++) {
+                price = Math.max(0.01, price + random.nextGaussian());
+                buffer.append(i * 1_000L, price, random.nextInt(10_000));
+            }
+            buffer.read(Long.MIN_VALUE, Long.MAX_VALUE, window -> {
+                assertMatches(window);
+                return null;
+            });
+        }
+    }
+
+    @Test
+    void matchesSingleMetricsOnBarWindows() {
+        for (int size : new int[] {0, 1, 2, 3, 500}) {
+            Random random = new Random(size);
+            List<PriceBar> bars = new ArrayList<>();
+            double price = 100.0;
+            for (int i = 0; i < size; i++) {
+                price = Math.max(0.01, price + random.nextGaussian());
+                LocalDateTime bucket = START.plusMinutes(i);
+                double volume = random.nextInt(100_000);
+                bars.add(new PriceBar("AAPL", BarResolution.MINUTE, bucket, price, price, price, price, volume,
+                        price * volume, 1 + random.nextInt(50), bucket, bucket.plusSeconds(59)));
+            }
+            assertMatches(new BarPriceWindow(bars));
+        }
+    }
+
+    @Test
+    void matchesSingleMetricsOnAggregateWindows() {
+        for (int size : new int[] {0, 1, 2, 3, 500}) {
+            Random random = new Random(size);
+            List<WindowAggregate> aggregates = new ArrayList<>();
+            double price = 100.0;
+            for (int i = 0; i < size; i++) {
+                WindowAggregate aggregate = new WindowAggregate();
+                // An empty window reports zero volume per tick
+                int ticks = random.nextInt(5);
+                for (int t = 0; t < ticks; t++) {
+                    price = Math.max(0.01, price + random.nextGaussian());
+                    aggregate.add(price, random.nextInt(1_000), i * 60_000L + t);
+                }
+                if (ticks == 0) aggregate.setClosePrice(price);
+                aggregates.add(aggregate);
+            }
+            assertMatches(new AggregatePriceWindow(aggregates));
+        }
+    }
+
+    private static void assertMatches(PriceWindow window) {
+        WindowSummary summary = WindowKernel.summarize(window);
+        assertThat(summary.getCount()).isEqualTo(window.size());
+        assertThat(summary.getFirstPrice()).isEqualTo(window.isEmpty() ? null : window.priceAt(0));
+        assertThat(summary.getVolatility()).isEqualTo(WindowStatistics.returnVolatility(window));
+        assertThat(summary.getAverageVolume()).isEqualTo(WindowStatistics.averageVolume(window));
+    }
+}
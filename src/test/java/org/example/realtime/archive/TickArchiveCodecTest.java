@@ -0,0 +1,109 @@
+package org.example.realtime.archive;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Encodes columns and decodes them back; every value must survive bit for bit.
+ */
+class TickArchiveCodecTest {
+
+    @Test
+    void roundTripsARandomWalkDay() {
+        Random random = new Random(42);
+        int count = 50_000;
+        long[] timestamps = new long[count];
+        double[] prices = new double[count];
+        double[] volumes = new double[count];
+        long timestamp = 1_700_000_000_000_000L;
+        double price = 150.0;
+        for (int i = 0; i < count; i++) {
+            // Mostly regular spacing with occasional jitter and gaps, so every dod bucket is hit
+            int bucket = random.nextInt(100);
+            timestamp += bucket < 70 ? 1_000 : bucket < 85 ? 1_000 + random.nextInt(100)
+                    : bucket < 95 ? random.nextInt(4_000) : random.nextInt(10_000_000);
+            timestamps[i] = timestamp;
+            price = random.nextInt(4) == 0 ? price : Math.round((price + random.nextGaussian() * 0.05) * 100) / 100.0;
+            prices[i] = price;
+            volumes[i] = random.nextInt(3) == 0 ? volumes[Math.max(0, i - 1)] : random.nextInt(10_000);
+        }
+
+        TickColumns decoded = TickArchiveCodec.decode(
+                ByteBuffer.wrap(TickArchiveCodec.encode(timestamps, prices, volumes, count)));
+
+        assertThat(decoded.timestampsMicros()).containsExactly(timestamps);
+        assertThat(decoded.prices()).containsExactly(prices);
+        assertThat(decoded.volumes()).containsExactly(volumes);
+    }
+
+    @Test
+    void roundTripsEdgeValues() {
+        long[] timestamps = {Long.MIN_VALUE / 4, 0, 1, Long.MAX_VALUE / 4, Long.MAX_VALUE / 4};
+        double[] prices = {Double.NaN, -0.0, 0.0, Double.MAX_VALUE, Double.MIN_VALUE};
+        double[] volumes = {Double.NEGATIVE_INFINITY, 1e-300, 1e300, Double.POSITIVE_INFINITY, 3.0};
+
+        TickColumns decoded = TickArchiveCodec.decode(
+                ByteBuffer.wrap(TickArchiveCodec.encode(timestamps, prices, volumes, timestamps.length)));
+
+        assertThat(decoded.timestampsMicros()).containsExactly(timestamps);
+        for (int i = 0; i < prices.length; i++) {
+            assertThat(Double.doubleToRawLongBits(decoded.prices()[i]))
+                    .isEqualTo(Double.doubleToRawLongBits(prices[i]));
+            assertThat(Double.doubleToRawLongBits(decoded.volumes()[i]))
+                    .isEqualTo(Double.doubleToRawLongBits(volumes[i]));
+        }
+    }
+
+    @Test
+    void roundTripsEmptyAndSingleTickDays() {
+        TickColumns empty = TickArchiveCodec.decode(
+                ByteBuffer.wrap(TickArchiveCodec.encode(new long[0], new double[0], new double[0], 0)));
+        assertThat(empty.size()).isZero();
+
+        TickColumns single = TickArchiveCodec.decode(ByteBuffer.wrap(
+                TickArchiveCodec.encode(new long[] {123L}, new double[] {1.5}, new double[] {7.0}, 1)));
+        assertThat(single.timestampsMicros()).containsExactly(123L);
+        assertThat(single.prices()).containsExactly(1.5);
+        assertThat(single.volumes()).containsExactly(7.0);
+    }
+
+    @Test
+    void encodesOnlyTheFirstCountValues() {
+        long[] timestamps = {10, 20, 30, 40};
+        double[] prices = {1, 2, 3, 4};
+        double[] volumes = {5, 6, 7, 8};
+
+        TickColumns decoded = TickArchiveCodec.decode(
+                ByteBuffer.wrap(TickArchiveCodec.encode(timestamps, prices, volumes, 2)));
+
+        assertThat(decoded.timestampsMicros()).containsExactly(10, 20);
+        assertThat(decoded.prices()).containsExactly(1, 2);
+        assertThat(decoded.volumes()).containsExactly(5, 6);
+    }
+
+    @Test
+    void decodesFromTheBufferPosition() {
+        byte[] encoded = TickArchiveCodec.encode(new long[] {1, 2, 4}, new double[] {9, 9, 8},
+                new double[] {1, 1, 1}, 3);
+        ByteBuffer buffer = ByteBuffer.allocate(encoded.length + 7);
+        buffer.position(7);
+        buffer.put(encoded);
+        buffer.position(7);
+
+        TickColumns decoded = TickArchiveCodec.decode(buffer);
+
+        assertThat(decoded.timestampsMicros()).containsExactly(1, 2, 4);
+        assertThat(decoded.prices()).containsExactly(9, 9, 8);
+    }
+
+    @Test
+    void rejectsForeignData() {
+        assertThatThrownBy(() -> TickArchiveCodec.decode(ByteBuffer.wrap(new byte[TickArchiveCodec.HEADER_BYTES])))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,249 @@
+package org.example.realtime.journal;
+
+import org.example.realtime.model.Tick;
+import org.example.realtime.symbol.SymbolDictionary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Appends, reads and reopens journals in a temp directory, with segments
+ * just large enough for one maximal record so that a few thousand ticks
+ * span several of them.
+ */
+class TickJournalTest {
+
+    private static final int SEGMENT =
+            TickJournal.HEADER_BYTES + TickJournal.FIXED_BODY_BYTES + TickJournal.MAX_SYMBOL_BYTES;
+    // Every tick here is for AAPL
+    private static final int RECORD = TickJournal.HEADER_BYTES + TickJournal.FIXED_BODY_BYTES + 4;
+    private static final int PER_SEGMENT = SEGMENT / RECORD;
+
+    @TempDir
+    Path dir;
+
+    private final SymbolDictionary symbols = new SymbolDictionary();
+    private int aapl;
+    private long nextMicros = 1_700_000_000_000_000L;
+
+    @BeforeEach
+    void setUp() {
+        aapl = symbols.intern("AAPL");
+    }
+
+    @Test
+    void readsBackAppendsAcrossSegmentBoundaries() throws IOException {
+        List<Tick> written = ticks(2 * PER_SEGMENT + 10);
+        try (TickJournal journal = open(0)) {
+            journal.append(written.subList(0, PER_SEGMENT - 5));
+            long end = journal.append(written.subList(PER_SEGMENT - 5, written.size()));
+
+            assertThat(segmentFiles()).hasSize(3);
+            // The first segment's unused tail is skipped, not counted
+            assertThat(end).isEqualTo(2L * SEGMENT + 10L * RECORD);
+            assertThat(readAll(journal, 0, 500)).containsExactlyElementsOf(written);
+        }
+    }
+
+    @Test
+    void failedAppendLeavesNothingBehind() throws IOException {
+        long end;
+        try (TickJournal journal = open(0)) {
+            end = journal.append(ticks(10));
+            // The append needs segments at SEGMENT and 2 * SEGMENT; the second cannot be created
+            Path blocker = Files.createFile(segmentPath(2L * SEGMENT));
+
+            assertThatThrownBy(() -> journal.append(ticks(2 * PER_SEGMENT)))
+                    .isInstanceOf(UncheckedIOException.class);
+
+            assertThat(journal.getWritePosition()).isEqualTo(end);
+            assertThat(segmentPath(SEGMENT)).doesNotExist();
+            Files.delete(blocker);
+            assertThat(readAll(journal, 0, 100)).hasSize(10);
+        }
+        try (TickJournal reopened = open(0)) {
+            assertThat(reopened.getWritePosition()).isEqualTo(end);
+        }
+    }
+
+    @Test
+    void cutsACorruptTailOnReopen() throws IOException {
+        List<Tick> written = ticks(100);
+        try (TickJournal journal = open(0)) {
+            journal.append(written);
+        }
+        flipByte(segmentPath(0), 99L * RECORD + RECORD - 1);
+
+        try (TickJournal reopened = open(0)) {
+            assertThat(reopened.getWritePosition()).isEqualTo(99L * RECORD);
+            Tick next = ticks(1).get(0);
+            reopened.append(List.of(next));
+
+            List<Tick> expected = new ArrayList<>(written.subList(0, 99));
+            expected.add(next);
+            assertThat(readAll(reopened, 0, 1000)).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void cutsATruncatedTailOnReopen() throws IOException {
+        List<Tick> written = ticks(100);
+        try (TickJournal journal = open(0)) {
+            journal.append(written);
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segmentPath(0).toFile(), "rw")) {
+            file.setLength(100L * RECORD - 5);
+        }
+
+        try (TickJournal reopened = open(0)) {
+            assertThat(reopened.getWritePosition()).isEqualTo(99L * RECORD);
+            // The short segment has no room left, so this starts the next one
+            Tick next = ticks(1).get(0);
+            reopened.append(List.of(next));
+
+            assertThat(segmentPath(100L * RECORD - 5)).exists();
+            List<Tick> expected = new ArrayList<>(written.subList(0, 99));
+            expected.add(next);
+            assertThat(readAll(reopened, 0, 1000)).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void refusesACorruptRecordBeforeTheNewestSegment() throws IOException {
+        try (TickJournal journal = open(0)) {
+            journal.append(ticks(PER_SEGMENT + 10));
+        }
+        flipByte(segmentPath(0), 10L * RECORD + 20);
+
+        assertThatThrownBy(() -> open(0))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Corrupt journal record at position " + 10L * RECORD);
+    }
+
+    @Test
+    void releaseDeletesDrainedSegmentsButKeepsTheCurrentOne() throws IOException {
+        List<Tick> written = ticks(2 * PER_SEGMENT + 10);
+        try (TickJournal journal = open(0)) {
+            journal.append(written);
+
+            journal.release(SEGMENT - 1);
+            assertThat(journal.getStartPosition()).isZero();
+
+            journal.release(SEGMENT);
+            assertThat(journal.getStartPosition()).isEqualTo(SEGMENT);
+            assertThat(segmentPath(0)).doesNotExist();
+            assertThat(readAll(journal, SEGMENT, 500)).containsExactlyElementsOf(written.subList(PER_SEGMENT,
+                    written.size()));
+
+            journal.release(Long.MAX_VALUE);
+            assertThat(journal.getStartPosition()).isEqualTo(2L * SEGMENT);
+            assertThat(segmentFiles()).containsExactly(segmentPath(2L * SEGMENT));
+        }
+    }
+
+    @Test
+    void startsFreshWhenTheFilesEndBeforeTheDrainedPosition() throws IOException {
+        try (TickJournal journal = open(0)) {
+            journal.append(ticks(PER_SEGMENT + 10));
+        }
+
+        long drained = 10L * SEGMENT;
+        try (TickJournal reopened = open(drained)) {
+            assertThat(reopened.getStartPosition()).isEqualTo(drained);
+            assertThat(reopened.getWritePosition()).isEqualTo(drained);
+            assertThat(segmentFiles()).containsExactly(segmentPath(drained));
+
+            List<Tick> next = ticks(3);
+            reopened.append(next);
+            assertThat(readAll(reopened, drained, 100)).containsExactlyElementsOf(next);
+        }
+    }
+
+    @Test
+    void refusesToOpenWhenTicksBeforeTheFilesWereNeverDrained() throws IOException {
+        try (TickJournal journal = open(0)) {
+            journal.append(ticks(PER_SEGMENT + 10));
+            journal.release(SEGMENT);
+        }
+
+        assertThatThrownBy(() -> open(0))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("never drained");
+    }
+
+    @Test
+    void refusesADrainedPositionInsideARecord() throws IOException {
+        try (TickJournal journal = open(0)) {
+            journal.append(ticks(10));
+        }
+
+        assertThatThrownBy(() -> open(RECORD + 1))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("not a record boundary");
+    }
+
+    @Test
+    void rejectsAppendsBeyondTheSizeLimit() throws IOException {
+        try (TickJournal journal = open(0)) {
+            long end = journal.append(ticks(PER_SEGMENT * 2));
+
+            assertThatThrownBy(() -> journal.append(ticks(2 * PER_SEGMENT)))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("Journal is full");
+            assertThat(journal.getWritePosition()).isEqualTo(end);
+        }
+    }
+
+    private TickJournal open(long startPosition) throws IOException {
+        return new TickJournal(dir, SEGMENT, 4L * SEGMENT, false, symbols, startPosition);
+    }
+
+    private List<Tick> ticks(int count) {
+        List<Tick> ticks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            nextMicros += 1_000;
+            ticks.add(new Tick(aapl, nextMicros, 150.0 + i % 7 * 0.01, i % 13));
+        }
+        return ticks;
+    }
+
+    private static List<Tick> readAll(TickJournal journal, long from, int batch) {
+        List<Tick> out = new ArrayList<>();
+        long position = from;
+        while (position < journal.getWritePosition()) {
+            position = journal.read(position, batch, out);
+        }
+        return out;
+    }
+
+    private Path segmentPath(long base) {
+        return dir.resolve(String.format("%020d", base) + ".journal");
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static void flipByte(Path path, long offset) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(offset);
+            int value = file.read();
+            file.seek(offset);
+            file.write(value ^ 0x5A);
+        }
+    }
+}
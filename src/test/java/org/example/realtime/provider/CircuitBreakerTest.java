@@ -0,0 +1,115 @@
+package org.example.realtime.provider;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * State transitions of the breaker. Open periods are tens of milliseconds so
+ * the tests can wait them out; jitter keeps each within +/-20% of nominal.
+ */
+class CircuitBreakerTest {
+
+    private static final long BASE_OPEN_MILLIS = 50;
+
+    @Test
+    void staysClosedBelowTheFailureThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker(3, BASE_OPEN_MILLIS, 1000);
+
+        breaker.onFailure();
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        CircuitBreaker breaker = new CircuitBreaker(3, BASE_OPEN_MILLIS, 1000);
+
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void opensAtTheThresholdAndRejectsCalls() {
+        CircuitBreaker breaker = new CircuitBreaker(3, 10_000, 10_000);
+
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void admitsOneProbeOnceTheOpenPeriodElapses() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+
+        Thread.sleep(BASE_OPEN_MILLIS * 2);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void successfulProbeCloses() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        Thread.sleep(BASE_OPEN_MILLIS * 2);
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onSuccess();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void failedProbeReopensForTwiceAsLong() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        Thread.sleep(BASE_OPEN_MILLIS * 2);
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        // Past the first period's upper bound but inside the second's lower bound
+        Thread.sleep(BASE_OPEN_MILLIS * 6 / 5 + 10);
+        assertThat(breaker.tryAcquire()).isFalse();
+        Thread.sleep(BASE_OPEN_MILLIS * 2);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void releasedProbeLetsTheNextCallerProbe() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        Thread.sleep(BASE_OPEN_MILLIS * 2);
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.release();
+
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThatThrownBy(() -> new CircuitBreaker(0, 100, 1000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CircuitBreaker(1, 0, 1000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CircuitBreaker(1, 100, 50)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static CircuitBreaker openBreaker() {
+        CircuitBreaker breaker = new CircuitBreaker(1, BASE_OPEN_MILLIS, 10_000);
+        breaker.onFailure();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        return breaker;
+    }
+}
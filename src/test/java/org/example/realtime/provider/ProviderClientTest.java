@@ -0,0 +1,73 @@
+package org.example.realtime.provider;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.realtime.metrics.PipelineMetrics;
+import org.example.realtime.ratelimit.AdaptiveRateLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Retries against a provider that always answers 503. With plenty of
+ * attempts allowed, only the call's deadline stops the retries.
+ */
+class ProviderClientTest {
+
+    private static final long MAX_WAIT_MILLIS = 400;
+    // Scheduling slack on a busy build machine
+    private static final long SLACK_MILLIS = 150;
+
+    private final FailingRestTemplate restTemplate = new FailingRestTemplate();
+
+    @Test
+    void retryDelaysShareOneDeadline() {
+        ProviderClient client = client(new AdaptiveRateLimiter(1_000, 1_000, 1_000), 50);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> client.get("http://provider/quote", String.class))
+                .isInstanceOf(HttpServerErrorException.class);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                .isLessThan(MAX_WAIT_MILLIS + SLACK_MILLIS);
+        assertThat(restTemplate.calls).isGreaterThan(1);
+    }
+
+    @Test
+    void tokenWaitsShareOneDeadline() {
+        // A token every 250 ms: the second attempt waits for one, the third
+        // would need another that no longer fits before the deadline
+        ProviderClient client = client(new AdaptiveRateLimiter(4, 4, 1), 1);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> client.get("http://provider/quote", String.class))
+                .isInstanceOf(ProviderUnavailableException.class)
+                .hasMessageContaining("rate limit");
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                .isLessThan(MAX_WAIT_MILLIS + SLACK_MILLIS);
+        assertThat(restTemplate.calls).isEqualTo(2);
+    }
+
+    private ProviderClient client(AdaptiveRateLimiter rateLimiter, long baseBackoffMillis) {
+        return new ProviderClient("test", restTemplate, rateLimiter, new CircuitBreaker(1_000, 1_000, 1_000),
+                1_000, baseBackoffMillis, MAX_WAIT_MILLIS,
+                new PipelineMetrics(new SimpleMeterRegistry(), new String[0]));
+    }
+
+    private static final class FailingRestTemplate extends RestTemplate {
+
+        private int calls;
+
+        @Override
+        public <T> T getForObject(String url, Class<T> responseType, Object... uriVariables) {
+            calls++;
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.realtime.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Rate changes of the AIMD limiter: halving on throttling down to the floor,
+ * additive recovery up to the ceiling.
+ */
+class AdaptiveRateLimiterTest {
+
+    @Test
+    void startsAtTheMaximumRate() {
+        assertThat(new AdaptiveRateLimiter(40, 2, 10).getPermitsPerSecond()).isEqualTo(40);
+    }
+
+    @Test
+    void halvesOnEachThrottleDownToTheFloor() {
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(40, 3, 10);
+
+        limiter.onThrottled();
+        assertThat(limiter.getPermitsPerSecond()).isEqualTo(20);
+        limiter.onThrottled();
+        assertThat(limiter.getPermitsPerSecond()).isEqualTo(10);
+        limiter.onThrottled();
+        limiter.onThrottled();
+        assertThat(limiter.getPermitsPerSecond()).isEqualTo(3);
+        limiter.onThrottled();
+        assertThat(limiter.getPermitsPerSecond()).isEqualTo(3);
+    }
+
+    @Test
+    void tenSuccessesUndoOneHalvingFromFullRate() {
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(40, 2, 10);
+        limiter.onThrottled();
+
+        for (int i = 0; i < 9; i++) {
+            limiter.onSuccess();
+        }
+        assertThat(limiter.getPermitsPerSecond()).isEqualTo(38);
+        limiter.onSuccess();
+        assertThat(limiter.getPermitsPerSecond()).isEqualTo(40);
+    }
+
+    @Test
+    void neverExceedsTheMaximumRate() {
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(40, 2, 10);
+        limiter.onThrottled();
+        limiter.onThrottled();
+
+        for (int i = 0; i < 100; i++) {
+            limiter.onSuccess();
+        }
+
+        assertThat(limiter.getPermitsPerSecond()).isEqualTo(40);
+    }
+
+    @Test
+    void throttlingSlowsTheBucket() throws InterruptedException {
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(2, 1, 1);
+        assertThat(limiter.tryAcquire()).isTrue();
+        // At 2/s the next token is due within 500 ms
+        long halfSecond = 500_000_000L;
+        assertThat(limiter.tryAcquire(halfSecond)).isNotNegative();
+
+        limiter.onThrottled();
+
+        // At 1/s it is a second away, beyond the caller's budget
+        assertThat(limiter.tryAcquire(halfSecond)).isEqualTo(-1);
+    }
+
+    @Test
+    void rejectsAFloorAboveTheCeiling() {
+        assertThatThrownBy(() -> new AdaptiveRateLimiter(10, 20, 5)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveRateLimiter(10, 0, 5)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
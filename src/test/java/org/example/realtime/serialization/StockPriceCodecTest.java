@@ -0,0 +1,59 @@
+package org.example.realtime.serialization;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.example.realtime.analysis.Timestamps;
+import org.example.realtime.model.StockPrice;
+import org.example.realtime.model.Tick;
+import org.example.realtime.symbol.SymbolDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Reads what the serializer writes in either format, and refuses binary
+ * records of a version this build does not know.
+ */
+class StockPriceCodecTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2024, 3, 1, 14, 30, 5, 123_456_000);
+
+    private final SymbolDictionary symbols = new SymbolDictionary();
+
+    @Test
+    void readsBinaryAndJsonRecords() {
+        StockPrice stock = new StockPrice("AAPL", 180.25, 1_000, 1.5, 0.84, 181, 178.5, 179, 178.75);
+        stock.setTimestamp(TIMESTAMP);
+
+        for (String format : new String[] {"binary", "json"}) {
+            StockPriceSerializer serializer = new StockPriceSerializer();
+            serializer.configure(Map.of(StockPriceSerializer.FORMAT_CONFIG, format), false);
+            byte[] data = serializer.serialize("stock-prices", stock);
+
+            assertThat(StockPriceCodec.isBinary(data)).isEqualTo(format.equals("binary"));
+            assertThat(new StockPriceDeserializer().deserialize("stock-prices", data)).isEqualTo(stock);
+            Tick tick = new TickDeserializer(symbols).deserialize("stock-prices", data);
+            assertThat(symbols.symbol(tick.getSymbolId())).isEqualTo("AAPL");
+            assertThat(tick.getEpochMicros()).isEqualTo(Timestamps.toEpochMicros(TIMESTAMP));
+            assertThat(tick.getPrice()).isEqualTo(180.25);
+            assertThat(tick.getVolume()).isEqualTo(1_000);
+        }
+    }
+
+    @Test
+    void rejectsAnUnknownVersionInsteadOfReadingItAsJson() {
+        byte[] data = StockPriceCodec.encode(new StockPrice("AAPL", 1, 1, 0, 0, 1, 1, 1, 1));
+        data[0] = 2;
+
+        assertThat(StockPriceCodec.isBinary(data)).isTrue();
+        assertThatThrownBy(() -> new StockPriceDeserializer().deserialize("stock-prices", data))
+                .isInstanceOf(SerializationException.class)
+                .hasRootCauseMessage("Unsupported StockPrice encoding version: 2");
+        assertThatThrownBy(() -> new TickDeserializer(symbols).deserialize("stock-prices", data))
+                .isInstanceOf(SerializationException.class)
+                .hasRootCauseMessage("Unsupported StockPrice encoding version: 2");
+    }
+}
@@ -0,0 +1,231 @@
+package org.example.realtime.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.example.realtime.analysis.IndicatorState;
+import org.example.realtime.metrics.PipelineMetrics;
+import org.example.realtime.model.Alert;
+import org.example.realtime.model.AlertDirection;
+import org.example.realtime.model.AlertRule;
+import org.example.realtime.model.AlertRuleType;
+import org.example.realtime.model.Tick;
+import org.example.realtime.repository.AlertRuleRepository;
+import org.example.realtime.symbol.SymbolDictionary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Feeds ticks through the alerting listener with rules kept in memory and
+ * records what would be published.
+ */
+class AlertingServiceTest {
+
+    private static final int RSI_PERIOD = 3;
+    private static final long COOLDOWN_SECONDS = 60;
+    private static final long T0 = 1_700_000_000_000L;
+
+    private final SymbolDictionary symbols = new SymbolDictionary();
+    private final Map<Long, AlertRule> stored = new TreeMap<>();
+    private final List<Alert> published = new ArrayList<>();
+    private AlertingService alerting;
+    private long offset;
+
+    @BeforeEach
+    void setUp() {
+        alerting = new AlertingService(repository(), new RecordingPublisher(),
+                symbols, new PipelineMetrics(new SimpleMeterRegistry(), new String[0]),
+                RSI_PERIOD, COOLDOWN_SECONDS, 1440);
+    }
+
+    @Test
+    void percentMoveFiresAgainstTheWindowExtreme() {
+        rule("AAPL", AlertRuleType.PERCENT_MOVE, AlertDirection.BOTH, 2.0, 1);
+
+        tick("AAPL", 0, 100.0, 1);
+        tick("AAPL", 10_000, 101.0, 1);
+        tick("AAPL", 20_000, 102.5, 1);
+
+        assertThat(published).singleElement().satisfies(alert -> {
+            assertThat(alert.getType()).isEqualTo(AlertRuleType.PERCENT_MOVE);
+            assertThat(alert.getValue()).isEqualTo(2.5);
+            assertThat(alert.getPrice()).isEqualTo(102.5);
+        });
+    }
+
+    @Test
+    void percentMoveIgnoresTicksThatLeftTheWindowAndTheOtherDirection() {
+        rule("AAPL", AlertRuleType.PERCENT_MOVE, AlertDirection.DOWN, 2.0, 1);
+
+        tick("AAPL", 0, 100.0, 1);
+        // A rise, but only falls count
+        tick("AAPL", 1_000, 105.0, 1);
+        // 105 left the one-minute window, so this is no fall
+        tick("AAPL", 62_000, 101.0, 1);
+        assertThat(published).isEmpty();
+
+        tick("AAPL", 63_000, 98.9, 1);
+        assertThat(published).singleElement()
+                .satisfies(alert -> assertThat(alert.getValue()).isLessThanOrEqualTo(-2.0));
+    }
+
+    @Test
+    void volumeSpikeComparesWithTheAverageOfEarlierTicks() {
+        rule("MSFT", AlertRuleType.VOLUME_SPIKE, AlertDirection.BOTH, 3.0, 5);
+
+        tick("MSFT", 0, 400.0, 100);
+        tick("MSFT", 1_000, 400.0, 200);
+        tick("MSFT", 2_000, 400.0, 440);
+        assertThat(published).isEmpty();
+
+        tick("MSFT", 3_000, 400.0, 750);
+        assertThat(published).singleElement()
+                .satisfies(alert -> assertThat(alert.getValue()).isCloseTo(750.0 / (740.0 / 3), within(1e-9)));
+    }
+
+    @Test
+    void rsiCrossFiresOnTheCrossingTickOnly() {
+        rule("AAPL", AlertRuleType.RSI_CROSS, AlertDirection.UP, 50.0, 0);
+        double[] prices = {100, 99, 98, 97, 96, 98, 101, 103, 104, 106};
+
+        IndicatorState reference = new IndicatorState(RSI_PERIOD);
+        int crossing = -1;
+        double previous = Double.NaN;
+        for (int i = 0; i < prices.length; i++) {
+            reference.update(prices[i], i);
+            double rsi = reference.isWarm() ? reference.getRsi() : Double.NaN;
+            if (crossing < 0 && previous < 50.0 && rsi >= 50.0) crossing = i;
+            previous = rsi;
+        }
+        assertThat(crossing).isPositive();
+
+        for (int i = 0; i < prices.length; i++) {
+            // Far apart so no cooldown hides a second firing
+            tick("AAPL", i * 2 * COOLDOWN_SECONDS * 1000, prices[i], 1);
+            assertThat(published).hasSize(i < crossing ? 0 : 1);
+        }
+        assertThat(published.get(0).getPrice()).isEqualTo(prices[crossing]);
+    }
+
+    @Test
+    void returnZScoreNeedsEnoughReturnsAndFiresOnAnOutlier() {
+        rule("AAPL", AlertRuleType.RETURN_ZSCORE, AlertDirection.BOTH, 4.0, 10);
+
+        double price = 100.0;
+        for (int i = 0; i < 12; i++) {
+            price *= i % 2 == 0 ? 1.001 : 0.999;
+            tick("AAPL", i * 1_000L, price, 1);
+        }
+        assertThat(published).isEmpty();
+
+        tick("AAPL", 12_000, price * 1.02, 1);
+        assertThat(published).singleElement().satisfies(alert -> {
+            assertThat(alert.getType()).isEqualTo(AlertRuleType.RETURN_ZSCORE);
+            assertThat(alert.getValue()).isGreaterThanOrEqualTo(4.0);
+        });
+    }
+
+    @Test
+    void cooldownSuppressesRepeatsUntilItExpires() {
+        rule("AAPL", AlertRuleType.PERCENT_MOVE, AlertDirection.UP, 1.0, 60);
+
+        tick("AAPL", 0, 100.0, 1);
+        tick("AAPL", 1_000, 102.0, 1);
+        tick("AAPL", 2_000, 104.0, 1);
+        tick("AAPL", COOLDOWN_SECONDS * 1000, 106.0, 1);
+        tick("AAPL", COOLDOWN_SECONDS * 1000 + 1_000, 108.0, 1);
+
+        assertThat(published).extracting(Alert::getPrice).containsExactly(102.0, 108.0);
+    }
+
+    @Test
+    void ignoresTicksNotNewerThanTheLastOne() {
+        rule("AAPL", AlertRuleType.PERCENT_MOVE, AlertDirection.UP, 1.0, 1);
+
+        tick("AAPL", 10_000, 100.0, 1);
+        tick("AAPL", 10_000, 120.0, 1);
+        tick("AAPL", 5_000, 120.0, 1);
+
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    void matchesRuleSymbolsRegardlessOfCase() {
+        AlertRule created = rule(" aapl ", AlertRuleType.PERCENT_MOVE, AlertDirection.UP, 1.0, 1);
+
+        tick("AAPL", 0, 100.0, 1);
+        tick("AAPL", 1_000, 102.0, 1);
+
+        assertThat(created.getSymbol()).isEqualTo("AAPL");
+        assertThat(alerting.getRules("aapl")).containsExactly(created);
+        assertThat(published).singleElement().satisfies(alert -> assertThat(alert.getSymbol()).isEqualTo("AAPL"));
+    }
+
+    @Test
+    void rejectsSymbolsLongerThanTheColumn() {
+        assertThatThrownBy(() -> rule("X".repeat(AlertRule.MAX_SYMBOL_LENGTH + 1),
+                AlertRuleType.PERCENT_MOVE, AlertDirection.UP, 1.0, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("symbol");
+        assertThat(stored).isEmpty();
+    }
+
+    private AlertRule rule(String symbol, AlertRuleType type, AlertDirection direction, double threshold,
+                           int windowMinutes) {
+        AlertRule rule = new AlertRule();
+        rule.setSymbol(symbol);
+        rule.setType(type);
+        rule.setDirection(direction);
+        rule.setThreshold(threshold);
+        rule.setWindowMinutes(windowMinutes);
+        return alerting.createRule(rule);
+    }
+
+    private void tick(String symbol, long sinceStart, double price, double volume) {
+        Tick tick = new Tick(symbols.intern(symbol), (T0 + sinceStart) * 1000, price, volume);
+        alerting.consume(List.of(new ConsumerRecord<>("stock-prices", 0, offset++, symbol, tick)));
+    }
+
+    // Only the calls AlertingService makes
+    private AlertRuleRepository repository() {
+        return (AlertRuleRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {AlertRuleRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findAll" -> new ArrayList<>(stored.values());
+                    case "findBySymbolOrderByIdAsc" -> stored.values().stream()
+                            .filter(rule -> rule.getSymbol().equals(args[0])).toList();
+                    case "findById" -> Optional.ofNullable(stored.get((Long) args[0]));
+                    case "save" -> {
+                        AlertRule rule = (AlertRule) args[0];
+                        rule.setId((long) stored.size() + 1);
+                        stored.put(rule.getId(), rule);
+                        yield rule;
+                    }
+                    case "delete" -> stored.remove(((AlertRule) args[0]).getId());
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private final class RecordingPublisher extends AlertPublisher {
+
+        private RecordingPublisher() {
+            super(new KafkaProperties(), new ObjectMapper(), "stock-alerts");
+        }
+
+        @Override
+        public void publish(Alert alert) {
+            published.add(alert);
+        }
+    }
+}
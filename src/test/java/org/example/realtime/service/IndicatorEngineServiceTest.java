@@ -0,0 +1,46 @@
+package org.example.realtime.service;
+
+import org.example.realtime.analysis.IndicatorState;
+import org.example.realtime.symbol.SymbolDictionary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ordering guard of the live indicator updates.
+ */
+class IndicatorEngineServiceTest {
+
+    private final SymbolDictionary symbols = new SymbolDictionary();
+    private IndicatorEngineService engine;
+    private int aapl;
+
+    @BeforeEach
+    void setUp() {
+        engine = new IndicatorEngineService(new TickStoreService(null, symbols), symbols);
+        ReflectionTestUtils.setField(engine, "rsiPeriod", 3);
+        aapl = symbols.intern("AAPL");
+    }
+
+    @Test
+    void appliesTicksSharingTheLastMillisecond() {
+        engine.onTick(aapl, 100.0, 1_000);
+        engine.onTick(aapl, 101.0, 1_000);
+        IndicatorState state = engine.onTick(aapl, 102.0, 1_000);
+
+        assertThat(state.getCount()).isEqualTo(3);
+        assertThat(state.getLastPrice()).isEqualTo(102.0);
+    }
+
+    @Test
+    void skipsStrictlyOlderTicks() {
+        engine.onTick(aapl, 100.0, 2_000);
+        IndicatorState state = engine.onTick(aapl, 90.0, 1_999);
+
+        assertThat(state.getCount()).isEqualTo(1);
+        assertThat(state.getLastPrice()).isEqualTo(100.0);
+        assertThat(state.getLastTimestamp()).isEqualTo(2_000);
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.realtime.service;
+
+import org.example.realtime.analysis.Timestamps;
+import org.example.realtime.model.BarResolution;
+import org.example.realtime.model.HistoricalStockPrice;
+import org.example.realtime.model.PriceBar;
+import org.example.realtime.model.Tick;
+import org.example.realtime.symbol.SymbolDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Folds tick batches into the partial bars that are upserted.
+ */
+class PriceBarServiceTest {
+
+    private static final LocalDateTime MINUTE = LocalDateTime.of(2024, 3, 1, 14, 30);
+
+    @Test
+    void foldsTicksIntoABarPerResolution() {
+        Collection<PriceBar> bars = PriceBarService.fold(List.of(
+                new HistoricalStockPrice("AAPL", 100.0, 10, MINUTE.plusSeconds(1)),
+                new HistoricalStockPrice("AAPL", 103.0, 20, MINUTE.plusSeconds(2)),
+                new HistoricalStockPrice("AAPL", 99.0, 30, MINUTE.plusSeconds(3))));
+
+        assertThat(bars).extracting(PriceBar::getResolution).containsExactly(BarResolution.values());
+        PriceBar minute = bars.iterator().next();
+        assertThat(minute.getBucketStart()).isEqualTo(MINUTE);
+        assertThat(minute.getOpenPrice()).isEqualTo(100.0);
+        assertThat(minute.getHighPrice()).isEqualTo(103.0);
+        assertThat(minute.getLowPrice()).isEqualTo(99.0);
+        assertThat(minute.getClosePrice()).isEqualTo(99.0);
+        assertThat(minute.getVolume()).isEqualTo(60.0);
+        assertThat(minute.getTickCount()).isEqualTo(3);
+    }
+
+    @Test
+    void takesOpenAndCloseByTickTimeNotArrival() {
+        Collection<PriceBar> bars = PriceBarService.fold(List.of(
+                new HistoricalStockPrice("AAPL", 100.0, 1, MINUTE.plusSeconds(20)),
+                new HistoricalStockPrice("AAPL", 98.0, 1, MINUTE.plusSeconds(5)),
+                new HistoricalStockPrice("AAPL", 102.0, 1, MINUTE.plusSeconds(50)),
+                new HistoricalStockPrice("AAPL", 101.0, 1, MINUTE.plusSeconds(30))));
+
+        PriceBar minute = bars.iterator().next();
+        assertThat(minute.getOpenPrice()).isEqualTo(98.0);
+        assertThat(minute.getFirstTickAt()).isEqualTo(MINUTE.plusSeconds(5));
+        assertThat(minute.getClosePrice()).isEqualTo(102.0);
+        assertThat(minute.getLastTickAt()).isEqualTo(MINUTE.plusSeconds(50));
+    }
+
+    @Test
+    void leavesOutSymbolsTooLongForBars() {
+        String longSymbol = "X".repeat(PriceBar.MAX_SYMBOL_LENGTH + 1);
+        Collection<PriceBar> bars = PriceBarService.fold(List.of(
+                new HistoricalStockPrice(longSymbol, 1.0, 1, MINUTE),
+                new HistoricalStockPrice("X".repeat(PriceBar.MAX_SYMBOL_LENGTH), 2.0, 1, MINUTE)));
+
+        assertThat(bars).hasSize(BarResolution.values().length)
+                .extracting(PriceBar::getSymbol)
+                .containsOnly("X".repeat(PriceBar.MAX_SYMBOL_LENGTH));
+    }
+
+    @Test
+    void foldsTicksLikeTheRowsTheyStandFor() {
+        SymbolDictionary symbols = new SymbolDictionary();
+        Random random = new Random(5);
+        List<Tick> ticks = new ArrayList<>();
+        List<HistoricalStockPrice> rows = new ArrayList<>();
+        // Through the night of 10 March 2024, when US clocks went forward
+        long micros = Timestamps.toEpochMicros(LocalDateTime.of(2024, 3, 9, 12, 0));
+        for (int i = 0; i < 5_000; i++) {
+            // Across minute, hour and day boundaries, partly out of order
+            micros += random.nextInt(60_000_000) - 10_000_000;
+            String symbol = i % 3 == 0 ? "MSFT" : "AAPL";
+            double price = 100 + random.nextInt(1_000) / 100.0;
+            ticks.add(new Tick(symbols.intern(symbol), micros, price, i % 7));
+            rows.add(new HistoricalStockPrice(symbol, price, i % 7, Timestamps.fromEpochMicros(micros)));
+        }
+
+        assertThat(PriceBarService.fold(ticks, symbols))
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(PriceBarService.fold(rows));
+    }
+}
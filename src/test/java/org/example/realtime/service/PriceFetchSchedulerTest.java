@@ -0,0 +1,165 @@
+package org.example.realtime.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.realtime.metrics.PipelineMetrics;
+import org.example.realtime.provider.CircuitBreaker;
+import org.example.realtime.provider.ProviderClient;
+import org.example.realtime.ratelimit.AdaptiveRateLimiter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the scheduler against a local stub upstream and checks the limits it
+ * promises: concurrent fan-out, at most max-in-flight open requests and no
+ * more requests than the provider's rate allows.
+ */
+class PriceFetchSchedulerTest {
+
+    private static final String BODY = "{\"chart\":{\"result\":[{\"meta\":{\"regularMarketPrice\":1.0}}]}}";
+
+    private HttpServer server;
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Long> requestNanos = new ConcurrentLinkedQueue<>();
+    private volatile long delayMillis;
+    private final List<PriceFetchScheduler> schedulers = new ArrayList<>();
+
+    @BeforeEach
+    void startStub() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+        server.createContext("/", exchange -> {
+            requestNanos.add(System.nanoTime());
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(delayMillis);
+                byte[] bytes = BODY.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        schedulers.forEach(PriceFetchScheduler::shutdown);
+        server.stop(0);
+    }
+
+    @Test
+    void fansOutFetchesConcurrently() throws Exception {
+        delayMillis = 300;
+        ProviderClient provider = provider(1000, 100);
+        PriceFetchScheduler scheduler = scheduler(8, provider);
+
+        long started = System.nanoTime();
+        assertThat(scheduler.dispatch(symbols(8), fetch(provider))).isEqualTo(8);
+        awaitIdle(scheduler);
+
+        assertThat(maxConcurrent.get()).isEqualTo(8);
+        // Sequential fetches would take 8 x 300 ms
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(1500);
+    }
+
+    @Test
+    void neverExceedsMaxInFlight() throws Exception {
+        delayMillis = 50;
+        ProviderClient provider = provider(1000, 100);
+        PriceFetchScheduler scheduler = scheduler(4, provider);
+
+        List<String> symbols = symbols(200);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (System.nanoTime() < deadline) {
+            scheduler.dispatch(symbols, fetch(provider));
+            assertThat(scheduler.getInFlight()).isLessThanOrEqualTo(4);
+            Thread.sleep(5);
+        }
+        awaitIdle(scheduler);
+
+        assertThat(maxConcurrent.get()).isEqualTo(4);
+        assertThat(requestNanos).hasSizeGreaterThan(4);
+    }
+
+    @Test
+    void staysWithinTheProviderRate() throws Exception {
+        delayMillis = 0;
+        double rate = 20;
+        int burst = 2;
+        ProviderClient provider = provider(rate, burst);
+        PriceFetchScheduler scheduler = scheduler(32, provider);
+
+        List<String> symbols = symbols(500);
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.SECONDS.toNanos(2);
+        while (System.nanoTime() < deadline) {
+            scheduler.dispatch(symbols, fetch(provider));
+            Thread.sleep(50);
+        }
+        long window = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        List<Long> sent = new ArrayList<>(requestNanos);
+
+        // Token bucket bound: burst plus rate over the window, and close to it
+        // since there are always more symbols than tokens
+        double allowed = burst + rate * window / 1000.0;
+        assertThat(sent.size()).isLessThanOrEqualTo((int) Math.ceil(allowed) + 1);
+        assertThat(sent.size()).isGreaterThanOrEqualTo((int) (allowed * 0.7));
+        awaitIdle(scheduler);
+    }
+
+    private ProviderClient provider(double rate, int burst) {
+        return new ProviderClient("stub", new RestTemplate(), new AdaptiveRateLimiter(rate, rate / 16, burst),
+                new CircuitBreaker(5, 1_000, 10_000), 1, 10, 5_000,
+                new PipelineMetrics(new SimpleMeterRegistry(), new String[0]));
+    }
+
+    private PriceFetchScheduler scheduler(int maxInFlight, ProviderClient provider) {
+        PriceFetchScheduler scheduler = new PriceFetchScheduler(maxInFlight, 1000, new String[0], 10_000,
+                1000, provider);
+        schedulers.add(scheduler);
+        return scheduler;
+    }
+
+    private Consumer<String> fetch(ProviderClient provider) {
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        return symbol -> provider.get(baseUrl + "/v8/finance/chart/" + symbol, Map.class);
+    }
+
+    private static List<String> symbols(int count) {
+        List<String> symbols = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) symbols.add("SYM" + i);
+        return symbols;
+    }
+
+    private static void awaitIdle(PriceFetchScheduler scheduler) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (scheduler.getInFlight() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(scheduler.getInFlight()).isZero();
+    }
+}
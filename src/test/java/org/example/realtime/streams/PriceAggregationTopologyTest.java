@@ -0,0 +1,124 @@
+package org.example.realtime.streams;
+
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.WindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.example.realtime.analysis.Timestamps;
+import org.example.realtime.model.StockPrice;
+import org.example.realtime.model.WindowAggregate;
+import org.example.realtime.serialization.StockPriceSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the aggregation topology under TopologyTestDriver and reads the
+ * resulting window stores.
+ */
+class PriceAggregationTopologyTest {
+
+    private static final String TOPIC = "stock-prices";
+    private static final LocalDateTime MINUTE = LocalDateTime.of(2024, 3, 1, 14, 30);
+
+    @TempDir
+    Path stateDir;
+
+    private TopologyTestDriver driver;
+    private TestInputTopic<String, StockPrice> binaryTicks;
+    private TestInputTopic<String, StockPrice> jsonTicks;
+
+    @BeforeEach
+    void setUp() {
+        StreamsBuilder builder = new StreamsBuilder();
+        PriceAggregationTopology.build(builder, TOPIC);
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "price-aggregation-test");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "unused:9092");
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        driver = new TopologyTestDriver(builder.build(), props);
+
+        binaryTicks = driver.createInputTopic(TOPIC, new StringSerializer(), new StockPriceSerializer());
+        StockPriceSerializer json = new StockPriceSerializer();
+        json.configure(Map.of(StockPriceSerializer.FORMAT_CONFIG, "json"), false);
+        jsonTicks = driver.createInputTopic(TOPIC, new StringSerializer(), json);
+    }
+
+    @AfterEach
+    void tearDown() {
+        driver.close();
+    }
+
+    @Test
+    void aggregatesTicksIntoMinuteWindowsByEventTime() {
+        pipe(binaryTicks, "AAPL", 100.0, 10, MINUTE.plusSeconds(5));
+        // Out of order within the minute: open and close follow event time
+        pipe(binaryTicks, "AAPL", 99.0, 20, MINUTE.plusSeconds(1));
+        pipe(binaryTicks, "AAPL", 103.0, 30, MINUTE.plusSeconds(40));
+        pipe(binaryTicks, "AAPL", 101.0, 40, MINUTE.plusSeconds(70));
+        pipe(binaryTicks, "MSFT", 400.0, 5, MINUTE.plusSeconds(2));
+
+        List<WindowAggregate> windows = minuteWindows("AAPL");
+
+        assertThat(windows).hasSize(2);
+        WindowAggregate first = windows.get(0);
+        assertThat(first.getTickCount()).isEqualTo(3);
+        assertThat(first.getOpenPrice()).isEqualTo(99.0);
+        assertThat(first.getClosePrice()).isEqualTo(103.0);
+        assertThat(first.getHighPrice()).isEqualTo(103.0);
+        assertThat(first.getLowPrice()).isEqualTo(99.0);
+        assertThat(first.getVolume()).isEqualTo(60.0);
+        assertThat(first.getVwap()).isEqualTo((100.0 * 10 + 99.0 * 20 + 103.0 * 30) / 60);
+        assertThat(windows.get(1).getTickCount()).isEqualTo(1);
+        assertThat(minuteWindows("MSFT")).extracting(WindowAggregate::getTickCount).containsExactly(1L);
+    }
+
+    @Test
+    void skipsTicksWithoutTimestampAndKeepsRunning() {
+        pipe(jsonTicks, "AAPL", 100.0, 10, null);
+        pipe(jsonTicks, "AAPL", 101.0, 20, MINUTE.plusSeconds(10));
+        pipe(binaryTicks, "AAPL", 102.0, 30, MINUTE.plusSeconds(20));
+
+        List<WindowAggregate> windows = minuteWindows("AAPL");
+
+        assertThat(windows).hasSize(1);
+        assertThat(windows.get(0).getTickCount()).isEqualTo(2);
+        assertThat(windows.get(0).getOpenPrice()).isEqualTo(101.0);
+    }
+
+    private static void pipe(TestInputTopic<String, StockPrice> topic, String symbol, double price, double volume,
+                             LocalDateTime timestamp) {
+        StockPrice stock = new StockPrice(symbol, price, volume, 0, 0, price, price, price, price);
+        stock.setTimestamp(timestamp);
+        Instant recordTime = Instant.ofEpochMilli(Timestamps.toEpochMillis(MINUTE));
+        topic.pipeInput(symbol, stock, recordTime);
+    }
+
+    private List<WindowAggregate> minuteWindows(String symbol) {
+        WindowStore<String, WindowAggregate> store = driver.getWindowStore(PriceAggregationTopology.MINUTE_STORE);
+        List<WindowAggregate> windows = new ArrayList<>();
+        try (WindowStoreIterator<WindowAggregate> iterator =
+                     store.fetch(symbol, Instant.EPOCH, Instant.now())) {
+            while (iterator.hasNext()) {
+                KeyValue<Long, WindowAggregate> next = iterator.next();
+                windows.add(next.value);
+            }
+        }
+        return windows;
+    }
+}